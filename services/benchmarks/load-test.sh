@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# Runs the same closed-loop load against a service twice, once on platform request threads and once
+# on virtual threads, and prints throughput and latency percentiles for both.
+#
+# Needs the databases from docker-compose.yml, the config server and discovery service running, the
+# service jar (mvn package in the service) and target/benchmarks.jar (mvn package here).
+#
+#   ./load-test.sh product http://localhost:8050/api/v1/products/1 2000 30
+#   ./load-test.sh customer http://localhost:8090/api/v1/customers 2000 30
+set -euo pipefail
+
+service=${1:?usage: load-test.sh <product|customer> <url> [concurrency] [seconds]}
+url=${2:?usage: load-test.sh <product|customer> <url> [concurrency] [seconds]}
+concurrency=${3:-2000}
+seconds=${4:-30}
+
+here=$(cd "$(dirname "$0")" && pwd)
+jar=$(ls "$here"/../"$service"/target/"$service"-*-exec.jar)
+
+for mode in platform virtual; do
+  VIRTUAL_THREADS_ENABLED=$([ "$mode" = virtual ] && echo true || echo false) \
+    java -Djdk.tracePinnedThreads=short -jar "$jar" > "$here/target/load-test-$service-$mode.log" 2>&1 &
+  pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+  until curl -sf -o /dev/null "$url"; do
+    kill -0 $pid 2>/dev/null || { echo "$service failed to start, see target/load-test-$service-$mode.log"; exit 1; }
+    sleep 1
+  done
+
+  java -cp "$here/target/benchmarks.jar" com.athar.ecommerce.benchmark.LoadTest "$url" "$concurrency" "$seconds" 10 "$mode"
+
+  kill $pid
+  wait $pid 2>/dev/null || true
+  pinned=$(grep -c "reason:MONITOR\|<== monitors" "$here/target/load-test-$service-$mode.log" || true)
+  echo "$mode: $pinned pinned virtual thread events logged"
+done
@@ -0,0 +1,23 @@
+package com.athar.ecommerce.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs JMH with its regular command line, adding the gc profiler unless a profiler was chosen so
+ * the allocation rate is reported next to throughput and average time.
+ * <p>
+ * {@code java -jar target/benchmarks.jar [jmh options] [benchmark regexp]}
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        var arguments = new ArrayList<>(List.of(args));
+        if (!arguments.contains("-prof")) {
+            arguments.addAll(0, List.of("-prof", "gc"));
+        }
+        Main.main(arguments.toArray(String[]::new));
+    }
+}
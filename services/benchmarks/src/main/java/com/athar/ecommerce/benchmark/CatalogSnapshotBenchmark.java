@@ -0,0 +1,54 @@
+package com.athar.ecommerce.benchmark;
+
+import com.athar.ecommerce.product.ProductResponse;
+import com.athar.ecommerce.snapshot.CatalogView;
+import com.athar.ecommerce.snapshot.ColumnarCatalog;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-catalog JSON response from the cached {@code List<ProductResponse>}, copied per request the
+ * way {@code ProductService.findAll} does, against the columnar snapshot. The bodies go to a
+ * discarding stream, so the gc profiler's allocation rate is the cost of producing them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogSnapshotBenchmark {
+
+    @Param({"10000", "100000"})
+    private int catalogSize;
+
+    private ObjectWriter writer;
+    private List<ProductResponse> products;
+    private CatalogView view;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+        products = Fixtures.productResponses(catalogSize);
+        var catalog = new ColumnarCatalog(catalogSize, 1024 * 1024);
+        catalog.upsertAll(products);
+        view = new CatalogView(catalog, id -> OptionalDouble.empty());
+    }
+
+    @Benchmark
+    public void productResponses() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), products.stream().toList());
+    }
+
+    @Benchmark
+    public void snapshot() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), view);
+    }
+}
@@ -0,0 +1,99 @@
+package com.athar.ecommerce.benchmark;
+
+import com.athar.ecommerce.category.Category;
+import com.athar.ecommerce.customer.Address;
+import com.athar.ecommerce.customer.Customer;
+import com.athar.ecommerce.customer.CustomerResponse;
+import com.athar.ecommerce.product.Product;
+import com.athar.ecommerce.product.ProductPurchaseRequest;
+import com.athar.ecommerce.product.ProductResponse;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Deterministic test data, seeded so every fork sees the same catalog and carts.
+ */
+final class Fixtures {
+
+    private static final long SEED = 42;
+    private static final int CATEGORIES = 20;
+
+    private Fixtures() {
+    }
+
+    static List<Product> products(int count) {
+        var categories = IntStream.rangeClosed(1, CATEGORIES)
+                .mapToObj(id -> Category.builder()
+                        .id(id)
+                        .name("Category " + id)
+                        .description("Everything about category " + id)
+                        .build())
+                .toList();
+        var random = new SplittableRandom(SEED);
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(id -> Product.builder()
+                        .id(id)
+                        .name("Product " + id)
+                        .description("A reasonably descriptive text for product number " + id)
+                        .price(BigDecimal.valueOf(random.nextInt(100, 100_000), 2))
+                        .availableQuantity(random.nextInt(0, 1_000))
+                        .category(categories.get(id % CATEGORIES))
+                        .build())
+                .toList();
+    }
+
+    static List<ProductResponse> productResponses(int count) {
+        return products(count).stream()
+                .map(product -> new ProductResponse(product.getId(), product.getName(), product.getDescription(),
+                        product.getPrice(), product.getAvailableQuantity(), product.getCategory().getId(),
+                        product.getCategory().getName(), product.getCategory().getDescription()))
+                .toList();
+    }
+
+    /**
+     * Carts of random catalog products with some repeated lines, the shape the purchase endpoint
+     * has to merge before touching the database.
+     */
+    static List<List<ProductPurchaseRequest>> carts(int cartCount, int cartSize, int catalogSize) {
+        var random = new SplittableRandom(SEED);
+        var carts = new ArrayList<List<ProductPurchaseRequest>>(cartCount);
+        for (int i = 0; i < cartCount; i++) {
+            var cart = new ArrayList<ProductPurchaseRequest>(cartSize);
+            for (int line = 0; line < cartSize; line++) {
+                var productId = line > 0 && random.nextInt(10) == 0
+                        ? cart.get(random.nextInt(line)).productId()
+                        : random.nextInt(1, catalogSize + 1);
+                cart.add(new ProductPurchaseRequest(productId, random.nextInt(1, 5)));
+            }
+            carts.add(List.copyOf(cart));
+        }
+        return carts;
+    }
+
+    static List<Customer> customers(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Customer.builder()
+                        .id(String.format("%024x", i))
+                        .firstName("First" + i)
+                        .lastName("Last" + i)
+                        .email("customer" + i + "@example.com")
+                        .address(Address.builder()
+                                .street("Main Street")
+                                .houseNumber(String.valueOf(i % 300))
+                                .zipCode(String.format("%05d", i % 100_000))
+                                .build())
+                        .build())
+                .toList();
+    }
+
+    static List<CustomerResponse> customerResponses(int count) {
+        return customers(count).stream()
+                .map(customer -> new CustomerResponse(customer.getId(), customer.getFirstName(),
+                        customer.getLastName(), customer.getEmail(), customer.getAddress()))
+                .toList();
+    }
+}
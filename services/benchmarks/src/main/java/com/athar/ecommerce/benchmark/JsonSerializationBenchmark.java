@@ -0,0 +1,64 @@
+package com.athar.ecommerce.benchmark;
+
+import com.athar.ecommerce.customer.CustomerResponse;
+import com.athar.ecommerce.encoded.EncodedJson;
+import com.athar.ecommerce.product.ProductResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of response lists, using an {@code ObjectMapper} configured the way Spring
+ * MVC builds its own, against copying out the same product list already encoded.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "1000"})
+    private int catalogSize;
+
+    private ObjectWriter writer;
+    private List<ProductResponse> products;
+    private List<CustomerResponse> customers;
+    private EncodedJson<List<ProductResponse>> encodedProducts;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+        products = Fixtures.productResponses(catalogSize);
+        customers = Fixtures.customerResponses(catalogSize);
+        var fragments = new byte[products.size()][];
+        for (int i = 0; i < fragments.length; i++) {
+            fragments[i] = writer.writeValueAsBytes(products.get(i));
+        }
+        encodedProducts = EncodedJson.array(products, fragments);
+    }
+
+    @Benchmark
+    public byte[] productResponses() throws JsonProcessingException {
+        return writer.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] encodedProductResponses() throws IOException {
+        var body = new ByteArrayOutputStream((int) encodedProducts.contentLength());
+        encodedProducts.writeTo(body);
+        return body.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] customerResponses() throws JsonProcessingException {
+        return writer.writeValueAsBytes(customers);
+    }
+}
@@ -0,0 +1,122 @@
+package com.athar.ecommerce.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop HTTP load generator: {@code concurrency} virtual threads issue GET requests back to
+ * back for the warmup and then the measured duration, and the run is summarised as throughput and
+ * latency percentiles. Used by {@code load-test.sh} to compare platform and virtual request threads.
+ * <p>
+ * {@code java -cp target/benchmarks.jar com.athar.ecommerce.benchmark.LoadTest <url> [concurrency] [seconds] [warmup seconds] [label]}
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        var uri = URI.create(args[0]);
+        var concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        var duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+        var warmup = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 10);
+        var label = args.length > 4 ? args[4] : uri.toString();
+
+        try (var client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build()) {
+            var request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+            run(client, request, concurrency, warmup);
+            var result = run(client, request, concurrency, duration);
+            System.out.println(result.format(label, duration));
+        }
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int concurrency, Duration duration)
+            throws Exception {
+        var deadline = System.nanoTime() + duration.toNanos();
+        var workers = new ArrayList<Future<Worker>>(concurrency);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> new Worker().run(client, request, deadline)));
+            }
+        }
+        var result = new Result();
+        for (var worker : workers) {
+            result.add(worker.get());
+        }
+        return result;
+    }
+
+    private static class Worker {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        Worker run(HttpClient client, HttpRequest request, long deadline) {
+            while (System.nanoTime() < deadline) {
+                var start = System.nanoTime();
+                try {
+                    var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() >= 400) {
+                        errors++;
+                        continue;
+                    }
+                } catch (Exception e) {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                        return this;
+                    }
+                    errors++;
+                    continue;
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - start;
+            }
+            return this;
+        }
+    }
+
+    private static class Result {
+
+        private final List<long[]> latencies = new ArrayList<>();
+        private long requests;
+        private long errors;
+
+        void add(Worker worker) {
+            latencies.add(Arrays.copyOf(worker.latencies, worker.count));
+            requests += worker.count;
+            errors += worker.errors;
+        }
+
+        String format(String label, Duration duration) {
+            var all = new long[(int) requests];
+            int offset = 0;
+            for (var worker : latencies) {
+                System.arraycopy(worker, 0, all, offset, worker.length);
+                offset += worker.length;
+            }
+            Arrays.sort(all);
+            return String.format("%-10s requests=%d errors=%d throughput=%.1f req/s p50=%.2f ms p99=%.2f ms max=%.2f ms",
+                    label, requests, errors, requests / (double) duration.toSeconds(),
+                    percentile(all, 0.50), percentile(all, 0.99), percentile(all, 1.0));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            var index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.athar.ecommerce.benchmark;
+
+import com.athar.ecommerce.customer.Customer;
+import com.athar.ecommerce.customer.CustomerMapper;
+import com.athar.ecommerce.customer.CustomerResponse;
+import com.athar.ecommerce.product.Product;
+import com.athar.ecommerce.product.ProductMapper;
+import com.athar.ecommerce.product.ProductPurchaseResponse;
+import com.athar.ecommerce.product.ProductResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity and projection mapping over a whole catalog, as done by the list endpoints.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"100", "10000"})
+    private int catalogSize;
+
+    private final ProductMapper productMapper = new ProductMapper();
+    private final CustomerMapper customerMapper = new CustomerMapper();
+    private List<Product> products;
+    private List<ProductResponse> productResponses;
+    private List<Customer> customers;
+
+    @Setup
+    public void setUp() {
+        products = Fixtures.products(catalogSize);
+        productResponses = Fixtures.productResponses(catalogSize);
+        customers = Fixtures.customers(catalogSize);
+    }
+
+    @Benchmark
+    public List<ProductResponse> toProductResponse() {
+        var responses = new ArrayList<ProductResponse>(products.size());
+        for (var product : products) {
+            responses.add(productMapper.toProductResponse(product));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public List<ProductPurchaseResponse> toProductPurchaseResponse() {
+        var responses = new ArrayList<ProductPurchaseResponse>(productResponses.size());
+        for (var product : productResponses) {
+            responses.add(productMapper.toProductPurchaseResponse(product, 1));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public List<CustomerResponse> fromCustomer() {
+        var responses = new ArrayList<CustomerResponse>(customers.size());
+        for (var customer : customers) {
+            responses.add(customerMapper.fromCustomer(customer));
+        }
+        return responses;
+    }
+}
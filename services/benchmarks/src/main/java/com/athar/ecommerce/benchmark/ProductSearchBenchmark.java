@@ -0,0 +1,78 @@
+package com.athar.ecommerce.benchmark;
+
+import com.athar.ecommerce.product.ProductCatalogRepository;
+import com.athar.ecommerce.product.ProductResponse;
+import com.athar.ecommerce.search.ProductSearchIndex;
+import com.athar.ecommerce.search.ProductSearchQuery;
+import com.athar.ecommerce.search.ProductSearchResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * {@link ProductSearchIndex#search} over an in-memory catalog, sampled so the percentiles show the
+ * tail next to the average. Every fixture product shares the words of its description, so the text
+ * query is the selective part of the name, the way a search box is typically used.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"100000", "1000000"})
+    private int catalogSize;
+
+    private ProductSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        var catalog = Fixtures.productResponses(catalogSize);
+        var catalogRepository = new ProductCatalogRepository(null, null) {
+            @Override
+            public void streamAll(Consumer<ProductResponse> consumer) {
+                catalog.forEach(consumer);
+            }
+        };
+        index = new ProductSearchIndex(catalogRepository, null, new PurchaseBenchmark.NoOpTransactionManager());
+        index.afterSingletonsInstantiated();
+    }
+
+    @Benchmark
+    public ProductSearchResponse text() {
+        return index.search(new ProductSearchQuery("number 4242", null, null, null, 0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public ProductSearchResponse textInCategory() {
+        return index.search(new ProductSearchQuery("number 42", 2, null, null, 0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public ProductSearchResponse priceRange() {
+        return index.search(new ProductSearchQuery(null, null, new BigDecimal("10.00"), new BigDecimal("10.50"),
+                0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public ProductSearchResponse categoryAndPriceRange() {
+        return index.search(new ProductSearchQuery(null, 2, new BigDecimal("10.00"), new BigDecimal("50.00"),
+                0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public ProductSearchResponse browseCatalog() {
+        return index.search(new ProductSearchQuery(null, null, null, null, 10, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public ProductSearchResponse browseCategory() {
+        return index.search(new ProductSearchQuery(null, 2, null, null, 10, PAGE_SIZE));
+    }
+}
@@ -0,0 +1,142 @@
+package com.athar.ecommerce.benchmark;
+
+import com.athar.ecommerce.inventory.HotInventoryLedger;
+import com.athar.ecommerce.inventory.InventoryProperties;
+import com.athar.ecommerce.inventory.LedgerStockOverlay;
+import com.athar.ecommerce.product.ProductMapper;
+import com.athar.ecommerce.product.ProductPurchaseRequest;
+import com.athar.ecommerce.product.ProductPurchaseResponse;
+import com.athar.ecommerce.product.ProductRepository;
+import com.athar.ecommerce.product.ProductResponse;
+import com.athar.ecommerce.product.ProductService;
+import com.athar.ecommerce.product.ProductStockRepository;
+import com.athar.ecommerce.product.PurchaseCoalescer;
+import com.athar.ecommerce.product.PurchaseCoalescingProperties;
+import com.athar.ecommerce.product.PurchaseMetrics;
+import com.athar.ecommerce.topk.TopProductProperties;
+import com.athar.ecommerce.topk.TopProductTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductService#purchaseProduct} with the repositories answering from memory, so the
+ * numbers cover merging, sorting and zipping the cart with the stored products and nothing else.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseBenchmark {
+
+    private static final int CARTS = 1024;
+
+    @Param({"1", "10", "100"})
+    private int cartSize;
+
+    @Param({"1000", "100000"})
+    private int catalogSize;
+
+    private ProductService productService;
+    private List<List<ProductPurchaseRequest>> carts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        var catalog = Fixtures.productResponses(catalogSize).toArray(ProductResponse[]::new);
+        var transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+        var mapper = new ProductMapper();
+        var purchaseMetrics = new PurchaseMetrics(new SimpleMeterRegistry());
+        var inventoryLedger = new HotInventoryLedger(
+                new InventoryProperties(Set.of(), Duration.ofMillis(500), Duration.ofSeconds(10), Path.of("unused"), false),
+                null, transactionTemplate, event -> {
+        });
+        var purchaseCoalescer = new PurchaseCoalescer(
+                new PurchaseCoalescingProperties(false, Duration.ofMillis(2), 256, Duration.ofSeconds(10)),
+                null, null, mapper, inventoryLedger, transactionTemplate, event -> {
+        }, purchaseMetrics);
+
+        var topProductTracker = new TopProductTracker(
+                new TopProductProperties(100, 4096, 4, Duration.ofMinutes(10), Duration.ofMinutes(1), false), null);
+
+        productService = new ProductService(inMemoryProductRepository(catalog), null, new InMemoryStockRepository(),
+                mapper, inventoryLedger, new LedgerStockOverlay(inventoryLedger), null, null, purchaseCoalescer, purchaseMetrics, topProductTracker,
+                transactionTemplate, event -> {
+        });
+        carts = Fixtures.carts(CARTS, cartSize, catalogSize);
+    }
+
+    @Benchmark
+    public List<ProductPurchaseResponse> purchase() {
+        var cart = carts.get(next);
+        next = (next + 1) & (CARTS - 1);
+        return productService.purchaseProduct(cart);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ProductRepository inMemoryProductRepository(ProductResponse[] catalog) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findAllByIdInOrderById")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    var ids = (Collection<Integer>) args[0];
+                    var products = new ArrayList<ProductResponse>(ids.size());
+                    for (var id : ids) {
+                        if (id >= 1 && id <= catalog.length) {
+                            products.add(catalog[id - 1]);
+                        }
+                    }
+                    return products;
+                });
+    }
+
+    /**
+     * Every guarded update succeeds, so each iteration purchases the whole cart.
+     */
+    private static class InMemoryStockRepository extends ProductStockRepository {
+
+        InMemoryStockRepository() {
+            super(null);
+        }
+
+        @Override
+        public int[] decrementStock(List<ProductPurchaseRequest> lines) {
+            var updateCounts = new int[lines.size()];
+            Arrays.fill(updateCounts, 1);
+            return updateCounts;
+        }
+    }
+
+    static class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.athar.ecommerce.benchmark;
+
+import com.athar.ecommerce.product.ProductPurchaseRequest;
+import com.athar.ecommerce.product.ProductPurchaseResponse;
+import com.athar.ecommerce.product.ProductResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON against CBOR for the catalog and a 50-line cart, with both mappers built the way the
+ * services build their message converters. Payload sizes are printed once per fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    private static final int CART_SIZE = 50;
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    @Param({"1000"})
+    private int catalogSize;
+
+    private ObjectWriter writer;
+    private ObjectReader catalogReader;
+    private ObjectReader cartReader;
+    private ObjectReader purchaseReader;
+    private List<ProductResponse> catalog;
+    private List<ProductPurchaseRequest> cart;
+    private List<ProductPurchaseResponse> purchase;
+    private byte[] catalogBytes;
+    private byte[] cartBytes;
+    private byte[] purchaseBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        writer = mapper.writer();
+        catalogReader = mapper.readerFor(new TypeReference<List<ProductResponse>>() {
+        });
+        cartReader = mapper.readerFor(new TypeReference<List<ProductPurchaseRequest>>() {
+        });
+        purchaseReader = mapper.readerFor(new TypeReference<List<ProductPurchaseResponse>>() {
+        });
+
+        catalog = Fixtures.productResponses(catalogSize);
+        cart = Fixtures.carts(1, CART_SIZE, catalogSize).getFirst();
+        purchase = cart.stream()
+                .map(line -> catalog.get(line.productId() - 1))
+                .map(product -> new ProductPurchaseResponse(product.id(), product.name(), product.description(),
+                        product.price(), 1))
+                .toList();
+
+        catalogBytes = writer.writeValueAsBytes(catalog);
+        cartBytes = writer.writeValueAsBytes(cart);
+        purchaseBytes = writer.writeValueAsBytes(purchase);
+        System.out.printf("%n%s: catalog of %d = %d bytes, cart of %d = %d bytes, purchase response = %d bytes%n",
+                format, catalogSize, catalogBytes.length, CART_SIZE, cartBytes.length, purchaseBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeCatalog() throws IOException {
+        return writer.writeValueAsBytes(catalog);
+    }
+
+    @Benchmark
+    public List<ProductResponse> decodeCatalog() throws IOException {
+        return catalogReader.readValue(catalogBytes);
+    }
+
+    @Benchmark
+    public List<ProductPurchaseRequest> decodeCart() throws IOException {
+        return cartReader.readValue(cartBytes);
+    }
+
+    @Benchmark
+    public byte[] encodePurchaseResponse() throws IOException {
+        return writer.writeValueAsBytes(purchase);
+    }
+
+    @Benchmark
+    public List<ProductPurchaseResponse> decodePurchaseResponse() throws IOException {
+        return purchaseReader.readValue(purchaseBytes);
+    }
+}
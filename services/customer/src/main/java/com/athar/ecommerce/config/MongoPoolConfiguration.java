@@ -0,0 +1,25 @@
+package com.athar.ecommerce.config;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the Mongo connection pool. With virtual threads there is no request thread limit left in
+ * front of the driver, so requests wait for a pooled connection for at most {@code max-wait-time}
+ * instead of opening as many connections as there are concurrent requests.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MongoPoolConfiguration {
+
+    @Bean
+    MongoClientSettingsBuilderCustomizer mongoPoolCustomizer(MongoPoolProperties properties) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(properties.maxSize())
+                .minSize(properties.minSize())
+                .maxConnecting(properties.maxConnecting())
+                .maxWaitTime(properties.maxWaitTime().toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,19 @@
+package com.athar.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.mongodb.pool")
+public record MongoPoolProperties(
+        @DefaultValue("50")
+        int maxSize,
+        @DefaultValue("10")
+        int minSize,
+        @DefaultValue("4")
+        int maxConnecting,
+        @DefaultValue("2s")
+        Duration maxWaitTime
+) {
+}
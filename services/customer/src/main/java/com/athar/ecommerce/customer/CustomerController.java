@@ -2,11 +2,15 @@ package com.athar.ecommerce.customer;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
+/**
+ * Reads are negotiated between JSON and CBOR, so their responses vary on {@code Accept}.
+ */
 @RestController
 @RequestMapping("/api/v1/customers")
 @RequiredArgsConstructor
@@ -31,21 +35,27 @@ public class CustomerController {
 
     @GetMapping
     public ResponseEntity<List<CustomerResponse>> getAllCustomers() {
-        return ResponseEntity.ok(customerService.findAllCustomers());
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(customerService.findAllCustomers());
     }
 
     @GetMapping("/exist/{customer-id}")
     public ResponseEntity<Boolean> existsCustomerById(
             @PathVariable("customer-id") String customerId
     ) {
-        return ResponseEntity.ok(customerService.existsById(customerId));
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(customerService.existsById(customerId));
     }
 
     @GetMapping("/{customer-id}")
     public ResponseEntity<CustomerResponse> findCustomerById(
             @PathVariable("customer-id") String customerId
     ) {
-        return ResponseEntity.ok(customerService.findById(customerId));
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(customerService.findById(customerId));
     }
 
     @DeleteMapping("/{customer-id}")
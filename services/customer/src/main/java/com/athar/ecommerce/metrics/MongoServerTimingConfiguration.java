@@ -0,0 +1,37 @@
+package com.athar.ecommerce.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds the time spent in Mongo commands to the {@code Server-Timing} header. The sync driver reports
+ * a command on the thread that issued it, which is the request thread. The commands are also timed
+ * by Boot's {@code mongodb.driver.commands} metric either way.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "metrics.server-timing.enabled", havingValue = "true")
+public class MongoServerTimingConfiguration {
+
+    @Bean
+    MongoClientSettingsBuilderCustomizer mongoServerTimingCustomizer() {
+        return settings -> settings.addCommandListener(new CommandListener() {
+
+            @Override
+            public void commandSucceeded(CommandSucceededEvent event) {
+                ServerTiming.record("mongo", event.getElapsedTime(TimeUnit.NANOSECONDS));
+            }
+
+            @Override
+            public void commandFailed(CommandFailedEvent event) {
+                ServerTiming.record("mongo", event.getElapsedTime(TimeUnit.NANOSECONDS));
+            }
+        });
+    }
+}
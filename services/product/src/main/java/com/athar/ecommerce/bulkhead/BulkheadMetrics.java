@@ -0,0 +1,26 @@
+package com.athar.ecommerce.bulkhead;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Reports how full a thread pool bulkhead is, tagged with its name: {@code product.bulkhead.saturation}
+ * is the share of its threads in use, {@code product.bulkhead.waiting} the tasks queued for one. The
+ * connection pools are already covered by {@code hikaricp.connections.*}, tagged with the pool name.
+ */
+final class BulkheadMetrics {
+
+    private BulkheadMetrics() {
+    }
+
+    static void bind(MeterRegistry registry, String bulkhead, ThreadPoolTaskExecutor executor) {
+        Gauge.builder("product.bulkhead.saturation", executor,
+                        pool -> (double) pool.getActiveCount() / pool.getMaxPoolSize())
+                .tag("bulkhead", bulkhead)
+                .register(registry);
+        Gauge.builder("product.bulkhead.waiting", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .tag("bulkhead", bulkhead)
+                .register(registry);
+    }
+}
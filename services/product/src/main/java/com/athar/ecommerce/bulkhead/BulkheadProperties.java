@@ -0,0 +1,28 @@
+package com.athar.ecommerce.bulkhead;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * The reader pool itself is configured under {@code product.bulkhead.reader-pool.*} with the same
+ * keys as {@code spring.datasource.hikari.*}, which keeps configuring the writer pool. Only catalog
+ * exports get an executor of their own; see {@link CatalogExportExecutor}.
+ *
+ * @param exportThreads       catalog exports streamed at once
+ * @param exportQueueCapacity exports waiting for a thread before more are rejected with a 503
+ * @param exportTimeout       how long one export may take before it is cut off
+ */
+@ConfigurationProperties(prefix = "product.bulkhead")
+public record BulkheadProperties(
+        @DefaultValue("false")
+        boolean enabled,
+        @DefaultValue("4")
+        int exportThreads,
+        @DefaultValue("0")
+        int exportQueueCapacity,
+        @DefaultValue("5m")
+        Duration exportTimeout
+) {
+}
@@ -0,0 +1,50 @@
+package com.athar.ecommerce.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Runs asynchronous responses, which here means the NDJSON catalog export, on a small pool of its
+ * own with its own timeout. However many clients start an export, only a few stream at once and the
+ * rest are turned away instead of queueing for reader connections and request threads.
+ * <p>
+ * This is the only request executor of the bulkhead. Ordinary reads and the purchase path still run
+ * on the servlet or virtual-thread executor; they are kept apart by the separate read and write
+ * limits of {@link com.athar.ecommerce.limit.ConcurrencyLimitFilter}, reported as
+ * {@code product.concurrency.*}, rather than by executors and timeouts of their own.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "product.bulkhead.enabled", havingValue = "true")
+public class CatalogExportExecutor implements WebMvcConfigurer, DisposableBean {
+
+    private final BulkheadProperties properties;
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    public CatalogExportExecutor(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        executor.setThreadNamePrefix("catalog-export-");
+        executor.setCorePoolSize(properties.exportThreads());
+        executor.setMaxPoolSize(properties.exportThreads());
+        executor.setQueueCapacity(properties.exportQueueCapacity());
+        executor.initialize();
+        BulkheadMetrics.bind(meterRegistry, "catalog-export", executor);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(executor);
+        configurer.setDefaultTimeout(properties.exportTimeout().toMillis());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
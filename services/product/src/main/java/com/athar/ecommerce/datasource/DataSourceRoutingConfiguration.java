@@ -0,0 +1,59 @@
+package com.athar.ecommerce.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits the JDBC traffic over a writer pool on {@code spring.datasource.*} and a reader pool.
+ * Read-only repository queries go to the reader, see {@link ReadWriteRoutingDataSource} for the rest.
+ * With replica routing the reader pool is configured under {@code product.datasource.reader.*},
+ * usually a streaming replica of the writer. Otherwise, with the bulkhead, it is a second pool on the
+ * writer's database configured under {@code product.bulkhead.reader-pool.*}, so reads cannot take
+ * the connections purchases need. Either way the reader starts from {@code spring.datasource.*}.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("!reactive")
+@ConditionalOnExpression("${product.datasource.routing.enabled:false} or ${product.bulkhead.enabled:false}")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceRoutingConfiguration {
+
+    static final String REPLICA_READER = "product.datasource.reader";
+    static final String BULKHEAD_READER = "product.bulkhead.reader-pool";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource writerDataSource(DataSourceProperties properties) {
+        var dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("writer");
+        return dataSource;
+    }
+
+    @Bean
+    HikariDataSource readerDataSource(DataSourceProperties properties, Environment environment) {
+        var dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        var replica = environment.getProperty("product.datasource.routing.enabled", Boolean.class, false);
+        Binder.get(environment).bind(replica ? REPLICA_READER : BULKHEAD_READER, Bindable.ofInstance(dataSource));
+        dataSource.setPoolName("reader");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource writerDataSource, HikariDataSource readerDataSource) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(writerDataSource, readerDataSource));
+    }
+}
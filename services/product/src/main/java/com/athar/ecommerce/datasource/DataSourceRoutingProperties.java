@@ -0,0 +1,19 @@
+package com.athar.ecommerce.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param readYourWritesWindow how long a client that wrote keeps reading from the writer; should
+ *                             cover the replication lag of the reader
+ */
+@ConfigurationProperties(prefix = "product.datasource.routing")
+public record DataSourceRoutingProperties(
+        @DefaultValue("false")
+        boolean enabled,
+        @DefaultValue("5s")
+        Duration readYourWritesWindow
+) {
+}
@@ -0,0 +1,42 @@
+package com.athar.ecommerce.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the reader and everything else, including statements outside a
+ * transaction, to the writer. Startup work such as migrations and loading the inventory ledger, and
+ * the listeners that rebuild state after a commit, therefore never see a lagging replica.
+ * <p>
+ * The route is decided when a connection is first needed, which only works behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction manager
+ * asks for the connection before it marks the transaction read-only.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        WRITER,
+        READER
+    }
+
+    public ReadWriteRoutingDataSource(DataSource writer, DataSource reader) {
+        setTargetDataSources(Map.of(Route.WRITER, writer, Route.READER, reader));
+        setDefaultTargetDataSource(writer);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Route determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return ReadYourWrites.isPinned() ? Route.WRITER : Route.READER;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            ReadYourWrites.recordWrite();
+        }
+        return Route.WRITER;
+    }
+}
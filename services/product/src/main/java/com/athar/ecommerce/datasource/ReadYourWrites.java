@@ -0,0 +1,67 @@
+package com.athar.ecommerce.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-request read-your-writes state. A request is pinned to the writer when its client wrote
+ * within the read-your-writes window, or once it writes itself; pinned requests read from the
+ * writer and past the product cache, which may still hold what a lagging reader returned. Outside
+ * a request nothing is ever pinned.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<ReadYourWrites> CURRENT = new ThreadLocal<>();
+
+    private final long pinnedUntilMillis;
+    private final Runnable onFirstWrite;
+    private boolean wrote;
+
+    private ReadYourWrites(long pinnedUntilMillis, Runnable onFirstWrite) {
+        this.pinnedUntilMillis = pinnedUntilMillis;
+        this.onFirstWrite = onFirstWrite;
+    }
+
+    public static boolean isPinned() {
+        var current = CURRENT.get();
+        return current != null && (current.wrote || System.currentTimeMillis() < current.pinnedUntilMillis);
+    }
+
+    /**
+     * Pins the rest of the request and, through the callback given to {@link #begin}, the client's
+     * next requests to the writer.
+     */
+    public static void recordWrite() {
+        var current = CURRENT.get();
+        if (current != null && !current.wrote) {
+            current.wrote = true;
+            current.onFirstWrite.run();
+        }
+    }
+
+    /**
+     * Runs {@code action} pinned to the writer, for state that is rebuilt from the database and kept
+     * afterwards, where a read from a lagging reader would never be corrected.
+     */
+    public static <T> T onWriter(Supplier<T> action) {
+        var previous = CURRENT.get();
+        CURRENT.set(new ReadYourWrites(Long.MAX_VALUE, () -> {
+        }));
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    static void begin(long pinnedUntilMillis, Runnable onFirstWrite) {
+        CURRENT.set(new ReadYourWrites(pinnedUntilMillis, onFirstWrite));
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+}
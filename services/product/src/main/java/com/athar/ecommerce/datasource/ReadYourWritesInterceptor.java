@@ -0,0 +1,74 @@
+package com.athar.ecommerce.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Carries the read-your-writes window between requests of the same client in a cookie holding the
+ * time until which its reads stay on the writer. The cookie is set by the first write of a request,
+ * before the response body is written.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "product.datasource.routing.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReadYourWritesInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+
+    public static final String COOKIE = "product-read-your-writes";
+
+    private final DataSourceRoutingProperties properties;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        var now = System.currentTimeMillis();
+        var window = properties.readYourWritesWindow();
+        // A client cannot pin itself for longer than one window by editing the cookie
+        var pinnedUntil = Math.min(pinnedUntil(request), now + window.toMillis());
+        ReadYourWrites.begin(pinnedUntil, () -> response.addHeader(HttpHeaders.SET_COOKIE,
+                ResponseCookie.from(COOKIE, Long.toString(System.currentTimeMillis() + window.toMillis()))
+                        .path("/")
+                        .httpOnly(true)
+                        .sameSite("Lax")
+                        .maxAge(window)
+                        .build()
+                        .toString()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ReadYourWrites.end();
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
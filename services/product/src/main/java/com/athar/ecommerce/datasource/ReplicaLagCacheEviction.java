@@ -0,0 +1,34 @@
+package com.athar.ecommerce.datasource;
+
+import com.athar.ecommerce.product.ProductCache;
+import com.athar.ecommerce.product.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+
+/**
+ * A product evicted on commit can be reloaded from a reader that has not replayed the change yet and
+ * then stay cached with the old stock. Evicting it once more after the read-your-writes window, by
+ * which time the reader is expected to have caught up, bounds how long that lasts.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "product.datasource.routing.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReplicaLagCacheEviction {
+
+    private final ProductCache productCache;
+    private final TaskScheduler taskScheduler;
+    private final DataSourceRoutingProperties properties;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        taskScheduler.schedule(() -> productCache.onProductChanged(event),
+                Instant.now().plus(properties.readYourWritesWindow()));
+    }
+}
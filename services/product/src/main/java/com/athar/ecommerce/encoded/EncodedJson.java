@@ -0,0 +1,91 @@
+package com.athar.ecommerce.encoded;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * A response body already encoded as JSON, next to the value it was encoded from. JSON responses
+ * copy the bytes out as they are through {@link EncodedJsonHttpMessageConverter}; any other format
+ * Jackson writes, CBOR included, serializes the value as usual.
+ */
+public final class EncodedJson<T> implements JsonSerializable {
+
+    private static final byte[] ARRAY_START = {'['};
+    private static final byte[] ARRAY_SEPARATOR = {','};
+    private static final byte[] ARRAY_END = {']'};
+
+    private final T value;
+    private final byte[][] fragments;
+    private final boolean array;
+    private final long contentLength;
+
+    private EncodedJson(T value, byte[][] fragments, boolean array) {
+        this.value = value;
+        this.fragments = fragments;
+        this.array = array;
+        var length = 0L;
+        for (var fragment : fragments) {
+            length += fragment.length;
+        }
+        this.contentLength = array ? length + Math.max(fragments.length, 1) + 1 : length;
+    }
+
+    public static <T> EncodedJson<T> of(T value, byte[] json) {
+        return new EncodedJson<>(value, new byte[][]{json}, false);
+    }
+
+    /**
+     * A JSON array of the given elements, kept as the separate fragments so elements shared with
+     * other cached bodies are not copied.
+     */
+    public static <E> EncodedJson<List<E>> array(List<E> values, byte[][] elements) {
+        return new EncodedJson<>(values, elements, true);
+    }
+
+    public T value() {
+        return value;
+    }
+
+    /**
+     * The encoded bytes of a body that is not an array.
+     */
+    byte[] fragment() {
+        return fragments[0];
+    }
+
+    public long contentLength() {
+        return contentLength;
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        if (!array) {
+            outputStream.write(fragments[0]);
+            return;
+        }
+        outputStream.write(ARRAY_START);
+        for (int i = 0; i < fragments.length; i++) {
+            if (i > 0) {
+                outputStream.write(ARRAY_SEPARATOR);
+            }
+            outputStream.write(fragments[i]);
+        }
+        outputStream.write(ARRAY_END);
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        serializers.defaultSerializeValue(value, generator);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers,
+                                  TypeSerializer typeSerializer) throws IOException {
+        serialize(generator, serializers);
+    }
+}
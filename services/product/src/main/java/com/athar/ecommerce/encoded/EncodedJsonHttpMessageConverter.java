@@ -0,0 +1,45 @@
+package com.athar.ecommerce.encoded;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link EncodedJson} bodies straight to the response stream. Registered ahead of the
+ * Jackson converters, so it only takes over when JSON is the negotiated content type.
+ */
+public class EncodedJsonHttpMessageConverter extends AbstractHttpMessageConverter<EncodedJson<?>> {
+
+    public EncodedJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return EncodedJson.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected EncodedJson<?> readInternal(Class<? extends EncodedJson<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Encoded JSON is a response body only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(EncodedJson<?> body, MediaType contentType) {
+        return body.contentLength();
+    }
+
+    @Override
+    protected void writeInternal(EncodedJson<?> body, HttpOutputMessage outputMessage) throws IOException {
+        body.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,132 @@
+package com.athar.ecommerce.encoded;
+
+import com.athar.ecommerce.datasource.ReadYourWrites;
+import com.athar.ecommerce.product.ProductChangedEvent;
+import com.athar.ecommerce.product.ProductResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Keeps product and catalog responses as encoded JSON. A product's bytes are tagged with the ETag
+ * they were encoded under, so a request whose ETag still matches is answered without loading,
+ * mapping or serializing anything; catalog listings are tagged the same way and hold the product
+ * fragments rather than a copy of them. A listing rebuilt after a change re-encodes only the
+ * products whose content differs from their cached fragment.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "product.response-cache.enabled", havingValue = "true")
+public class EncodedResponseCache implements WebMvcConfigurer {
+
+    public static final String PRODUCT_RESPONSES = "product-responses";
+    public static final String CATALOG_RESPONSES = "product-catalog-responses";
+
+    private final Cache products;
+    private final Cache catalog;
+    private final ObjectMapper objectMapper;
+
+    public EncodedResponseCache(CacheManager cacheManager, ObjectMapper objectMapper) {
+        this.products = Objects.requireNonNull(cacheManager.getCache(PRODUCT_RESPONSES), PRODUCT_RESPONSES);
+        this.catalog = Objects.requireNonNull(cacheManager.getCache(CATALOG_RESPONSES), CATALOG_RESPONSES);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.addFirst(new EncodedJsonHttpMessageConverter());
+    }
+
+    /**
+     * @param eTag the product's current ETag
+     */
+    public EncodedJson<ProductResponse> getProduct(Integer productId, String eTag, Supplier<ProductResponse> loader) {
+        if (ReadYourWrites.isPinned()) {
+            var product = loader.get();
+            return EncodedJson.of(product, encode(product));
+        }
+        var cached = products.get(productId, EncodedProduct.class);
+        if (cached != null && eTag.equals(cached.eTag())) {
+            return cached.json();
+        }
+        var product = loader.get();
+        var json = EncodedJson.of(product, fragmentOf(product, cached));
+        products.put(productId, new EncodedProduct(eTag, json));
+        return json;
+    }
+
+    /**
+     * @param key   identifies the listing, as in {@code ProductCache}
+     * @param eTag  the listing's current ETag
+     */
+    public EncodedJson<List<ProductResponse>> getCatalog(String key, String eTag,
+                                                         Supplier<List<ProductResponse>> loader) {
+        if (ReadYourWrites.isPinned()) {
+            var listing = loader.get();
+            return EncodedJson.array(listing, listing.stream().map(this::encode).toArray(byte[][]::new));
+        }
+        var cached = catalog.get(key, EncodedCatalog.class);
+        if (cached != null && eTag.equals(cached.eTag())) {
+            return cached.json();
+        }
+        var listing = loader.get();
+        var fragments = new byte[listing.size()][];
+        for (int i = 0; i < fragments.length; i++) {
+            var product = listing.get(i);
+            var cachedProduct = products.get(product.id(), EncodedProduct.class);
+            fragments[i] = fragmentOf(product, cachedProduct);
+            if (cachedProduct == null) {
+                products.putIfAbsent(product.id(), new EncodedProduct(null, EncodedJson.of(product, fragments[i])));
+            }
+        }
+        var json = EncodedJson.array(listing, fragments);
+        catalog.put(key, new EncodedCatalog(eTag, json));
+        return json;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        event.productIds().forEach(products::evict);
+        catalog.invalidate();
+    }
+
+    private byte[] fragmentOf(ProductResponse product, EncodedProduct cached) {
+        if (cached != null && product.equals(cached.json().value())) {
+            return cached.bytes();
+        }
+        return encode(product);
+    }
+
+    private byte[] encode(ProductResponse product) {
+        try {
+            return objectMapper.writeValueAsBytes(product);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param eTag {@code null} when encoded for a listing, which is not tagged per product
+     */
+    private record EncodedProduct(String eTag, EncodedJson<ProductResponse> json) {
+
+        byte[] bytes() {
+            return json.fragment();
+        }
+    }
+
+    private record EncodedCatalog(String eTag, EncodedJson<List<ProductResponse>> json) {
+    }
+}
@@ -1,8 +1,20 @@
 package com.athar.ecommerce.exception;
 
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
 public class ProductPurchaseException extends RuntimeException {
 
+    private final Map<String, String> failures;
+
     public ProductPurchaseException(String s) {
+        this(s, Map.of());
+    }
+
+    public ProductPurchaseException(String s, Map<String, String> failures) {
         super(s);
+        this.failures = failures;
     }
 }
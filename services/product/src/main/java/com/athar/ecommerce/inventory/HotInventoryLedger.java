@@ -0,0 +1,339 @@
+package com.athar.ecommerce.inventory;
+
+import com.athar.ecommerce.product.ProductChangedEvent;
+import com.athar.ecommerce.product.ProductPurchaseRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the stock of the configured hot products in memory. Purchases reserve against a CAS cell per
+ * product instead of the product row, committed decrements are journaled to disk and written behind
+ * to the {@code product} table in periodic batches. Hot products' {@link ProductChangedEvent}s are
+ * published by those batches, when their rows actually change.
+ * <p>
+ * The cells are only correct while no other instance sells the same products, so the ledger holds a
+ * lease on the checkpoint row: it refuses to start while another instance owns it, renews it with
+ * every flush and stops selling hot products if it ever loses it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotInventoryLedger implements SmartInitializingSingleton, DisposableBean {
+
+    private final InventoryProperties properties;
+    private final InventoryLedgerRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final String owner = ownerName();
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private volatile boolean leaseLost;
+    private volatile Map<Integer, StockCell> cells = Map.of();
+    private InventoryJournal journal;
+    private Map<Integer, Double> pending = new HashMap<>();
+    private long sequence;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (properties.hotProductIds().isEmpty()) {
+            return;
+        }
+        if (!repository.acquireLease(owner, properties.leaseDuration())) {
+            throw new IllegalStateException("Hot products " + properties.hotProductIds()
+                    + " are served by another instance; they need a single instance, or wait "
+                    + properties.leaseDuration() + " for a crashed owner's lease to expire");
+        }
+        journal = new InventoryJournal(properties.journalPath(), properties.journalFsync());
+
+        var recovered = journal.recover(repository.findCheckpoint());
+        if (!recovered.decrements().isEmpty()) {
+            log.info("Replaying {} journaled hot product decrements up to sequence {}",
+                    recovered.decrements().size(), recovered.lastSequence());
+            transactionTemplate.executeWithoutResult(status ->
+                    repository.applyDecrements(recovered.decrements(), recovered.lastSequence()));
+        }
+        journal.truncate();
+        sequence = recovered.lastSequence();
+
+        var loaded = new HashMap<Integer, StockCell>();
+        repository.findQuantities(properties.hotProductIds())
+                .forEach((productId, quantity) -> loaded.put(productId, new StockCell(quantity)));
+        cells = Map.copyOf(loaded);
+        log.info("Serving stock of hot products {} from the inventory ledger as {}", cells.keySet(), owner);
+    }
+
+    public boolean isHot(int productId) {
+        return cells.containsKey(productId);
+    }
+
+    public OptionalDouble quantityOf(int productId) {
+        var cell = cells.get(productId);
+        return cell == null ? OptionalDouble.empty() : OptionalDouble.of(cell.quantity());
+    }
+
+    /**
+     * Changes whenever the quantity of a hot product changes, so validators of responses that overlay
+     * ledger stock change with them. {@code 0} while no product is hot.
+     */
+    public long fingerprint() {
+        long fingerprint = 0;
+        for (var entry : cells.entrySet()) {
+            fingerprint += (entry.getKey() * 0x9E3779B97F4A7C15L) ^ Double.doubleToLongBits(entry.getValue().quantity());
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Takes the requested quantities out of the ledger. Either every line is reserved or none is, in
+     * which case the reservation lists the products that did not have enough stock.
+     */
+    public LedgerReservation reserve(List<ProductPurchaseRequest> lines) {
+        if (leaseLost) {
+            throw new IllegalStateException("Inventory ledger lost its lease, hot products cannot be sold");
+        }
+        var taken = new ArrayList<ProductPurchaseRequest>();
+        var rejected = new ArrayList<Integer>();
+        for (var line : lines) {
+            if (cells.get(line.productId()).tryTake(line.quantity())) {
+                taken.add(line);
+            } else {
+                rejected.add(line.productId());
+            }
+        }
+        if (!rejected.isEmpty()) {
+            taken.forEach(line -> cells.get(line.productId()).give(line.quantity()));
+            return new LedgerReservation(List.of(), rejected);
+        }
+        return new LedgerReservation(taken, List.of());
+    }
+
+    /**
+     * Journals the reservation before the surrounding transaction commits, so a journal that cannot
+     * be written rolls the purchase back instead of leaving a sale only in memory. If the
+     * transaction rolls back anyway, the reserved stock is released and the journaled decrement is
+     * cancelled by a compensating entry. Without an active transaction the reservation is confirmed
+     * right away.
+     */
+    public void confirmOnCommit(LedgerReservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            confirm(reservation);
+            return;
+        }
+        var decrements = decrements(reservation.lines(), 1);
+        TransactionSynchronizationManager.registerSynchronization(new JournalOnCommit(decrements) {
+            @Override
+            void rolledBack() {
+                release(reservation);
+            }
+        });
+    }
+
+    public void confirm(LedgerReservation reservation) {
+        if (reservation.lines().isEmpty()) {
+            return;
+        }
+        journal(decrements(reservation.lines(), 1));
+    }
+
+    public void release(LedgerReservation reservation) {
+        reservation.lines().forEach(line -> cells.get(line.productId()).give(line.quantity()));
+    }
+
+    /**
+     * Puts previously confirmed stock back with the surrounding transaction. The returned quantities
+     * are journaled as negative decrements before it commits, so they reach the {@code product}
+     * table the same way purchases do, and the cells get them once it has committed.
+     */
+    public void restockOnCommit(List<ProductPurchaseRequest> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            journal(decrements(lines, -1));
+            give(lines);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new JournalOnCommit(decrements(lines, -1)) {
+            @Override
+            void committed() {
+                give(lines);
+            }
+        });
+    }
+
+    private void give(List<ProductPurchaseRequest> lines) {
+        lines.forEach(line -> cells.get(line.productId()).give(line.quantity()));
+    }
+
+    private static Map<Integer, Double> decrements(List<ProductPurchaseRequest> lines, int sign) {
+        var decrements = new HashMap<Integer, Double>();
+        lines.forEach(line -> decrements.merge(line.productId(), sign * line.quantity(), Double::sum));
+        return decrements;
+    }
+
+    private void journal(Map<Integer, Double> decrements) {
+        long entrySequence;
+        journalLock.lock();
+        try {
+            entrySequence = ++sequence;
+            decrements.forEach((productId, quantity) -> pending.merge(productId, quantity, Double::sum));
+            journal.append(entrySequence, decrements);
+        } finally {
+            journalLock.unlock();
+        }
+        // Outside the lock, so purchases waiting for the disk are written together
+        journal.sync(entrySequence);
+    }
+
+    @Scheduled(fixedDelayString = "${product.inventory.flush-interval:500ms}")
+    public void flush() {
+        if (journal == null || leaseLost) {
+            return;
+        }
+        Map<Integer, Double> batch;
+        long batchSequence;
+        journalLock.lock();
+        try {
+            batch = pending;
+            batchSequence = sequence;
+            pending = new HashMap<>();
+        } finally {
+            journalLock.unlock();
+        }
+        if (batch.isEmpty()) {
+            renewLease();
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!repository.renewLease(owner, properties.leaseDuration())) {
+                    throw new LeaseLostException();
+                }
+                repository.applyDecrements(batch, batchSequence);
+                eventPublisher.publishEvent(new ProductChangedEvent(List.copyOf(batch.keySet())));
+            });
+        } catch (LeaseLostException e) {
+            loseLease(batch);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Could not flush {} hot product decrements, retrying with the next batch", batch.size(), e);
+            journalLock.lock();
+            try {
+                batch.forEach((productId, quantity) -> pending.merge(productId, quantity, Double::sum));
+            } finally {
+                journalLock.unlock();
+            }
+            return;
+        }
+
+        journalLock.lock();
+        try {
+            if (sequence == batchSequence) {
+                journal.truncate();
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void renewLease() {
+        try {
+            if (!repository.renewLease(owner, properties.leaseDuration())) {
+                loseLease(Map.of());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not renew the inventory ledger lease, retrying with the next flush", e);
+        }
+    }
+
+    private void loseLease(Map<Integer, Double> unflushed) {
+        leaseLost = true;
+        log.error("Inventory ledger lost its lease to another instance, no longer selling hot products {}. "
+                + "Decrements {} are only in journal {}", cells.keySet(), unflushed, properties.journalPath());
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (journal == null) {
+            return;
+        }
+        flush();
+        journal.close();
+        if (!leaseLost) {
+            repository.releaseLease(owner);
+        }
+    }
+
+    private static String ownerName() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "/" + ProcessHandle.current().pid() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static class LeaseLostException extends RuntimeException {
+    }
+
+    /**
+     * Writes the decrements to the journal in {@code beforeCommit}, where a failure still rolls the
+     * transaction back. A rollback after that point, when the commit itself fails, journals the
+     * opposite entry so neither the flush nor a replay applies the decrements.
+     */
+    private abstract class JournalOnCommit implements TransactionSynchronization {
+
+        private final Map<Integer, Double> decrements;
+        private boolean journaled;
+
+        JournalOnCommit(Map<Integer, Double> decrements) {
+            this.decrements = decrements;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            journaled = true;
+            journal(decrements);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+                committed();
+                return;
+            }
+            rolledBack();
+            if (journaled) {
+                var compensation = new HashMap<Integer, Double>();
+                decrements.forEach((productId, quantity) -> compensation.put(productId, -quantity));
+                journal(compensation);
+            }
+        }
+
+        void committed() {
+        }
+
+        void rolledBack() {
+        }
+    }
+}
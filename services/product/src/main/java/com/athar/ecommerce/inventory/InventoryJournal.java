@@ -0,0 +1,152 @@
+package com.athar.ecommerce.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Append-only log of committed hot-product decrements, one {@code sequence productId quantity}
+ * line per product. It is truncated once everything in it has been flushed to the database.
+ */
+@Slf4j
+class InventoryJournal implements AutoCloseable {
+
+    private final Path path;
+    private final boolean fsync;
+    private final FileChannel channel;
+    private final ReentrantLock bufferLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final StringBuilder buffer = new StringBuilder();
+    private long bufferedSequence;
+    private volatile long syncedSequence;
+
+    InventoryJournal(Path path, boolean fsync) {
+        this.path = path;
+        this.fsync = fsync;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.channel = FileChannel.open(path, CREATE, WRITE, APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open inventory journal " + path, e);
+        }
+    }
+
+    /**
+     * Buffers the entry; it is on disk once {@link #sync} returns for its sequence. Callers append in
+     * sequence order.
+     */
+    void append(long sequence, Map<Integer, Double> decrements) {
+        bufferLock.lock();
+        try {
+            decrements.forEach((productId, quantity) ->
+                    buffer.append(sequence).append(' ').append(productId).append(' ').append(quantity).append('\n'));
+            bufferedSequence = sequence;
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    /**
+     * Writes, and with fsync forces, everything buffered up to at least {@code sequence}. Callers that
+     * arrive while a write is in progress are written together by the next one, so concurrent
+     * purchases share a single fsync instead of queueing for one each.
+     */
+    void sync(long sequence) {
+        if (syncedSequence >= sequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (syncedSequence >= sequence) {
+                return;
+            }
+            String entries;
+            long upTo;
+            bufferLock.lock();
+            try {
+                entries = buffer.toString();
+                upTo = bufferedSequence;
+                buffer.setLength(0);
+            } finally {
+                bufferLock.unlock();
+            }
+            var bytes = ByteBuffer.wrap(entries.getBytes(StandardCharsets.US_ASCII));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+            syncedSequence = upTo;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to inventory journal " + path, e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    Recovered recover(long checkpoint) {
+        var decrements = new HashMap<Integer, Double>();
+        var lastSequence = checkpoint;
+        try (var lines = Files.lines(path, StandardCharsets.US_ASCII)) {
+            for (var line : (Iterable<String>) lines::iterator) {
+                var fields = line.split(" ");
+                if (fields.length != 3) {
+                    log.warn("Skipping torn inventory journal entry '{}'", line);
+                    continue;
+                }
+                var sequence = Long.parseLong(fields[0]);
+                if (sequence > checkpoint) {
+                    decrements.merge(Integer.parseInt(fields[1]), Double.parseDouble(fields[2]), Double::sum);
+                    lastSequence = Math.max(lastSequence, sequence);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read inventory journal " + path, e);
+        }
+        return new Recovered(decrements, lastSequence);
+    }
+
+    /**
+     * Empties the journal once its entries are in the database. Entries still buffered are covered by
+     * the same checkpoint, so they are dropped as well.
+     */
+    void truncate() {
+        syncLock.lock();
+        bufferLock.lock();
+        try {
+            buffer.setLength(0);
+            syncedSequence = bufferedSequence;
+            channel.truncate(0);
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot truncate inventory journal " + path, e);
+        } finally {
+            bufferLock.unlock();
+            syncLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    record Recovered(Map<Integer, Double> decrements, long lastSequence) {
+    }
+}
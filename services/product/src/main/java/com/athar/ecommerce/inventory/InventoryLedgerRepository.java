@@ -0,0 +1,95 @@
+package com.athar.ecommerce.inventory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class InventoryLedgerRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public long findCheckpoint() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT last_sequence FROM inventory_ledger_checkpoint WHERE id = 1", Long.class);
+    }
+
+    public Map<Integer, Double> findQuantities(Collection<Integer> productIds) {
+        var quantities = new HashMap<Integer, Double>();
+        jdbcTemplate.query("SELECT id, available_quantity FROM product WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", productIds),
+                rs -> {
+                    quantities.put(rs.getInt("id"), rs.getDouble("available_quantity"));
+                });
+        return quantities;
+    }
+
+    /**
+     * Makes {@code owner} the only instance serving hot products, unless another owner's lease has
+     * not expired yet. Expiry is judged by the database clock, so the instances' clocks do not matter.
+     */
+    public boolean acquireLease(String owner, Duration duration) {
+        return jdbcTemplate.update(
+                """
+                        UPDATE inventory_ledger_checkpoint
+                           SET owner = :owner,
+                               lease_expires_at = CURRENT_TIMESTAMP + CAST(:seconds AS DOUBLE PRECISION) * INTERVAL '1' SECOND
+                         WHERE id = 1
+                           AND (owner IS NULL OR owner = :owner OR lease_expires_at < CURRENT_TIMESTAMP)
+                        """, leaseParameters(owner, duration)) == 1;
+    }
+
+    /**
+     * Extends the lease of {@code owner}, {@code false} once another instance has taken it over.
+     */
+    public boolean renewLease(String owner, Duration duration) {
+        return jdbcTemplate.update(
+                """
+                        UPDATE inventory_ledger_checkpoint
+                           SET lease_expires_at = CURRENT_TIMESTAMP + CAST(:seconds AS DOUBLE PRECISION) * INTERVAL '1' SECOND
+                         WHERE id = 1
+                           AND owner = :owner
+                        """, leaseParameters(owner, duration)) == 1;
+    }
+
+    public void releaseLease(String owner) {
+        jdbcTemplate.update(
+                "UPDATE inventory_ledger_checkpoint SET owner = NULL, lease_expires_at = NULL WHERE id = 1 AND owner = :owner",
+                new MapSqlParameterSource("owner", owner));
+    }
+
+    private static MapSqlParameterSource leaseParameters(String owner, Duration duration) {
+        return new MapSqlParameterSource()
+                .addValue("owner", owner)
+                .addValue("seconds", duration.toMillis() / 1000.0);
+    }
+
+    /**
+     * Applies the accumulated decrements and moves the checkpoint in the caller's transaction, so a
+     * journal entry is either reflected in the table and behind the checkpoint, or neither.
+     */
+    public void applyDecrements(Map<Integer, Double> decrements, long sequence) {
+        var batch = decrements.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("quantity", entry.getValue())
+                        .addValue("id", entry.getKey()))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(
+                """
+                        UPDATE product
+                           SET available_quantity = available_quantity - :quantity,
+                               version = nextval('product_version_seq')
+                         WHERE id = :id
+                        """, batch);
+        jdbcTemplate.update("UPDATE inventory_ledger_checkpoint SET last_sequence = :sequence WHERE id = 1",
+                new MapSqlParameterSource("sequence", sequence));
+    }
+}
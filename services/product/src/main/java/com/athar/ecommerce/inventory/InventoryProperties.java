@@ -0,0 +1,33 @@
+package com.athar.ecommerce.inventory;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * @param hotProductIds products whose stock is served from the in-memory ledger. Only one instance
+ *                      may serve them: the ledger holds a lease on the database while it runs, and an
+ *                      instance that cannot take it over refuses to start
+ * @param leaseDuration how long the lease outlives its last renewal, which happens on every flush.
+ *                      A crashed owner blocks other instances for at most this long
+ * @param journalFsync  forces every journal append to disk before the purchase returns. Appends that
+ *                      wait together share one fsync. Without it a power loss or kernel crash can
+ *                      lose sold units that have not been flushed yet, a process crash cannot
+ */
+@ConfigurationProperties(prefix = "product.inventory")
+public record InventoryProperties(
+        @DefaultValue
+        Set<Integer> hotProductIds,
+        @DefaultValue("500ms")
+        Duration flushInterval,
+        @DefaultValue("10s")
+        Duration leaseDuration,
+        @DefaultValue("data/inventory-journal.log")
+        Path journalPath,
+        @DefaultValue("true")
+        boolean journalFsync
+) {
+}
@@ -0,0 +1,15 @@
+package com.athar.ecommerce.inventory;
+
+import com.athar.ecommerce.product.ProductPurchaseRequest;
+
+import java.util.List;
+
+public record LedgerReservation(
+        List<ProductPurchaseRequest> lines,
+        List<Integer> rejectedProductIds
+) {
+
+    public boolean isRejected() {
+        return !rejectedProductIds.isEmpty();
+    }
+}
@@ -0,0 +1,32 @@
+package com.athar.ecommerce.inventory;
+
+import com.athar.ecommerce.product.ProductResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replaces the stored stock of hot products, which lags behind until the next flush, with the
+ * ledger's live quantity. Every read path that returns products goes through it, servlet or
+ * reactive.
+ */
+@Component
+@RequiredArgsConstructor
+public class LedgerStockOverlay {
+
+    private final HotInventoryLedger inventoryLedger;
+
+    public ProductResponse apply(ProductResponse product) {
+        var ledgerQuantity = inventoryLedger.quantityOf(product.id());
+        if (ledgerQuantity.isEmpty()) {
+            return product;
+        }
+        return new ProductResponse(product.id(),
+                product.name(),
+                product.description(),
+                product.price(),
+                ledgerQuantity.getAsDouble(),
+                product.categoryId(),
+                product.categoryName(),
+                product.categoryDescription());
+    }
+}
@@ -0,0 +1,42 @@
+package com.athar.ecommerce.inventory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.Double.doubleToRawLongBits;
+import static java.lang.Double.longBitsToDouble;
+
+class StockCell {
+
+    private final AtomicLong quantityBits;
+
+    StockCell(double quantity) {
+        this.quantityBits = new AtomicLong(doubleToRawLongBits(quantity));
+    }
+
+    double quantity() {
+        return longBitsToDouble(quantityBits.get());
+    }
+
+    boolean tryTake(double quantity) {
+        while (true) {
+            var current = quantityBits.get();
+            var available = longBitsToDouble(current);
+            if (available < quantity) {
+                return false;
+            }
+            if (quantityBits.compareAndSet(current, doubleToRawLongBits(available - quantity))) {
+                return true;
+            }
+        }
+    }
+
+    void give(double quantity) {
+        while (true) {
+            var current = quantityBits.get();
+            var updated = doubleToRawLongBits(longBitsToDouble(current) + quantity);
+            if (quantityBits.compareAndSet(current, updated)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.athar.ecommerce.limit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Load shedding in front of the product API. The purchase path, purchases and reservation changes,
+ * shares a write limit; product and reservation lookups share a read limit, so a slow database
+ * backing up purchases does not also starve reads of threads. Requests over the limit get a
+ * {@code 503} with {@code Retry-After} straight away. Imports, product creation and the change
+ * feed's long poll are not limited: their latency says nothing about load.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "product.concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String PRODUCTS = "/api/v1/products";
+    private static final String RESERVATIONS = "/api/v1/reservations";
+
+    private final ConcurrencyLimiter readLimiter;
+    private final ConcurrencyLimiter writeLimiter;
+    private final String retryAfter;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry registry) {
+        this.readLimiter = new ConcurrencyLimiter("read", new GradientLimit(properties.readInitialLimit(),
+                properties.minLimit(), properties.readMaxLimit(), properties.rttTolerance(),
+                properties.smoothing(), properties.baselineWindow()), registry);
+        this.writeLimiter = new ConcurrencyLimiter("write", new GradientLimit(properties.writeInitialLimit(),
+                properties.minLimit(), properties.writeMaxLimit(), properties.rttTolerance(),
+                properties.smoothing(), properties.baselineWindow()), registry);
+        this.retryAfter = Long.toString(Math.max(properties.retryAfter().toSeconds(), 1));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return limiterFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var permit = limiterFor(request).tryAcquire();
+        if (permit.isEmpty()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write("Too many concurrent requests, retry later");
+            return;
+        }
+
+        var released = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(permit.get()));
+            } else {
+                permit.get().release(response.getStatus() >= 500);
+            }
+            released = true;
+        } finally {
+            if (!released) {
+                permit.get().release(true);
+            }
+        }
+    }
+
+    /**
+     * @return {@code null} for requests that are not limited
+     */
+    ConcurrencyLimiter limiterFor(HttpServletRequest request) {
+        var path = request.getRequestURI().substring(request.getContextPath().length());
+        var method = HttpMethod.valueOf(request.getMethod());
+        var read = method == HttpMethod.GET || method == HttpMethod.HEAD;
+        if (path.startsWith(PRODUCTS + "/changes") || path.startsWith(PRODUCTS + "/import")) {
+            return null;
+        }
+        if (path.equals(PRODUCTS + "/purchase") || path.startsWith(RESERVATIONS) && !read) {
+            return writeLimiter;
+        }
+        if (read && (path.startsWith(PRODUCTS) || path.startsWith(RESERVATIONS))
+                || path.equals(PRODUCTS + "/batch") || path.equals(PRODUCTS + "/quote")) {
+            return readLimiter;
+        }
+        return null;
+    }
+
+    /**
+     * Async responses, such as the NDJSON catalog stream, hold the permit until they complete; how
+     * long a client takes to read a stream is no sample of the service's latency.
+     */
+    private record ReleaseOnCompletion(ConcurrencyLimiter.Permit permit) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.releaseWithoutSample();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.releaseWithoutSample();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.releaseWithoutSample();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.athar.ecommerce.limit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param rttTolerance   how much slower than without load requests may get before the limit starts
+ *                       shrinking
+ * @param smoothing      weight of each new estimate in the limit, between 0 and 1
+ * @param baselineWindow number of lightly loaded requests it takes to re-learn the no-load latency
+ */
+@ConfigurationProperties(prefix = "product.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("false")
+        boolean enabled,
+        @DefaultValue("20")
+        int readInitialLimit,
+        @DefaultValue("400")
+        int readMaxLimit,
+        @DefaultValue("10")
+        int writeInitialLimit,
+        @DefaultValue("50")
+        int writeMaxLimit,
+        @DefaultValue("2")
+        int minLimit,
+        @DefaultValue("1.5")
+        double rttTolerance,
+        @DefaultValue("0.2")
+        double smoothing,
+        @DefaultValue("600")
+        int baselineWindow,
+        @DefaultValue("1s")
+        Duration retryAfter
+) {
+}
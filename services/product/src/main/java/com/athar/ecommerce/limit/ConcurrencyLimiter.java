@@ -0,0 +1,94 @@
+package com.athar.ecommerce.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits requests while fewer than the current {@link GradientLimit} are in flight and turns the
+ * rest away at once, rather than letting them queue for threads and connections. Publishes
+ * {@code product.concurrency.limit}, {@code product.concurrency.in-flight} and
+ * {@code product.concurrency.rejections}, tagged with the route.
+ */
+public class ConcurrencyLimiter {
+
+    private final GradientLimit limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejections;
+
+    ConcurrencyLimiter(String route, GradientLimit limit, MeterRegistry registry) {
+        this.limit = limit;
+        Gauge.builder("product.concurrency.limit", limit, GradientLimit::limit)
+                .tag("route", route)
+                .register(registry);
+        Gauge.builder("product.concurrency.in-flight", inFlight, AtomicInteger::get)
+                .tag("route", route)
+                .register(registry);
+        this.rejections = Counter.builder("product.concurrency.rejections")
+                .tag("route", route)
+                .register(registry);
+    }
+
+    /**
+     * @return empty when the limit is reached
+     */
+    public Optional<Permit> tryAcquire() {
+        while (true) {
+            var current = inFlight.get();
+            if (current >= limit.limit()) {
+                rejections.increment();
+                return Optional.empty();
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return Optional.of(new Permit(current + 1));
+            }
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public int limit() {
+        return limit.limit();
+    }
+
+    /**
+     * An admitted request; released exactly once, later releases are ignored.
+     */
+    public final class Permit {
+
+        private final long startedAt = System.nanoTime();
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Releases the permit and feeds the request's latency to the limit.
+         *
+         * @param dropped whether the request failed in a way that suggests overload
+         */
+        public void release(boolean dropped) {
+            if (released.compareAndSet(false, true)) {
+                limit.onSample(System.nanoTime() - startedAt, inFlightAtStart, dropped);
+                inFlight.decrementAndGet();
+            }
+        }
+
+        /**
+         * Releases the permit without a sample, for requests whose latency says nothing about load.
+         */
+        public void releaseWithoutSample() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
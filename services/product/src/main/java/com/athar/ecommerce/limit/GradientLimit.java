@@ -0,0 +1,91 @@
+package com.athar.ecommerce.limit;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrency limit following the gradient between no-load and current request latency, after
+ * Netflix's gradient limit. While requests take about as long as without load, the limit grows by
+ * a small queue allowance on every sample; as they slow down it shrinks in proportion, by at most
+ * half per sample. A failed request cuts it multiplicatively, as in AIMD.
+ *
+ * <p>The no-load latency is the lowest seen, and only requests that ran at low concurrency may
+ * raise it again, averaged over the long window. That way a database that got slower for good is
+ * re-learned, while the queueing of an overload never becomes the new baseline: an average over
+ * loaded requests would let the limit ratchet up as fast as it adds latency.
+ *
+ * <p>Every limited request ends in a sample, so samples never wait for each other: one that finds
+ * another being applied is skipped. Under enough load to contend there are plenty of others, and
+ * each of them already moves the limit by a fraction only.
+ */
+final class GradientLimit {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double noLoadRttWeight;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private double estimatedLimit;
+    private double noLoadRtt;
+    private volatile int limit;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit, double rttTolerance, double smoothing,
+                  int baselineWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.noLoadRttWeight = 2.0 / (baselineWindow + 1);
+        this.estimatedLimit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    /**
+     * @param inFlight requests in flight when this one started, itself included
+     * @param dropped  whether the request failed in a way that suggests overload
+     * @return {@code false} when the sample was skipped because another one was being applied
+     */
+    boolean onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            apply(rttNanos, inFlight, dropped);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(long rttNanos, int inFlight, boolean dropped) {
+        double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit * BACKOFF_RATIO;
+        } else {
+            var rtt = (double) Math.max(rttNanos, 1);
+            var lightLoad = inFlight < estimatedLimit / 2;
+            if (noLoadRtt == 0 || rtt < noLoadRtt) {
+                noLoadRtt = rtt;
+            } else if (lightLoad) {
+                noLoadRtt += noLoadRttWeight * (rtt - noLoadRtt);
+            }
+            if (lightLoad) {
+                // Too little traffic to tell whether a higher limit would hold
+                return;
+            }
+            var gradient = Math.clamp(rttTolerance * noLoadRtt / rtt, MIN_GRADIENT, 1.0);
+            newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        }
+        estimatedLimit = Math.clamp(newLimit, minLimit, maxLimit);
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,54 @@
+package com.athar.ecommerce.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Per-request stage durations for the {@code Server-Timing} response header. Recording is a no-op
+ * on threads that are not serving a request with the header enabled.
+ */
+public final class ServerTiming {
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> stages = new LinkedHashMap<>();
+
+    private ServerTiming() {
+    }
+
+    public static void record(String stage, long nanos) {
+        var current = CURRENT.get();
+        if (current != null) {
+            current.stages.merge(stage, nanos, Long::sum);
+        }
+    }
+
+    static void begin() {
+        CURRENT.set(new ServerTiming());
+    }
+
+    static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Formats the recorded stages followed by {@code app}, the time spent in the application so far.
+     */
+    String toHeaderValue() {
+        var header = new StringJoiner(", ");
+        stages.forEach((stage, nanos) -> header.add(metric(stage, nanos)));
+        header.add(metric("app", System.nanoTime() - startNanos));
+        return header.toString();
+    }
+
+    private static String metric(String name, long nanos) {
+        return String.format(Locale.ROOT, "%s;dur=%.2f", name, nanos / 1_000_000.0);
+    }
+}
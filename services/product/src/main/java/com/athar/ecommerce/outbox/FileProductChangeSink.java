@@ -0,0 +1,43 @@
+package com.athar.ecommerce.outbox;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends published changes to a local file as newline-delimited JSON, one batch per write
+ * ({@code product.outbox.sink=file}).
+ */
+public class FileProductChangeSink implements ProductChangeSink {
+
+    private final Path path;
+    private final ObjectWriter writer;
+
+    public FileProductChangeSink(Path path, ObjectWriter writer) {
+        this.path = path;
+        this.writer = writer;
+    }
+
+    @Override
+    public synchronized void publish(List<ProductChange> changes) {
+        try {
+            var lines = new ByteArrayOutputStream();
+            for (var change : changes) {
+                writer.writeValue(lines, change);
+                lines.write('\n');
+            }
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.write(path, lines.toByteArray(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append product changes to " + path, e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.athar.ecommerce.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps every published change in memory. Meant for tests and local runs
+ * ({@code product.outbox.sink=memory}).
+ */
+public class InMemoryProductChangeSink implements ProductChangeSink {
+
+    private final List<ProductChange> changes = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<ProductChange> changes) {
+        this.changes.addAll(changes);
+    }
+
+    public synchronized List<ProductChange> changes() {
+        return List.copyOf(changes);
+    }
+}
@@ -0,0 +1,26 @@
+package com.athar.ecommerce.outbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "product.outbox")
+public record OutboxProperties(
+        @DefaultValue("200ms")
+        Duration relayInterval,
+        @DefaultValue("10m")
+        Duration pruneInterval,
+        @DefaultValue("500")
+        int batchSize,
+        @DefaultValue("24h")
+        Duration retention,
+        @DefaultValue("30s")
+        Duration maxWait,
+        @DefaultValue("none")
+        String sink,
+        @DefaultValue("data/product-changes.ndjson")
+        Path sinkFile
+) {
+}
@@ -0,0 +1,12 @@
+package com.athar.ecommerce.outbox;
+
+import java.time.Instant;
+
+public record ProductChange(
+        long offset,
+        int productId,
+        double availableQuantity,
+        long version,
+        Instant changedAt
+) {
+}
@@ -0,0 +1,37 @@
+package com.athar.ecommerce.outbox;
+
+import com.athar.ecommerce.product.ProductCatalogProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DurationFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+
+/**
+ * Incremental alternative to polling the whole catalog: consumers keep the last {@code nextOffset}
+ * and ask for what changed after it. With {@code wait} the request is held open until a change
+ * arrives or the wait runs out.
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/v1/products/changes")
+@RequiredArgsConstructor
+public class ProductChangeController {
+
+    private final ProductChangeFeed changeFeed;
+    private final ProductCatalogProperties catalogProperties;
+
+    @GetMapping
+    public ResponseEntity<ProductChangesResponse> changesSince(
+            @RequestParam(value = "after", defaultValue = "0") long afterOffset,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "wait", defaultValue = "0s")
+            @DurationFormat(style = DurationFormat.Style.SIMPLE) Duration wait
+    ) throws InterruptedException {
+        var pageSize = Math.clamp(limit == null ? catalogProperties.defaultPageSize() : limit,
+                1, catalogProperties.maxPageSize());
+        return ResponseEntity.ok(changeFeed.changesSince(afterOffset, pageSize, wait));
+    }
+}
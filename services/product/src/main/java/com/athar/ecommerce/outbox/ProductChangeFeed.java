@@ -0,0 +1,59 @@
+package com.athar.ecommerce.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reads relayed changes by offset. An empty read waits until the local relay signals new changes,
+ * re-checking every relay interval so changes relayed by another instance are picked up as well.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductChangeFeed {
+
+    private final ProductOutboxRepository outboxRepository;
+    private final OutboxProperties properties;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition relayed = lock.newCondition();
+
+    public ProductChangesResponse changesSince(long afterOffset, int limit, Duration wait) throws InterruptedException {
+        var deadline = System.nanoTime() + Math.min(wait.toNanos(), properties.maxWait().toNanos());
+        while (true) {
+            var response = read(afterOffset, limit);
+            var remaining = deadline - System.nanoTime();
+            if (!response.changes().isEmpty() || response.truncated() || remaining <= 0) {
+                return response;
+            }
+            lock.lock();
+            try {
+                relayed.awaitNanos(Math.min(remaining, properties.relayInterval().toNanos()));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    void signal() {
+        lock.lock();
+        try {
+            relayed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ProductChangesResponse read(long afterOffset, int limit) {
+        var changes = outboxRepository.findSince(afterOffset, limit);
+        if (!changes.isEmpty()) {
+            var truncated = changes.getFirst().offset() > afterOffset + 1;
+            return new ProductChangesResponse(changes, changes.getLast().offset(), truncated);
+        }
+        var firstKept = outboxRepository.findFirstOffset().orElse(outboxRepository.findLastOffset() + 1);
+        return new ProductChangesResponse(changes, afterOffset, firstKept > afterOffset + 1);
+    }
+}
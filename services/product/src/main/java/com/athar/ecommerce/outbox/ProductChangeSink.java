@@ -0,0 +1,13 @@
+package com.athar.ecommerce.outbox;
+
+import java.util.List;
+
+/**
+ * Destination the outbox relay pushes changes to, in offset order. Publishing runs inside the relay
+ * transaction: a sink that throws leaves the batch in the outbox to be retried, so sinks see every
+ * change at least once.
+ */
+public interface ProductChangeSink {
+
+    void publish(List<ProductChange> changes);
+}
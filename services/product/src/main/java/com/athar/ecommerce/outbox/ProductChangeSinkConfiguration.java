@@ -0,0 +1,28 @@
+package com.athar.ecommerce.outbox;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Built-in sinks, selected with {@code product.outbox.sink}. Any other {@link ProductChangeSink}
+ * bean, such as a message broker publisher, is picked up by the relay alongside them.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ProductChangeSinkConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "product.outbox.sink", havingValue = "memory")
+    InMemoryProductChangeSink inMemoryProductChangeSink() {
+        return new InMemoryProductChangeSink();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "product.outbox.sink", havingValue = "file")
+    FileProductChangeSink fileProductChangeSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        return new FileProductChangeSink(properties.sinkFile(),
+                objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+    }
+}
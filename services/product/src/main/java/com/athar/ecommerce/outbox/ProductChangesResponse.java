@@ -0,0 +1,15 @@
+package com.athar.ecommerce.outbox;
+
+import java.util.List;
+
+/**
+ * @param nextOffset offset to pass as {@code after} on the next poll
+ * @param truncated  {@code true} when changes after the requested offset were already pruned, in
+ *                   which case the consumer has to resynchronise from the catalog
+ */
+public record ProductChangesResponse(
+        List<ProductChange> changes,
+        long nextOffset,
+        boolean truncated
+) {
+}
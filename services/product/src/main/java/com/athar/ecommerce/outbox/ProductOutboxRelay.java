@@ -0,0 +1,70 @@
+package com.athar.ecommerce.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tails the outbox in batches. Each batch gets consecutive offsets under the relay lock and is
+ * handed to every {@link ProductChangeSink} in the same transaction, so a failing sink leaves the
+ * batch to be relayed again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductOutboxRelay {
+
+    private final ProductOutboxRepository outboxRepository;
+    private final OutboxProperties properties;
+    private final List<ProductChangeSink> sinks;
+    private final ProductChangeFeed changeFeed;
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(fixedDelayString = "${product.outbox.relay-interval:200ms}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+                if (relayed > 0) {
+                    changeFeed.signal();
+                }
+            } while (relayed == properties.batchSize());
+        } catch (RuntimeException e) {
+            log.warn("Could not relay product changes, retrying with the next run", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.outbox.prune-interval:10m}")
+    public void prune() {
+        var pruned = outboxRepository.deleteRelayedBefore(Instant.now().minus(properties.retention()));
+        if (pruned > 0) {
+            log.info("Pruned {} product changes older than {}", pruned, properties.retention());
+        }
+    }
+
+    int relayBatch() {
+        var lastOffset = outboxRepository.lockRelay();
+        var entries = outboxRepository.findUnrelayed(properties.batchSize());
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        var ids = new ArrayList<Long>(entries.size());
+        var changes = new ArrayList<ProductChange>(entries.size());
+        for (var entry : entries) {
+            var change = entry.change();
+            ids.add(entry.id());
+            changes.add(new ProductChange(lastOffset + changes.size() + 1, change.productId(),
+                    change.availableQuantity(), change.version(), change.changedAt()));
+        }
+        outboxRepository.assignOffsets(ids, lastOffset + 1, lastOffset + changes.size());
+        sinks.forEach(sink -> sink.publish(changes));
+        return changes.size();
+    }
+}
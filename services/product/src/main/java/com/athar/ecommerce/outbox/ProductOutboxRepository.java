@@ -0,0 +1,139 @@
+package com.athar.ecommerce.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalLong;
+
+@Repository
+@RequiredArgsConstructor
+public class ProductOutboxRepository {
+
+    private static final String FIND_STATES = """
+            SELECT id, available_quantity, version
+              FROM product
+             WHERE id IN (:ids)
+             ORDER BY id
+            """;
+
+    private static final String INSERT_CHANGE = """
+            INSERT INTO product_outbox (product_id, available_quantity, version, created_at)
+            VALUES (:productId, :availableQuantity, :version, :createdAt)
+            """;
+
+    private static final String FIND_UNRELAYED = """
+            SELECT id, product_id, available_quantity, version, created_at
+              FROM product_outbox
+             WHERE change_offset IS NULL
+             ORDER BY id
+             LIMIT :limit
+            """;
+
+    private static final String FIND_SINCE = """
+            SELECT change_offset, product_id, available_quantity, version, created_at
+              FROM product_outbox
+             WHERE change_offset > :after
+             ORDER BY change_offset
+             LIMIT :limit
+            """;
+
+    private static final RowMapper<ProductChange> CHANGE_MAPPER = (rs, rowNum) -> new ProductChange(
+            rs.getLong("change_offset"),
+            rs.getInt("product_id"),
+            rs.getDouble("available_quantity"),
+            rs.getLong("version"),
+            rs.getTimestamp("created_at").toInstant());
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Current stock and version of the given products, as change rows still without an offset.
+     */
+    public List<ProductChange> findStates(Collection<Integer> productIds, Instant changedAt) {
+        return jdbcTemplate.query(FIND_STATES, new MapSqlParameterSource("ids", productIds),
+                (rs, rowNum) -> new ProductChange(0, rs.getInt("id"), rs.getDouble("available_quantity"),
+                        rs.getLong("version"), changedAt));
+    }
+
+    public void append(List<ProductChange> changes) {
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, changes.stream()
+                .map(change -> new MapSqlParameterSource()
+                        .addValue("productId", change.productId())
+                        .addValue("availableQuantity", change.availableQuantity())
+                        .addValue("version", change.version())
+                        .addValue("createdAt", Timestamp.from(change.changedAt())))
+                .toArray(MapSqlParameterSource[]::new));
+    }
+
+    /**
+     * Locks the relay row for the rest of the caller's transaction, so offsets are assigned and
+     * committed by one relay at a time and a consumer never sees a later offset before an earlier one.
+     *
+     * @return the last offset handed out
+     */
+    public long lockRelay() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT last_offset FROM product_outbox_relay WHERE id = 1 FOR UPDATE", Long.class);
+    }
+
+    /**
+     * @return the oldest changes without an offset, in the order they were written
+     */
+    public List<OutboxEntry> findUnrelayed(int limit) {
+        return jdbcTemplate.query(FIND_UNRELAYED, new MapSqlParameterSource("limit", limit),
+                (rs, rowNum) -> new OutboxEntry(rs.getLong("id"), new ProductChange(
+                        0,
+                        rs.getInt("product_id"),
+                        rs.getDouble("available_quantity"),
+                        rs.getLong("version"),
+                        rs.getTimestamp("created_at").toInstant())));
+    }
+
+    public void assignOffsets(List<Long> outboxIds, long firstOffset, long lastOffset) {
+        var batch = new MapSqlParameterSource[outboxIds.size()];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("id", outboxIds.get(i))
+                    .addValue("offset", firstOffset + i);
+        }
+        jdbcTemplate.batchUpdate("UPDATE product_outbox SET change_offset = :offset WHERE id = :id", batch);
+        jdbcTemplate.update("UPDATE product_outbox_relay SET last_offset = :offset WHERE id = 1",
+                new MapSqlParameterSource("offset", lastOffset));
+    }
+
+    public List<ProductChange> findSince(long afterOffset, int limit) {
+        return jdbcTemplate.query(FIND_SINCE, new MapSqlParameterSource()
+                .addValue("after", afterOffset)
+                .addValue("limit", limit), CHANGE_MAPPER);
+    }
+
+    public OptionalLong findFirstOffset() {
+        var first = jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT MIN(change_offset) FROM product_outbox", Long.class);
+        return first == null ? OptionalLong.empty() : OptionalLong.of(first);
+    }
+
+    public long findLastOffset() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT last_offset FROM product_outbox_relay WHERE id = 1", Long.class);
+    }
+
+    public int deleteRelayedBefore(Instant cutoff) {
+        return jdbcTemplate.update(
+                "DELETE FROM product_outbox WHERE change_offset IS NOT NULL AND created_at < :cutoff",
+                new MapSqlParameterSource("cutoff", Timestamp.from(cutoff)));
+    }
+
+    /**
+     * A change still waiting in the outbox, with the row id that orders it.
+     */
+    public record OutboxEntry(long id, ProductChange change) {
+    }
+}
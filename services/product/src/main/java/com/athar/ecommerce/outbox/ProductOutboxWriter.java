@@ -0,0 +1,46 @@
+package com.athar.ecommerce.outbox;
+
+import com.athar.ecommerce.inventory.HotInventoryLedger;
+import com.athar.ecommerce.product.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Writes one outbox row per changed product in the transaction that changed it, right before it
+ * commits: the change and its outbox rows become visible together or not at all. Products served
+ * from the inventory ledger are recorded with their ledger stock, which is ahead of the table.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductOutboxWriter {
+
+    private final ProductOutboxRepository outboxRepository;
+    private final HotInventoryLedger inventoryLedger;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Set<Integer> productIds = new TreeSet<>(event.productIds());
+        if (productIds.isEmpty()) {
+            return;
+        }
+        var changes = outboxRepository.findStates(productIds, Instant.now()).stream()
+                .map(this::withLedgerStock)
+                .toList();
+        outboxRepository.append(changes);
+    }
+
+    private ProductChange withLedgerStock(ProductChange change) {
+        var ledgerQuantity = inventoryLedger.quantityOf(change.productId());
+        if (ledgerQuantity.isEmpty()) {
+            return change;
+        }
+        return new ProductChange(change.offset(), change.productId(), ledgerQuantity.getAsDouble(),
+                change.version(), change.changedAt());
+    }
+}
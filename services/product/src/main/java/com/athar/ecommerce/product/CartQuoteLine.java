@@ -0,0 +1,19 @@
+package com.athar.ecommerce.product;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a quoted cart, after repeated lines of the same product are merged. Name, prices and
+ * stock are {@code null} or zero for a product that does not exist; {@code lineTotal} is
+ * {@code null} for any line that cannot be priced.
+ */
+public record CartQuoteLine(
+        Integer productId,
+        String name,
+        double quantity,
+        double availableQuantity,
+        boolean available,
+        BigDecimal unitPrice,
+        BigDecimal lineTotal
+) {
+}
@@ -0,0 +1,18 @@
+package com.athar.ecommerce.product;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @param fulfillable whether a purchase of the same cart would have gone through when it was quoted
+ * @param total       sum of every priced line, whether or not the cart is fulfillable
+ * @param problems    every line that would fail a purchase, keyed like the purchase errors
+ */
+public record CartQuoteResponse(
+        boolean fulfillable,
+        List<CartQuoteLine> lines,
+        BigDecimal total,
+        Map<String, String> problems
+) {
+}
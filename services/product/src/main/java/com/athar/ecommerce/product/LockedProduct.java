@@ -0,0 +1,12 @@
+package com.athar.ecommerce.product;
+
+import java.math.BigDecimal;
+
+public record LockedProduct(
+        int id,
+        String name,
+        String description,
+        BigDecimal price,
+        double availableQuantity
+) {
+}
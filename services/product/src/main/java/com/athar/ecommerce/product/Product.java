@@ -21,7 +21,12 @@ public class Product {
     private String description;
     private BigDecimal price;
     private double availableQuantity;
-    @ManyToOne()
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
+    /**
+     * Taken from {@code product_version_seq} by the database on insert and on every stock update.
+     */
+    @Column(insertable = false, updatable = false)
+    private Long version;
 }
@@ -0,0 +1,9 @@
+package com.athar.ecommerce.product;
+
+import java.util.List;
+
+public record ProductBatchResponse(
+        List<ProductResponse> products,
+        List<Integer> missingIds
+) {
+}
@@ -0,0 +1,122 @@
+package com.athar.ecommerce.product;
+
+import com.athar.ecommerce.datasource.ReadYourWrites;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+public class ProductCache {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_CATALOG = "product-catalog";
+    public static final String PRODUCT_VERSIONS = "product-versions";
+
+    private final Cache products;
+    private final Cache catalog;
+    private final Cache versions;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ProductCache(CacheManager cacheManager) {
+        this.products = Objects.requireNonNull(cacheManager.getCache(PRODUCTS), PRODUCTS);
+        this.catalog = Objects.requireNonNull(cacheManager.getCache(PRODUCT_CATALOG), PRODUCT_CATALOG);
+        this.versions = Objects.requireNonNull(cacheManager.getCache(PRODUCT_VERSIONS), PRODUCT_VERSIONS);
+    }
+
+    /**
+     * Concurrent misses for the same id are collapsed into a single call of the loader. A missing
+     * product is cached as {@code null} until it gets created. Requests pinned to the writer by
+     * {@link ReadYourWrites} always call the loader and leave the cache alone.
+     */
+    public ProductResponse getProduct(Integer productId, Supplier<ProductResponse> loader) {
+        if (ReadYourWrites.isPinned()) {
+            return loader.get();
+        }
+        return products.get(productId, loader::get);
+    }
+
+    /**
+     * Batch variant of {@link #getProduct}: cached ids are answered from the cache, including ids
+     * cached as missing, and the rest is handed to the loader in one call. Loaded products are
+     * cached, ids the loader does not return are simply absent from the result. A load that
+     * overlaps an eviction may have read the rows before the change committed, so what it cached is
+     * evicted again.
+     */
+    public Map<Integer, ProductResponse> getProducts(
+            Collection<Integer> productIds,
+            Function<List<Integer>, List<ProductResponse>> loader
+    ) {
+        if (ReadYourWrites.isPinned()) {
+            var found = new HashMap<Integer, ProductResponse>(productIds.size());
+            loader.apply(List.copyOf(productIds)).forEach(product -> found.put(product.id(), product));
+            return found;
+        }
+        var found = new HashMap<Integer, ProductResponse>(productIds.size());
+        var misses = new ArrayList<Integer>();
+        for (var productId : productIds) {
+            var cached = products.get(productId);
+            if (cached == null) {
+                misses.add(productId);
+            } else if (cached.get() != null) {
+                found.put(productId, (ProductResponse) cached.get());
+            }
+        }
+        if (!misses.isEmpty()) {
+            var evictionsBefore = evictions.get();
+            var loaded = loader.apply(misses);
+            for (var product : loaded) {
+                products.putIfAbsent(product.id(), product);
+                found.put(product.id(), product);
+            }
+            if (evictions.get() != evictionsBefore) {
+                loaded.forEach(product -> products.evict(product.id()));
+            }
+        }
+        return found;
+    }
+
+    public List<ProductResponse> getCatalog(String key, Supplier<List<ProductResponse>> loader) {
+        if (ReadYourWrites.isPinned()) {
+            return loader.get();
+        }
+        return catalog.get(key, loader::get);
+    }
+
+    public Long getVersion(Integer productId, Supplier<Long> loader) {
+        if (ReadYourWrites.isPinned()) {
+            return loader.get();
+        }
+        return versions.get(productId, loader::get);
+    }
+
+    /**
+     * Catalog and page versions live next to the listings they describe, so they are dropped
+     * together on any product change.
+     */
+    public String getCatalogVersion(String key, Supplier<String> loader) {
+        if (ReadYourWrites.isPinned()) {
+            return loader.get();
+        }
+        return catalog.get("version:" + key, loader::get);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Counted before evicting, so a batch load racing with this eviction always notices it
+        evictions.incrementAndGet();
+        event.productIds().forEach(products::evict);
+        event.productIds().forEach(versions::evict);
+        catalog.invalidate();
+    }
+}
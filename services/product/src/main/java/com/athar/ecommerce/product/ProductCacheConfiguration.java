@@ -0,0 +1,34 @@
+package com.athar.ecommerce.product;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.concurrent.Executors;
+
+@Configuration(proxyBeanMethods = false)
+public class ProductCacheConfiguration {
+
+    /**
+     * A synchronous Caffeine cache runs the loader inside {@code ConcurrentHashMap.compute}, which
+     * holds a monitor and pins the virtual thread to its carrier for the whole database query. In
+     * async mode only the future is published under that lock and the query runs on its own
+     * virtual thread, while callers of the same key wait on the future.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    CacheManagerCustomizer<CaffeineCacheManager> virtualThreadCacheLoading(CacheProperties cacheProperties) {
+        return cacheManager -> {
+            var spec = cacheProperties.getCaffeine().getSpec();
+            var caffeine = StringUtils.hasText(spec) ? Caffeine.from(spec) : Caffeine.newBuilder();
+            cacheManager.setCaffeine(caffeine.executor(Executors.newVirtualThreadPerTaskExecutor()));
+            cacheManager.setAsyncCacheMode(true);
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.athar.ecommerce.product;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.catalog")
+public record ProductCatalogProperties(
+        @DefaultValue("100")
+        int defaultPageSize,
+        @DefaultValue("1000")
+        int maxPageSize,
+        @DefaultValue("500")
+        int fetchSize
+) {
+}
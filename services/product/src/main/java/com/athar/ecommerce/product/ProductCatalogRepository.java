@@ -0,0 +1,78 @@
+package com.athar.ecommerce.product;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class ProductCatalogRepository {
+
+    private static final String SELECT_PRODUCT_RESPONSE = """
+            SELECT p.id, p.name, p.description, p.price, p.available_quantity,
+                   c.id AS category_id, c.name AS category_name, c.description AS category_description
+              FROM product p
+              LEFT JOIN category c ON c.id = p.category_id
+            """;
+
+    private static final RowMapper<ProductResponse> PRODUCT_RESPONSE_MAPPER = (rs, rowNum) -> new ProductResponse(
+            rs.getInt("id"),
+            rs.getString("name"),
+            rs.getString("description"),
+            rs.getBigDecimal("price"),
+            rs.getDouble("available_quantity"),
+            rs.getObject("category_id", Integer.class),
+            rs.getString("category_name"),
+            rs.getString("category_description"));
+
+    private static final RowMapper<String> CATALOG_VERSION_MAPPER = (rs, rowNum) ->
+            rs.getLong("products") + "-" + rs.getLong("version");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductCatalogProperties properties;
+
+    @Transactional(readOnly = true)
+    public List<ProductResponse> findPageAfter(int afterId, int limit) {
+        return jdbcTemplate.query(SELECT_PRODUCT_RESPONSE + " WHERE p.id > ? ORDER BY p.id LIMIT ?",
+                PRODUCT_RESPONSE_MAPPER, afterId, limit);
+    }
+
+    /**
+     * Product count and highest version, which together change whenever a product is added or updated.
+     */
+    @Transactional(readOnly = true)
+    public String findVersion() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) AS products, coalesce(max(version), 0) AS version FROM product",
+                CATALOG_VERSION_MAPPER);
+    }
+
+    @Transactional(readOnly = true)
+    public String findPageVersion(int afterId, int limit) {
+        return jdbcTemplate.queryForObject("""
+                SELECT count(*) AS products, coalesce(max(version), 0) AS version
+                  FROM (SELECT version FROM product WHERE id > ? ORDER BY id LIMIT ?) page
+                """, CATALOG_VERSION_MAPPER, afterId, limit);
+    }
+
+    /**
+     * Reads the catalog through a forward-only cursor. The PostgreSQL driver only honours the fetch
+     * size inside a transaction, so callers must run this in one to keep memory bounded.
+     */
+    public void streamAll(Consumer<ProductResponse> consumer) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(SELECT_PRODUCT_RESPONSE + " ORDER BY p.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(properties.fetchSize());
+            return statement;
+        }, rs -> {
+            consumer.accept(PRODUCT_RESPONSE_MAPPER.mapRow(rs, rs.getRow()));
+        });
+    }
+}
@@ -0,0 +1,8 @@
+package com.athar.ecommerce.product;
+
+import java.util.Collection;
+
+public record ProductChangedEvent(
+        Collection<Integer> productIds
+) {
+}
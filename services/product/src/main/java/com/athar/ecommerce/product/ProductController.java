@@ -1,39 +1,245 @@
 package com.athar.ecommerce.product;
 
+import com.athar.ecommerce.encoded.EncodedResponseCache;
+import com.athar.ecommerce.search.ProductSearchQuery;
+import com.athar.ecommerce.search.ProductSearchResponse;
+import com.athar.ecommerce.snapshot.CatalogSnapshot;
+import com.athar.ecommerce.topk.TopProductTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/products")
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final List<MediaType> NEGOTIATED = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR);
+
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductCatalogProperties catalogProperties;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<CatalogSnapshot> catalogSnapshot;
+    private final ObjectProvider<EncodedResponseCache> encodedResponses;
+    private final TopProductTracker topProductTracker;
+    private final ContentNegotiationManager contentNegotiationManager;
 
     @PostMapping
     public ResponseEntity<Integer> createProduct(@RequestBody @Valid ProductRequest request) {
         return ResponseEntity.ok(productService.createProduct(request));
     }
 
-    @PostMapping
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductImportResponse> importProducts(InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importJson(body));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ProductImportResponse> importProductsFromCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importCsv(body));
+    }
+
+    @PostMapping("/purchase")
     public ResponseEntity<List<ProductPurchaseResponse>> purchaseProducts(
-            @RequestBody @Valid  List<ProductPurchaseRequest> request) {
+            @RequestBody @Valid List<ProductPurchaseRequest> request) {
         return ResponseEntity.ok(productService.purchaseProduct(request));
     }
 
+    /**
+     * Prices a cart and checks its stock without buying it. A cart that could not be bought is still
+     * a {@code 200}, with every problem listed in the body.
+     */
+    @PostMapping("/quote")
+    public ResponseEntity<CartQuoteResponse> quote(@RequestBody @Valid List<ProductPurchaseRequest> request) {
+        if (request.size() > catalogProperties.maxPageSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most %d lines can be quoted at once".formatted(catalogProperties.maxPageSize()));
+        }
+        return ResponseEntity.ok(productService.quote(request));
+    }
+
+    /**
+     * Answers {@code If-None-Match} from the product's version before the product is loaded; a
+     * matching request gets an empty {@code 304}. Every lookup counts towards the top products,
+     * including those answered with a {@code 304} or from the encoded response cache.
+     */
     @GetMapping("/{product_id}")
-    public ResponseEntity<ProductResponse> findById(
-            @PathVariable("product_id") Integer productId
-    ) {
+    public ResponseEntity<?> findById(
+            @PathVariable("product_id") Integer productId,
+            NativeWebRequest request
+    ) throws HttpMediaTypeNotAcceptableException {
+        topProductTracker.record(productId);
+        var eTag = productService.findETag(productId);
+        var representation = negotiated(request);
+        if (eTag.isPresent() && request.checkNotModified(representationETag(eTag.get(), representation, request))) {
+            return null;
+        }
+        var encoded = encodedResponses.getIfAvailable();
+        if (encoded != null && eTag.isPresent()) {
+            return ResponseEntity.ok(encoded.getProduct(productId, eTag.get(),
+                    () -> productService.findById(productId)));
+        }
         return ResponseEntity.ok(productService.findById(productId));
     }
 
-    @GetMapping()
-    public ResponseEntity<List<ProductResponse>> findAll() {
-        return ResponseEntity.ok(productService.findAll());
+    /**
+     * Without a cursor or limit this is the whole catalog, served from the columnar snapshot when
+     * it is enabled. Otherwise listings come from the encoded response cache when that is enabled.
+     */
+    @GetMapping(params = "!ids")
+    public ResponseEntity<?> findAll(
+            @RequestParam(value = "cursor", required = false) Integer cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            NativeWebRequest request
+    ) throws HttpMediaTypeNotAcceptableException {
+        var encoded = encodedResponses.getIfAvailable();
+        var representation = negotiated(request);
+        if (cursor == null && limit == null) {
+            var eTag = productService.findCatalogETag();
+            if (request.checkNotModified(representationETag(eTag, representation, request))) {
+                return null;
+            }
+            var snapshot = catalogSnapshot.getIfAvailable();
+            if (snapshot != null) {
+                return ResponseEntity.ok(snapshot.view());
+            }
+            return ResponseEntity.ok(encoded != null
+                    ? encoded.getCatalog("all", eTag, productService::findAll)
+                    : productService.findAll());
+        }
+
+        var pageSize = Math.clamp(limit == null ? catalogProperties.defaultPageSize() : limit,
+                1, catalogProperties.maxPageSize());
+        var afterId = cursor == null ? 0 : cursor;
+        var eTag = productService.findPageETag(afterId, pageSize);
+        if (request.checkNotModified(representationETag(eTag, representation, request))) {
+            return null;
+        }
+        var encodedPage = encoded != null
+                ? encoded.getCatalog(afterId + ":" + pageSize, eTag, () -> productService.findPage(afterId, pageSize))
+                : null;
+        var page = encodedPage != null ? encodedPage.value() : productService.findPage(afterId, pageSize);
+
+        var response = ResponseEntity.ok();
+        if (page.size() == pageSize) {
+            var next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getLast().id())
+                    .replaceQueryParam("limit", pageSize)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return encodedPage != null ? response.body(encodedPage) : response.body(page);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<ProductBatchResponse> findAllById(@RequestParam("ids") List<Integer> productIds) {
+        return ResponseEntity.ok(productService.findAllById(checkBatchSize(productIds)));
+    }
+
+    /**
+     * Same lookup as {@code GET ?ids=}, for id lists too long for a query string.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ProductBatchResponse> findAllByIdInBody(@RequestBody List<Integer> productIds) {
+        return ResponseEntity.ok(productService.findAllById(checkBatchSize(productIds)));
+    }
+
+    private List<Integer> checkBatchSize(List<Integer> productIds) {
+        if (productIds.size() > catalogProperties.maxPageSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most %d ids can be requested at once".formatted(catalogProperties.maxPageSize()));
+        }
+        return productIds;
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResponse> search(
+            @RequestParam(value = "q", required = false) String text,
+            @RequestParam(value = "category_id", required = false) Integer categoryId,
+            @RequestParam(value = "min_price", required = false) BigDecimal minPrice,
+            @RequestParam(value = "max_price", required = false) BigDecimal maxPrice,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", required = false) Integer size
+    ) {
+        var pageSize = Math.clamp(size == null ? catalogProperties.defaultPageSize() : size,
+                1, catalogProperties.maxPageSize());
+        var query = new ProductSearchQuery(text, categoryId, minPrice, maxPrice, Math.max(page, 0), pageSize);
+        return ResponseEntity.ok(productService.search(query));
+    }
+
+    @GetMapping(params = "!ids", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll(NativeWebRequest request) {
+        var eTag = productService.findCatalogETag();
+        if (request.checkNotModified(representationETag(eTag, MediaType.APPLICATION_NDJSON, request))) {
+            return null;
+        }
+        var snapshot = catalogSnapshot.getIfAvailable();
+        StreamingResponseBody body = snapshot != null ? snapshot::writeNdjson : outputStream -> {
+            try (var writer = objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                productService.streamAll(product -> {
+                    try {
+                        writer.write(product);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * @return the representation the JSON and CBOR converters negotiate for this request
+     */
+    private MediaType negotiated(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        for (var accepted : contentNegotiationManager.resolveMediaTypes(request)) {
+            for (var representation : NEGOTIATED) {
+                if (accepted.isCompatibleWith(representation)) {
+                    return representation;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * One URL is served as JSON, CBOR or NDJSON, so each representation gets its own validator: the
+     * ETag is suffixed with the representation's subtype, and the response varies on {@code Accept}
+     * so that caches keep the representations apart as well.
+     */
+    private static String representationETag(String eTag, MediaType representation, NativeWebRequest request) {
+        var response = request.getNativeResponse(HttpServletResponse.class);
+        if (response != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return eTag.substring(0, eTag.length() - 1) + "-" + representation.getSubtype() + "\"";
     }
 }
@@ -0,0 +1,7 @@
+package com.athar.ecommerce.product;
+
+public record ProductImportError(
+        long row,
+        String reason
+) {
+}
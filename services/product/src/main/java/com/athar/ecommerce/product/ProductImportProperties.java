@@ -0,0 +1,13 @@
+package com.athar.ecommerce.product;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.import")
+public record ProductImportProperties(
+        @DefaultValue("1000")
+        int batchSize,
+        @DefaultValue("100")
+        int maxReportedErrors
+) {
+}
@@ -0,0 +1,65 @@
+package com.athar.ecommerce.product;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class ProductImportRepository {
+
+    /**
+     * Must match the {@code INCREMENT BY} of {@code product_seq} and the allocation size Hibernate
+     * uses for {@link Product}, so that imported blocks never overlap the ones it hands out.
+     */
+    static final int PRODUCT_SEQ_INCREMENT = 50;
+
+    private static final String INSERT_PRODUCT = """
+            INSERT INTO product (id, name, description, price, available_quantity, category_id)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final int[] INSERT_PRODUCT_TYPES = {
+            Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.DOUBLE, Types.INTEGER};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Set<Integer> findCategoryIds() {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM category", Integer.class));
+    }
+
+    /**
+     * Reserves at least {@code count} ids in one round trip. Like Hibernate's pooled optimizer, every
+     * value {@code v} returned by {@code product_seq} owns the ids {@code (v - 50, v]}.
+     */
+    public List<Integer> allocateIds(int count) {
+        var blocks = (count + PRODUCT_SEQ_INCREMENT - 1) / PRODUCT_SEQ_INCREMENT;
+        var ids = new ArrayList<Integer>(blocks * PRODUCT_SEQ_INCREMENT);
+        jdbcTemplate.queryForList("SELECT nextval('product_seq') FROM generate_series(1, ?)", Integer.class, blocks)
+                .forEach(high -> {
+                    for (int id = Math.max(1, high - PRODUCT_SEQ_INCREMENT + 1); id <= high; id++) {
+                        ids.add(id);
+                    }
+                });
+        while (ids.size() < count) {
+            ids.addAll(allocateIds(count - ids.size()));
+        }
+        return ids;
+    }
+
+    public void insertAll(List<Integer> ids, List<ProductRequest> products) {
+        var args = new ArrayList<Object[]>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            var product = products.get(i);
+            args.add(new Object[]{ids.get(i), product.name(), product.description(), product.price(),
+                    product.availableQuantity(), product.categoryId()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, args, INSERT_PRODUCT_TYPES);
+    }
+}
@@ -0,0 +1,10 @@
+package com.athar.ecommerce.product;
+
+import java.util.List;
+
+public record ProductImportResponse(
+        long accepted,
+        long rejected,
+        List<ProductImportError> errors
+) {
+}
@@ -0,0 +1,212 @@
+package com.athar.ecommerce.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    private static final List<String> CSV_COLUMNS =
+            List.of("name", "description", "price", "availableQuantity", "categoryId");
+
+    private final ProductImportRepository productImportRepository;
+    private final ProductImportProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public ProductImportResponse importJson(InputStream body) throws IOException {
+        var importer = new Import();
+        try (var parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                importer.reject(0, "Expected a JSON array of products");
+                return importer.finish();
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    importer.reject(importer.nextRow(), "Unexpected end of input");
+                    break;
+                }
+                var row = importer.nextRow();
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    importer.accept(row, objectMapper.treeToValue(node, ProductRequest.class));
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    importer.reject(row, "Unreadable product: " + e.getMessage());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            importer.reject(importer.row, "Malformed JSON, import stopped: " + e.getOriginalMessage());
+        }
+        return importer.finish();
+    }
+
+    public ProductImportResponse importCsv(InputStream body) throws IOException {
+        var importer = new Import();
+        var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        var header = reader.readLine();
+        if (header == null) {
+            return importer.finish();
+        }
+        var columns = new HashMap<String, Integer>();
+        var headerFields = parseCsvLine(header);
+        for (int i = 0; i < headerFields.size(); i++) {
+            columns.put(headerFields.get(i).strip(), i);
+        }
+        if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+            importer.reject(0, "CSV header must contain the columns " + CSV_COLUMNS);
+            return importer.finish();
+        }
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            var row = importer.nextRow();
+            try {
+                importer.accept(row, toProductRequest(parseCsvLine(line), columns));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                importer.reject(row, "Unreadable product: " + e.getMessage());
+            }
+        }
+        return importer.finish();
+    }
+
+    private static ProductRequest toProductRequest(List<String> fields, Map<String, Integer> columns) {
+        return new ProductRequest(
+                0,
+                fields.get(columns.get("name")),
+                fields.get(columns.get("description")),
+                new BigDecimal(fields.get(columns.get("price")).strip()),
+                Double.parseDouble(fields.get(columns.get("availableQuantity")).strip()),
+                Integer.valueOf(fields.get(columns.get("categoryId")).strip()));
+    }
+
+    /**
+     * Splits one RFC 4180 record. Quoted fields may contain separators and doubled quotes, but not
+     * line breaks.
+     */
+    static List<String> parseCsvLine(String line) {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private final class Import {
+
+        private final Set<Integer> categoryIds = productImportRepository.findCategoryIds();
+        private final List<ProductRequest> batch = new ArrayList<>(properties.batchSize());
+        private final List<Long> batchRows = new ArrayList<>(properties.batchSize());
+        private final List<ProductImportError> errors = new ArrayList<>();
+        private long row;
+        private long accepted;
+        private long rejected;
+
+        long nextRow() {
+            return ++row;
+        }
+
+        void accept(long row, ProductRequest product) {
+            var violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                reject(row, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            if (!categoryIds.contains(product.categoryId())) {
+                reject(row, format("Category with id %d does not exist", product.categoryId()));
+                return;
+            }
+            batch.add(product);
+            batchRows.add(row);
+            if (batch.size() >= properties.batchSize()) {
+                flush();
+            }
+        }
+
+        void reject(long row, String reason) {
+            rejected++;
+            if (errors.size() < properties.maxReportedErrors()) {
+                errors.add(new ProductImportError(row, reason));
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    var ids = productImportRepository.allocateIds(batch.size()).subList(0, batch.size());
+                    productImportRepository.insertAll(ids, batch);
+                    eventPublisher.publishEvent(new ProductChangedEvent(List.copyOf(ids)));
+                });
+                accepted += batch.size();
+            } catch (DataAccessException e) {
+                log.warn("Product import batch of {} rows failed", batch.size(), e);
+                batchRows.forEach(batchRow -> reject(batchRow, "Batch insert failed: " + e.getMostSpecificCause().getMessage()));
+            }
+            batch.clear();
+            batchRows.clear();
+        }
+
+        ProductImportResponse finish() {
+            flush();
+            return new ProductImportResponse(accepted, rejected, List.copyOf(errors));
+        }
+    }
+}
@@ -4,6 +4,9 @@ import com.athar.ecommerce.category.Category;
 import jakarta.validation.Valid;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
 @Component
 public class ProductMapper {
 
@@ -32,6 +35,16 @@ public class ProductMapper {
                 product.getCategory().getDescription());
     }
 
+    public ProductPurchaseResponse toProductPurchaseResponse(ProductResponse product, double requestedQuantity) {
+        return new ProductPurchaseResponse(
+                product.id(),
+                product.name(),
+                product.description(),
+                product.price(),
+                requestedQuantity
+        );
+    }
+
     public ProductPurchaseResponse toProductPurchaseResponse(Product product, double requestedQuantity) {
         return new ProductPurchaseResponse(
                 product.getId(),
@@ -41,4 +54,26 @@ public class ProductMapper {
                 requestedQuantity
         );
     }
+
+    /**
+     * @param product the product with its current stock, or {@code null} if it does not exist
+     */
+    public CartQuoteLine toCartQuoteLine(ProductPurchaseRequest line, ProductResponse product) {
+        if (product == null) {
+            return new CartQuoteLine(line.productId(), null, line.quantity(), 0, false, null, null);
+        }
+        var price = product.price();
+        var lineTotal = price == null
+                ? null
+                : price.multiply(BigDecimal.valueOf(line.quantity())).setScale(price.scale(), RoundingMode.HALF_EVEN);
+        return new CartQuoteLine(
+                product.id(),
+                product.name(),
+                line.quantity(),
+                product.availableQuantity(),
+                product.availableQuantity() >= line.quantity(),
+                price,
+                lineTotal
+        );
+    }
 }
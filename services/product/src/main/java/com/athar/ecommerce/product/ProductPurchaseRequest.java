@@ -1,11 +1,12 @@
 package com.athar.ecommerce.product;
 
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 
 public record ProductPurchaseRequest(
         @NotNull(message = "Product is mandatory")
         Integer productId,
-        @NotNull(message = "Quantity is mandatory")
+        @Positive(message = "Quantity must be positive")
         double quantity
 ) {
 }
@@ -1,13 +1,41 @@
 package com.athar.ecommerce.product;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * The read queries run in read-only transactions, which the routing data source sends to the reader
+ * unless they join a read-write transaction.
+ */
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Integer> {
-    
-    List<Product> findAllByIdInOrderById(List<Integer> productIds);
+
+    String SELECT_PRODUCT_RESPONSE = """
+            select new com.athar.ecommerce.product.ProductResponse(
+                p.id, p.name, p.description, p.price, p.availableQuantity, c.id, c.name, c.description)
+            from Product p left join p.category c
+            """;
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_PRODUCT_RESPONSE + " where p.id = :id")
+    Optional<ProductResponse> findResponseById(@Param("id") Integer productId);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_PRODUCT_RESPONSE + " order by p.id")
+    List<ProductResponse> findAllResponses();
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_PRODUCT_RESPONSE + " where p.id in :ids order by p.id")
+    List<ProductResponse> findAllByIdInOrderById(@Param("ids") Collection<Integer> productIds);
+
+    @Transactional(readOnly = true)
+    @Query("select p.version from Product p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Integer productId);
 }
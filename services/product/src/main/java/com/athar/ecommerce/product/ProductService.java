@@ -1,15 +1,34 @@
 package com.athar.ecommerce.product;
 
+import com.athar.ecommerce.datasource.ReadYourWrites;
 import com.athar.ecommerce.exception.ProductPurchaseException;
+import com.athar.ecommerce.inventory.HotInventoryLedger;
+import com.athar.ecommerce.inventory.LedgerStockOverlay;
+import com.athar.ecommerce.product.PurchaseMetrics.Rejection;
+import com.athar.ecommerce.product.PurchaseMetrics.Stage;
+import com.athar.ecommerce.search.ProductSearchIndex;
+import com.athar.ecommerce.search.ProductSearchQuery;
+import com.athar.ecommerce.search.ProductSearchResponse;
+import com.athar.ecommerce.topk.TopProductTracker;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -19,65 +38,289 @@ import static java.lang.String.format;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductCatalogRepository productCatalogRepository;
+    private final ProductStockRepository productStockRepository;
     private final ProductMapper mapper;
+    private final HotInventoryLedger inventoryLedger;
+    private final LedgerStockOverlay ledgerStock;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final PurchaseCoalescer purchaseCoalescer;
+    private final PurchaseMetrics purchaseMetrics;
+    private final TopProductTracker topProductTracker;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Integer createProduct(@Valid ProductRequest request) {
         var product = mapper.toProduct(request);
-        return productRepository.save(product).getId();
+        return transactionTemplate.execute(status -> {
+            var productId = productRepository.saveAndFlush(product).getId();
+            eventPublisher.publishEvent(new ProductChangedEvent(List.of(productId)));
+            return productId;
+        });
     }
 
-    @Transactional
     public List<ProductPurchaseResponse> purchaseProduct(
             @Valid List<ProductPurchaseRequest> request) {
 
-        var productIds = request.stream()
-                .map(ProductPurchaseRequest::productId)
-                .toList();
+        var lines = mergeLines(request);
+        purchaseMetrics.recordCart(lines.size());
+        lines.forEach(line -> topProductTracker.record(line.productId()));
+        if (purchaseCoalescer.isEnabled()) {
+            var responses = purchaseCoalescer.purchase(lines);
+            // Committed on the coalescer's thread, where the request's read-your-writes state is not visible
+            ReadYourWrites.recordWrite();
+            return responses;
+        }
+        return transactionTemplate.execute(status -> purchaseLines(lines));
+    }
 
-        var storedProducts = productRepository.findAllByIdInOrderById(productIds);
+    private List<ProductPurchaseResponse> purchaseLines(List<ProductPurchaseRequest> lines) {
+        var hotLines = lines.stream()
+                .filter(line -> inventoryLedger.isHot(line.productId()))
+                .toList();
+        var databaseLines = lines.stream()
+                .filter(line -> !inventoryLedger.isHot(line.productId()))
+                .toList();
 
-        if (productIds.size() != storedProducts.size()) {
-            throw new ProductPurchaseException("One or more products does not exists!");
+        var rejectedProductIds = new HashSet<Integer>();
+        if (!hotLines.isEmpty()) {
+            var reservation = purchaseMetrics.time(Stage.LEDGER, () -> inventoryLedger.reserve(hotLines));
+            rejectedProductIds.addAll(reservation.rejectedProductIds());
+            inventoryLedger.confirmOnCommit(reservation);
+        }
+        if (!databaseLines.isEmpty()) {
+            var updateCounts = purchaseMetrics.time(Stage.STOCK,
+                    () -> productStockRepository.decrementStock(databaseLines));
+            for (int i = 0; i < databaseLines.size(); i++) {
+                if (updateCounts[i] == 0) {
+                    rejectedProductIds.add(databaseLines.get(i).productId());
+                }
+            }
         }
 
-        var storedRequest = request.stream()
-                .sorted(Comparator.comparing(ProductPurchaseRequest::productId))
+        var productIds = lines.stream()
+                .map(ProductPurchaseRequest::productId)
                 .toList();
+        var storedProducts = purchaseMetrics.time(Stage.FETCH,
+                () -> productRepository.findAllByIdInOrderById(productIds).stream()
+                        .collect(Collectors.toMap(ProductResponse::id, Function.identity())));
 
-        var productPurchasedResponse = new ArrayList<ProductPurchaseResponse>();
+        var failures = new LinkedHashMap<String, String>();
+        var productPurchasedResponse = purchaseMetrics.time(Stage.MAP, () -> {
+            var responses = new ArrayList<ProductPurchaseResponse>(lines.size());
+            for (var productRequest : lines) {
 
-        for (int i = 0; i < storedRequest.size(); i++) {
-
-            var product = storedProducts.get(i);
-            var productRequest = storedRequest.get(i);
-            if (product.getAvailableQuantity() < productRequest.quantity()) {
-                throw new ProductPurchaseException(
-                        format("Not enough stock for product ID %d", product.getId()));
+                var product = storedProducts.get(productRequest.productId());
+                if (product == null) {
+                    purchaseMetrics.recordRejection(Rejection.NOT_FOUND);
+                    failures.put(productKey(productRequest), "Product does not exist");
+                } else if (rejectedProductIds.contains(productRequest.productId())) {
+                    purchaseMetrics.recordRejection(Rejection.OUT_OF_STOCK);
+                    failures.put(productKey(productRequest),
+                            format("Not enough stock for product ID %d", product.id()));
+                } else {
+                    responses.add(mapper.toProductPurchaseResponse(product, productRequest.quantity()));
+                }
             }
+            return responses;
+        });
+
+        if (!failures.isEmpty()) {
+            purchaseMetrics.recordRejectedCart();
+            throw new ProductPurchaseException("One or more products could not be purchased!", failures);
+        }
+
+        // Hot products' rows are written behind by the ledger, which publishes their changes then
+        if (!databaseLines.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(databaseLines.stream()
+                    .map(ProductPurchaseRequest::productId)
+                    .toList()));
+        }
+        return productPurchasedResponse;
+    }
 
-            var newAvailableQuantity = product.getAvailableQuantity() - productRequest.quantity();
-            product.setAvailableQuantity(newAvailableQuantity);
-            productRepository.save(product);
+    /**
+     * Prices a cart and checks it against stock the way {@link #purchaseProduct} would, but from the
+     * product cache and the inventory ledger only: no transaction, no row locks, and nothing thrown
+     * for a cart that cannot be bought. Every line is checked, so all of the cart's problems come
+     * back at once, including the quantities {@link #mergeLines} would reject for a purchase. Stock
+     * can still change before the cart is bought; the purchase stays the only authority on whether
+     * it goes through.
+     */
+    public CartQuoteResponse quote(List<ProductPurchaseRequest> request) {
+        var problems = new LinkedHashMap<String, String>();
+        var lines = mergeLines(request, problems).stream()
+                .filter(line -> !problems.containsKey(productKey(line)))
+                .toList();
+        var productIds = lines.stream()
+                .map(ProductPurchaseRequest::productId)
+                .toList();
+        var found = productIds.isEmpty()
+                ? Map.<Integer, ProductResponse>of()
+                : productCache.getProducts(productIds, productRepository::findAllByIdInOrderById);
 
+        var quoted = new ArrayList<CartQuoteLine>(lines.size());
+        var total = BigDecimal.ZERO;
+        for (var line : lines) {
+            var product = Optional.ofNullable(found.get(line.productId()))
+                    .map(ledgerStock::apply)
+                    .orElse(null);
+            var problem = quoteProblem(line, product);
+            if (problem != null) {
+                problems.put(productKey(line), problem);
+            }
+            var quotedLine = mapper.toCartQuoteLine(line, product);
+            if (quotedLine.lineTotal() != null) {
+                total = total.add(quotedLine.lineTotal());
+            }
+            quoted.add(quotedLine);
+        }
+        return new CartQuoteResponse(problems.isEmpty(), quoted, total, problems);
+    }
 
-            productPurchasedResponse.add(mapper.toProductPurchaseResponse(product, productRequest.quantity()));
+    private static String quoteProblem(ProductPurchaseRequest line, ProductResponse product) {
+        if (product == null) {
+            return "Product does not exist";
+        }
+        if (product.price() == null) {
+            return "Product has no price";
+        }
+        if (product.availableQuantity() < line.quantity()) {
+            return format("Not enough stock for product ID %d", product.id());
         }
+        return null;
+    }
 
-        return productPurchasedResponse;
+    /**
+     * Merges repeated lines of the same product, ordered by product id. Every line must ask for a
+     * positive quantity: the stock paths all subtract the merged quantity, so a negative line would
+     * add stock instead, and is rejected here for callers that skip request validation.
+     */
+    public static List<ProductPurchaseRequest> mergeLines(List<ProductPurchaseRequest> request) {
+        var failures = new LinkedHashMap<String, String>();
+        var lines = mergeLines(request, failures);
+        if (!failures.isEmpty()) {
+            throw new ProductPurchaseException("One or more products could not be purchased!", failures);
+        }
+        return lines;
+    }
+
+    /**
+     * Merges like {@link #mergeLines(List)}, but adds the products with a non-positive line to
+     * {@code failures} instead of throwing.
+     */
+    private static List<ProductPurchaseRequest> mergeLines(List<ProductPurchaseRequest> request,
+                                                           Map<String, String> failures) {
+        var quantities = new TreeMap<Integer, Double>();
+        request.forEach(line -> {
+            if (!(line.quantity() > 0)) {
+                failures.put(productKey(line), "Quantity must be positive");
+            }
+            quantities.merge(line.productId(), line.quantity(), Double::sum);
+        });
+        return quantities.entrySet().stream()
+                .map(entry -> new ProductPurchaseRequest(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private static String productKey(ProductPurchaseRequest line) {
+        return productKey(line.productId());
+    }
+
+    public static String productKey(int productId) {
+        return format("product %d", productId);
     }
 
     public ProductResponse findById(Integer productId) {
-        return productRepository.findById(productId)
-                .map(mapper::toProductResponse)
+        var product = productCache.getProduct(productId,
+                () -> productRepository.findResponseById(productId).orElse(null));
+        return Optional.ofNullable(product)
+                .map(ledgerStock::apply)
                 .orElseThrow(() -> new EntityNotFoundException(
                         format("product with id %s not found", productId)
                 ));
     }
 
+    /**
+     * Resolves every id from the product cache and one {@code IN} query for the misses. Products
+     * come back in the order they were asked for, each once, and ids without a product are listed
+     * separately instead of failing the lookup.
+     */
+    public ProductBatchResponse findAllById(List<Integer> productIds) {
+        var ids = List.copyOf(new LinkedHashSet<>(productIds));
+        if (ids.isEmpty()) {
+            return new ProductBatchResponse(List.of(), List.of());
+        }
+        var found = productCache.getProducts(ids, productRepository::findAllByIdInOrderById);
+        return new ProductBatchResponse(
+                ids.stream().filter(found::containsKey).map(found::get).map(ledgerStock::apply).toList(),
+                ids.stream().filter(id -> !found.containsKey(id)).toList());
+    }
+
     public List<ProductResponse> findAll() {
-        return productRepository.findAll()
+        return productCache.getCatalog("all", productRepository::findAllResponses)
                 .stream()
-                .map(mapper::toProductResponse)
+                .map(ledgerStock::apply)
                 .collect(Collectors.toList());
     }
+
+    public List<ProductResponse> findPage(int afterId, int limit) {
+        return productCache.getCatalog(afterId + ":" + limit,
+                        () -> productCatalogRepository.findPageAfter(afterId, limit))
+                .stream()
+                .map(ledgerStock::apply)
+                .toList();
+    }
+
+    /**
+     * Strong validator for {@link #findById}, answered from the version column without loading the
+     * product. Empty when the product does not exist.
+     */
+    public Optional<String> findETag(Integer productId) {
+        var version = productCache.getVersion(productId,
+                () -> productRepository.findVersionById(productId).orElse(null));
+        if (version == null) {
+            return Optional.empty();
+        }
+        var ledgerQuantity = inventoryLedger.quantityOf(productId);
+        return Optional.of(ledgerQuantity.isEmpty()
+                ? format("\"%d\"", version)
+                : format("\"%d-%x\"", version, Double.doubleToLongBits(ledgerQuantity.getAsDouble())));
+    }
+
+    /**
+     * Strong validator for {@link #findAll} and {@link #streamAll}.
+     */
+    public String findCatalogETag() {
+        return catalogETag(productCache.getCatalogVersion("all", productCatalogRepository::findVersion));
+    }
+
+    public String findPageETag(int afterId, int limit) {
+        return catalogETag(productCache.getCatalogVersion(afterId + ":" + limit,
+                () -> productCatalogRepository.findPageVersion(afterId, limit)));
+    }
+
+    private String catalogETag(String catalogVersion) {
+        var ledgerFingerprint = inventoryLedger.fingerprint();
+        return ledgerFingerprint == 0
+                ? format("\"%s\"", catalogVersion)
+                : format("\"%s-%x\"", catalogVersion, ledgerFingerprint);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<ProductResponse> consumer) {
+        productCatalogRepository.streamAll(product -> consumer.accept(ledgerStock.apply(product)));
+    }
+
+    public ProductSearchResponse search(ProductSearchQuery query) {
+        var result = productSearchIndex.search(query);
+        return new ProductSearchResponse(
+                result.content().stream().map(ledgerStock::apply).toList(),
+                result.totalHits(),
+                result.page(),
+                result.size(),
+                result.categoryFacets(),
+                result.priceFacets());
+    }
 }
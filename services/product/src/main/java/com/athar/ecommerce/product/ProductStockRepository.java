@@ -0,0 +1,148 @@
+package com.athar.ecommerce.product;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class ProductStockRepository {
+
+    private static final String DECREMENT_STOCK = """
+            UPDATE product
+               SET available_quantity = available_quantity - ?,
+                   version = nextval('product_version_seq')
+             WHERE id = ?
+               AND available_quantity >= ?
+            """;
+
+    private static final int[] DECREMENT_STOCK_TYPES = {Types.DOUBLE, Types.INTEGER, Types.DOUBLE};
+
+    private static final String LOCK_STOCK = """
+            SELECT id, name, description, price, available_quantity
+              FROM product
+             WHERE id IN (:ids)
+             ORDER BY id
+               FOR UPDATE
+            """;
+
+    private static final String UPDATE_STOCK = """
+            UPDATE product
+               SET available_quantity = ?,
+                   version = nextval('product_version_seq')
+             WHERE id = ?
+            """;
+
+    private static final int[] UPDATE_STOCK_TYPES = {Types.DOUBLE, Types.INTEGER};
+
+    private static final String HOLD_STOCK = """
+            UPDATE product
+               SET available_quantity = available_quantity - ?,
+                   reserved_quantity = reserved_quantity + ?,
+                   version = nextval('product_version_seq')
+             WHERE id = ?
+               AND available_quantity >= ?
+            """;
+
+    private static final int[] HOLD_STOCK_TYPES = {Types.DOUBLE, Types.DOUBLE, Types.INTEGER, Types.DOUBLE};
+
+    private static final String RETURN_STOCK = """
+            UPDATE product
+               SET available_quantity = available_quantity + ?,
+                   reserved_quantity = reserved_quantity - ?,
+                   version = nextval('product_version_seq')
+             WHERE id = ?
+            """;
+
+    private static final int[] RETURN_STOCK_TYPES = {Types.DOUBLE, Types.DOUBLE, Types.INTEGER};
+
+    private static final String ADJUST_RESERVED = """
+            UPDATE product
+               SET reserved_quantity = reserved_quantity + ?
+             WHERE id = ?
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies every decrement as one JDBC batch of guarded updates. The caller is expected to pass
+     * the lines sorted by product id so concurrent carts always lock rows in the same order.
+     *
+     * @return the update count per line, {@code 0} meaning the product is missing or out of stock
+     */
+    public int[] decrementStock(List<ProductPurchaseRequest> lines) {
+        var args = lines.stream()
+                .map(line -> new Object[]{line.quantity(), line.productId(), line.quantity()})
+                .toList();
+        return jdbcTemplate.getJdbcTemplate().batchUpdate(DECREMENT_STOCK, args, DECREMENT_STOCK_TYPES);
+    }
+
+    /**
+     * Locks the rows in product id order for the rest of the caller's transaction.
+     */
+    public List<LockedProduct> lockStock(Collection<Integer> productIds) {
+        return jdbcTemplate.query(LOCK_STOCK, new MapSqlParameterSource("ids", productIds),
+                (rs, rowNum) -> new LockedProduct(
+                        rs.getInt("id"),
+                        rs.getString("name"),
+                        rs.getString("description"),
+                        rs.getBigDecimal("price"),
+                        rs.getDouble("available_quantity")));
+    }
+
+    public void updateStock(Map<Integer, Double> quantities) {
+        var args = quantities.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .toList();
+        jdbcTemplate.getJdbcTemplate().batchUpdate(UPDATE_STOCK, args, UPDATE_STOCK_TYPES);
+    }
+
+    /**
+     * Moves the held quantities from {@code available_quantity} to {@code reserved_quantity}, with
+     * the same guard and lock order as {@link #decrementStock}.
+     *
+     * @return the update count per line, {@code 0} meaning the product is missing or out of stock
+     */
+    public int[] holdStock(List<ProductPurchaseRequest> lines) {
+        var args = lines.stream()
+                .map(line -> new Object[]{line.quantity(), line.quantity(), line.productId(), line.quantity()})
+                .toList();
+        return jdbcTemplate.getJdbcTemplate().batchUpdate(HOLD_STOCK, args, HOLD_STOCK_TYPES);
+    }
+
+    /**
+     * Moves released quantities from {@code reserved_quantity} back to {@code available_quantity}.
+     */
+    public void returnStock(List<ProductPurchaseRequest> lines) {
+        var args = lines.stream()
+                .map(line -> new Object[]{line.quantity(), line.quantity(), line.productId()})
+                .toList();
+        jdbcTemplate.getJdbcTemplate().batchUpdate(RETURN_STOCK, args, RETURN_STOCK_TYPES);
+    }
+
+    /**
+     * Changes only the held quantity, for stock whose available side is kept elsewhere: holds on
+     * products served from the inventory ledger, and confirmed holds that leave stock for good.
+     */
+    public void addReserved(List<ProductPurchaseRequest> lines) {
+        adjustReserved(lines, 1);
+    }
+
+    public void removeReserved(List<ProductPurchaseRequest> lines) {
+        adjustReserved(lines, -1);
+    }
+
+    private void adjustReserved(List<ProductPurchaseRequest> lines, int sign) {
+        var args = lines.stream()
+                .map(line -> new Object[]{sign * line.quantity(), line.productId()})
+                .toList();
+        jdbcTemplate.getJdbcTemplate().batchUpdate(ADJUST_RESERVED, args, UPDATE_STOCK_TYPES);
+    }
+}
@@ -0,0 +1,267 @@
+package com.athar.ecommerce.product;
+
+import com.athar.ecommerce.exception.ProductPurchaseException;
+import com.athar.ecommerce.inventory.HotInventoryLedger;
+import com.athar.ecommerce.product.PurchaseMetrics.Rejection;
+import com.athar.ecommerce.product.PurchaseMetrics.Stage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.athar.ecommerce.product.ProductService.productKey;
+import static java.lang.String.format;
+
+/**
+ * Group commit for purchases. Carts arriving within {@code product.purchase.coalescing.window} are
+ * applied by one flusher thread in a single transaction: the rows of every cart are locked once in
+ * product id order, each cart is checked against the running stock in arrival order, and the final
+ * quantities are written back with one batch. Every caller still gets its own result.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PurchaseCoalescer implements SmartLifecycle {
+
+    private final PurchaseCoalescingProperties properties;
+    private final ProductStockRepository productStockRepository;
+    private final ProductRepository productRepository;
+    private final ProductMapper mapper;
+    private final HotInventoryLedger inventoryLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PurchaseMetrics purchaseMetrics;
+
+    private final BlockingQueue<PendingPurchase> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread flusher;
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public List<ProductPurchaseResponse> purchase(List<ProductPurchaseRequest> lines) {
+        if (!running) {
+            throw new IllegalStateException("Purchase coalescing is not running");
+        }
+        var pending = new PendingPurchase(lines, new CompletableFuture<>());
+        queue.add(pending);
+        // stop() may have drained the queue between the check above and the add
+        if (!running && queue.remove(pending)) {
+            throw new IllegalStateException("Purchase coalescing stopped");
+        }
+        try {
+            return purchaseMetrics.time(Stage.COALESCE, () -> await(pending));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private List<ProductPurchaseResponse> await(PendingPurchase pending) {
+        try {
+            return pending.result().get(properties.timeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                throw new IllegalStateException("Purchase was not applied within " + properties.timeout());
+            }
+            throw new IllegalStateException("Purchase is still being applied after " + properties.timeout()
+                    + ", its outcome is unknown");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queue.remove(pending);
+            throw new IllegalStateException("Interrupted while waiting for the purchase", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        running = true;
+        flusher = Thread.ofPlatform().name("purchase-coalescer").start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingPurchase pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().completeExceptionally(new IllegalStateException("Purchase coalescing stopped"));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        var batch = new ArrayList<PendingPurchase>(properties.maxBatchSize());
+        while (running) {
+            try {
+                var first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                var deadline = System.nanoTime() + properties.window().toNanos();
+                while (batch.size() < properties.maxBatchSize()) {
+                    queue.drainTo(batch, properties.maxBatchSize() - batch.size());
+                    var remaining = deadline - System.nanoTime();
+                    if (batch.size() >= properties.maxBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    var next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.result().completeExceptionally(
+                        new IllegalStateException("Purchase coalescing stopped")));
+                return;
+            } catch (Throwable e) {
+                // Keeps the only flusher alive; the carts it was holding must not wait for a result forever
+                log.error("Purchase coalescer failed on a batch of {} carts", batch.size(), e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void flush(List<PendingPurchase> batch) {
+        List<Outcome> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(status -> apply(batch));
+        } catch (RuntimeException e) {
+            log.warn("Purchase batch of {} carts failed", batch.size(), e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            var outcome = outcomes.get(i);
+            if (outcome.failure() != null) {
+                batch.get(i).result().completeExceptionally(outcome.failure());
+            } else {
+                batch.get(i).result().complete(outcome.responses());
+            }
+        }
+    }
+
+    private List<Outcome> apply(List<PendingPurchase> batch) {
+        var databaseIds = new TreeSet<Integer>();
+        var hotIds = new TreeSet<Integer>();
+        batch.forEach(pending -> pending.lines().forEach(line ->
+                (inventoryLedger.isHot(line.productId()) ? hotIds : databaseIds).add(line.productId())));
+
+        var lockedProducts = databaseIds.isEmpty() ? Map.<Integer, LockedProduct>of()
+                : purchaseMetrics.time(Stage.LOCK, () -> productStockRepository.lockStock(databaseIds)).stream()
+                .collect(Collectors.toMap(LockedProduct::id, Function.identity()));
+        var hotProducts = hotIds.isEmpty() ? Map.<Integer, ProductResponse>of()
+                : purchaseMetrics.time(Stage.FETCH, () -> productRepository.findAllByIdInOrderById(hotIds)).stream()
+                .collect(Collectors.toMap(ProductResponse::id, Function.identity()));
+        var remaining = new HashMap<Integer, Double>();
+        lockedProducts.values().forEach(product -> remaining.put(product.id(), product.availableQuantity()));
+
+        var outcomes = new ArrayList<Outcome>(batch.size());
+        var changedIds = new TreeSet<Integer>();
+        for (var pending : batch) {
+            var failures = new LinkedHashMap<String, String>();
+            var hotLines = new ArrayList<ProductPurchaseRequest>();
+            for (var line : pending.lines()) {
+                if (inventoryLedger.isHot(line.productId())) {
+                    hotLines.add(line);
+                    continue;
+                }
+                var available = remaining.get(line.productId());
+                if (available == null) {
+                    purchaseMetrics.recordRejection(Rejection.NOT_FOUND);
+                    failures.put(productKey(line.productId()), "Product does not exist");
+                } else if (available < line.quantity()) {
+                    purchaseMetrics.recordRejection(Rejection.OUT_OF_STOCK);
+                    failures.put(productKey(line.productId()),
+                            format("Not enough stock for product ID %d", line.productId()));
+                }
+            }
+            if (failures.isEmpty() && !hotLines.isEmpty()) {
+                var reservation = purchaseMetrics.time(Stage.LEDGER, () -> inventoryLedger.reserve(hotLines));
+                reservation.rejectedProductIds().forEach(productId -> {
+                    purchaseMetrics.recordRejection(Rejection.OUT_OF_STOCK);
+                    failures.put(productKey(productId), format("Not enough stock for product ID %d", productId));
+                });
+                if (!reservation.isRejected()) {
+                    inventoryLedger.confirmOnCommit(reservation);
+                }
+            }
+            if (!failures.isEmpty()) {
+                purchaseMetrics.recordRejectedCart();
+                outcomes.add(new Outcome(null,
+                        new ProductPurchaseException("One or more products could not be purchased!", failures)));
+                continue;
+            }
+
+            var responses = new ArrayList<ProductPurchaseResponse>(pending.lines().size());
+            for (var line : pending.lines()) {
+                if (inventoryLedger.isHot(line.productId())) {
+                    responses.add(mapper.toProductPurchaseResponse(hotProducts.get(line.productId()), line.quantity()));
+                } else {
+                    remaining.merge(line.productId(), -line.quantity(), Double::sum);
+                    changedIds.add(line.productId());
+                    var product = lockedProducts.get(line.productId());
+                    responses.add(new ProductPurchaseResponse(product.id(), product.name(), product.description(),
+                            product.price(), line.quantity()));
+                }
+            }
+            outcomes.add(new Outcome(responses, null));
+        }
+
+        if (!changedIds.isEmpty()) {
+            var quantities = new HashMap<Integer, Double>();
+            changedIds.forEach(productId -> quantities.put(productId, remaining.get(productId)));
+            purchaseMetrics.time(Stage.STOCK, () -> {
+                productStockRepository.updateStock(quantities);
+                return null;
+            });
+            // Hot products' rows are written behind by the ledger, which publishes their changes then
+            eventPublisher.publishEvent(new ProductChangedEvent(List.copyOf(changedIds)));
+        }
+        return outcomes;
+    }
+
+    record PendingPurchase(List<ProductPurchaseRequest> lines, CompletableFuture<List<ProductPurchaseResponse>> result) {
+    }
+
+    private record Outcome(List<ProductPurchaseResponse> responses, ProductPurchaseException failure) {
+    }
+}
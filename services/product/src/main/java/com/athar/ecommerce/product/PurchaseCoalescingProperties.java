@@ -0,0 +1,23 @@
+package com.athar.ecommerce.product;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param timeout how long a caller waits for its cart's batch before it gives up; a cart that is
+ *                still queued by then is withdrawn and never applied
+ */
+@ConfigurationProperties(prefix = "product.purchase.coalescing")
+public record PurchaseCoalescingProperties(
+        @DefaultValue("false")
+        boolean enabled,
+        @DefaultValue("2ms")
+        Duration window,
+        @DefaultValue("256")
+        int maxBatchSize,
+        @DefaultValue("10s")
+        Duration timeout
+) {
+}
@@ -0,0 +1,82 @@
+package com.athar.ecommerce.product;
+
+import com.athar.ecommerce.metrics.ServerTiming;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the purchase path: {@code product.purchase.stage} times each stage of a purchase,
+ * {@code product.purchase.cart.items} is the distinct products per cart and
+ * {@code product.purchase.rejections} counts rejected lines by reason.
+ */
+@Component
+public class PurchaseMetrics {
+
+    public enum Stage {
+        COALESCE, LEDGER, LOCK, STOCK, FETCH, MAP
+    }
+
+    public enum Rejection {
+        OUT_OF_STOCK, NOT_FOUND
+    }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Rejection, Counter> rejections = new EnumMap<>(Rejection.class);
+    private final DistributionSummary cartItems;
+    private final Counter rejectedCarts;
+
+    public PurchaseMetrics(MeterRegistry registry) {
+        for (var stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("product.purchase.stage")
+                    .tag("stage", tagValue(stage))
+                    .register(registry));
+        }
+        for (var rejection : Rejection.values()) {
+            rejections.put(rejection, Counter.builder("product.purchase.rejections")
+                    .tag("reason", tagValue(rejection))
+                    .register(registry));
+        }
+        cartItems = DistributionSummary.builder("product.purchase.cart.items")
+                .baseUnit("products")
+                .register(registry);
+        rejectedCarts = Counter.builder("product.purchase.rejected.carts")
+                .description("Purchases that failed with a ProductPurchaseException")
+                .register(registry);
+    }
+
+    public <T> T time(Stage stage, Supplier<T> work) {
+        var start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            var elapsed = System.nanoTime() - start;
+            stageTimers.get(stage).record(elapsed, TimeUnit.NANOSECONDS);
+            ServerTiming.record(tagValue(stage), elapsed);
+        }
+    }
+
+    public void recordCart(int items) {
+        cartItems.record(items);
+    }
+
+    public void recordRejection(Rejection reason) {
+        rejections.get(reason).increment();
+    }
+
+    public void recordRejectedCart() {
+        rejectedCarts.increment();
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
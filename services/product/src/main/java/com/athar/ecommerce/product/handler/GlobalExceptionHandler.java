@@ -3,6 +3,7 @@ package com.athar.ecommerce.product.handler;
 import com.athar.ecommerce.product.handler.ErrorResponse;
 import com.athar.ecommerce.exception.ProductPurchaseException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -16,7 +17,11 @@ import java.util.HashMap;
 public class GlobalExceptionHandler {
 
     @ExceptionHandler(ProductPurchaseException.class)
-    public ResponseEntity<String> handler(ProductPurchaseException ex) {
+    public ResponseEntity<?> handler(ProductPurchaseException ex) {
+        if (!ex.getFailures().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(ex.getFailures()));
+        }
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(ex.getMessage());
     }
@@ -27,6 +32,15 @@ public class GlobalExceptionHandler {
                 .body(ex.getMessage());
     }
 
+    /**
+     * A catalog export turned away because every export thread is busy.
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Void> handler(TaskRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .build();
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handler(MethodArgumentNotValidException ex) {
 
@@ -0,0 +1,50 @@
+package com.athar.ecommerce.product.reactive;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * The reactive profile serves the product read routes only: lookup by id, the catalog listing and
+ * the batch lookup. Everything else is gated with {@code @Profile("!reactive")} and answers 404
+ * here: the whole servlet {@code ProductController} with create, purchase, quote and import, the
+ * reservation endpoints and the change feed. A reactive instance can therefore only take the read
+ * routes; the rest has to be routed to servlet instances.
+ * <p>
+ * The blocking beans still boot underneath. The Hikari pool runs Flyway, the inventory ledger and
+ * its flushes back the stock overlay, and the top product tracker keeps its persistence. The outbox
+ * relay and reservation expiry keep working on rows the servlet instances write. The write services
+ * and the product cache are booted too, although no route of this profile calls them. The reads
+ * only touch the ledger overlay and the tracker, which stay in memory, so nothing blocking runs on
+ * an event loop thread.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveProductConfiguration {
+
+    /**
+     * Tomcat is on the classpath for the servlet stack and would otherwise be picked for the
+     * reactive server too; Netty keeps an idle connection down to a channel instead of a socket
+     * processor, which is what the reactive variant is meant to show at high connection counts.
+     */
+    @Bean
+    NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Boot skips the JDBC data source as soon as an R2DBC connection factory exists, but Flyway,
+     * the inventory ledger and the write paths still need it.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
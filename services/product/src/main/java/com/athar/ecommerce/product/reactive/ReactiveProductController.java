@@ -0,0 +1,95 @@
+package com.athar.ecommerce.product.reactive;
+
+import com.athar.ecommerce.product.ProductBatchResponse;
+import com.athar.ecommerce.product.ProductCatalogProperties;
+import com.athar.ecommerce.product.ProductResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking variant of the product read endpoints, served on the same routes and with the same
+ * {@link ProductResponse} contract as the servlet controller when the {@code reactive} profile is
+ * active. Only these GET and batch routes exist on a reactive instance; see
+ * {@link ReactiveProductConfiguration} for what has to stay on the servlet instances.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/products")
+@RequiredArgsConstructor
+public class ReactiveProductController {
+
+    private final ReactiveProductService productService;
+    private final ProductCatalogProperties catalogProperties;
+
+    @GetMapping("/{product_id}")
+    public Mono<ProductResponse> findById(
+            @PathVariable("product_id") Integer productId
+    ) {
+        return productService.findById(productId);
+    }
+
+    /**
+     * Rows are encoded as they arrive from the database, as a JSON array or as NDJSON depending on
+     * the {@code Accept} header, and the database is only read as fast as the client consumes them.
+     */
+    @GetMapping(params = {"!ids", "!cursor", "!limit"})
+    public Flux<ProductResponse> findAll() {
+        return productService.findAll();
+    }
+
+    @GetMapping(params = "!ids")
+    public Mono<ResponseEntity<List<ProductResponse>>> findPage(
+            @RequestParam(value = "cursor", required = false) Integer cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            ServerHttpRequest request
+    ) {
+        var pageSize = Math.clamp(limit == null ? catalogProperties.defaultPageSize() : limit,
+                1, catalogProperties.maxPageSize());
+        return productService.findPage(cursor == null ? 0 : cursor, pageSize)
+                .collectList()
+                .map(page -> {
+                    var response = ResponseEntity.ok();
+                    if (page.size() == pageSize) {
+                        var next = UriComponentsBuilder.fromUri(request.getURI())
+                                .replaceQueryParam("cursor", page.getLast().id())
+                                .replaceQueryParam("limit", pageSize)
+                                .toUriString();
+                        response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+                    }
+                    return response.body(page);
+                });
+    }
+
+    @GetMapping(params = "ids")
+    public Mono<ProductBatchResponse> findAllById(
+            @RequestParam("ids") List<Integer> productIds
+    ) {
+        return productService.findAllById(checkBatchSize(productIds));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ProductBatchResponse> findAllByIdInBody(
+            @RequestBody List<Integer> productIds
+    ) {
+        return productService.findAllById(checkBatchSize(productIds));
+    }
+
+    private List<Integer> checkBatchSize(List<Integer> productIds) {
+        if (productIds.size() > catalogProperties.maxPageSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most %d ids can be requested at once".formatted(catalogProperties.maxPageSize()));
+        }
+        return productIds;
+    }
+}
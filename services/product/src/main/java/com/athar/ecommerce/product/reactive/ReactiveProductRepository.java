@@ -0,0 +1,75 @@
+package com.athar.ecommerce.product.reactive;
+
+import com.athar.ecommerce.product.ProductCatalogProperties;
+import com.athar.ecommerce.product.ProductResponse;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveProductRepository {
+
+    private static final String SELECT_PRODUCT_RESPONSE = """
+            SELECT p.id, p.name, p.description, p.price, p.available_quantity,
+                   c.id AS category_id, c.name AS category_name, c.description AS category_description
+              FROM product p
+              LEFT JOIN category c ON c.id = p.category_id
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final ProductCatalogProperties properties;
+
+    public Mono<ProductResponse> findById(int productId) {
+        return databaseClient.sql(SELECT_PRODUCT_RESPONSE + " WHERE p.id = :id")
+                .bind("id", productId)
+                .map(ReactiveProductRepository::toProductResponse)
+                .one();
+    }
+
+    public Flux<ProductResponse> findAllById(Collection<Integer> productIds) {
+        return databaseClient.sql(SELECT_PRODUCT_RESPONSE + " WHERE p.id IN (:ids) ORDER BY p.id")
+                .bind("ids", productIds)
+                .map(ReactiveProductRepository::toProductResponse)
+                .all();
+    }
+
+    public Flux<ProductResponse> findPageAfter(int afterId, int limit) {
+        return databaseClient.sql(SELECT_PRODUCT_RESPONSE + " WHERE p.id > :afterId ORDER BY p.id LIMIT :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveProductRepository::toProductResponse)
+                .all();
+    }
+
+    /**
+     * Streams the whole catalog. Rows are fetched {@code product.catalog.fetch-size} at a time and
+     * only as fast as the subscriber requests them, so a slow client holds a cursor, not the table.
+     */
+    public Flux<ProductResponse> findAll() {
+        return databaseClient.sql(SELECT_PRODUCT_RESPONSE + " ORDER BY p.id")
+                .filter(statement -> statement.fetchSize(properties.fetchSize()))
+                .map(ReactiveProductRepository::toProductResponse)
+                .all();
+    }
+
+    private static ProductResponse toProductResponse(Readable row) {
+        return new ProductResponse(
+                row.get("id", Integer.class),
+                row.get("name", String.class),
+                row.get("description", String.class),
+                row.get("price", BigDecimal.class),
+                row.get("available_quantity", Double.class),
+                row.get("category_id", Integer.class),
+                row.get("category_name", String.class),
+                row.get("category_description", String.class));
+    }
+}
@@ -0,0 +1,61 @@
+package com.athar.ecommerce.product.reactive;
+
+import com.athar.ecommerce.inventory.LedgerStockOverlay;
+import com.athar.ecommerce.product.ProductBatchResponse;
+import com.athar.ecommerce.product.ProductResponse;
+import com.athar.ecommerce.topk.TopProductTracker;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static java.lang.String.format;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveProductService {
+
+    private final ReactiveProductRepository productRepository;
+    private final LedgerStockOverlay ledgerStock;
+    private final TopProductTracker topProductTracker;
+
+    public Mono<ProductResponse> findById(int productId) {
+        topProductTracker.record(productId);
+        return productRepository.findById(productId)
+                .map(ledgerStock::apply)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(
+                        format("product with id %s not found", productId)
+                )));
+    }
+
+    public Flux<ProductResponse> findAll() {
+        return productRepository.findAll().map(ledgerStock::apply);
+    }
+
+    public Flux<ProductResponse> findPage(int afterId, int limit) {
+        return productRepository.findPageAfter(afterId, limit).map(ledgerStock::apply);
+    }
+
+    /**
+     * Looks up every id with one query. Products come back in the order they were asked for, each
+     * once, and ids without a product are listed separately.
+     */
+    public Mono<ProductBatchResponse> findAllById(List<Integer> productIds) {
+        var ids = List.copyOf(new LinkedHashSet<>(productIds));
+        if (ids.isEmpty()) {
+            return Mono.just(new ProductBatchResponse(List.of(), List.of()));
+        }
+        return productRepository.findAllById(ids)
+                .map(ledgerStock::apply)
+                .collectMap(ProductResponse::id)
+                .map(found -> new ProductBatchResponse(
+                        ids.stream().filter(found::containsKey).map(found::get).toList(),
+                        ids.stream().filter(id -> !found.containsKey(id)).toList()));
+    }
+}
@@ -0,0 +1,8 @@
+package com.athar.ecommerce.reservation;
+
+import java.util.UUID;
+
+public record ReservationClosedEvent(
+        UUID reservationId
+) {
+}
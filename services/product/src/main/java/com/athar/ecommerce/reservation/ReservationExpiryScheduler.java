@@ -0,0 +1,179 @@
+package com.athar.ecommerce.reservation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Releases holds when they expire. Every hold taken by this instance is a timer in a
+ * {@link TimingWheel} keyed by wall-clock ticks, so releasing them on time never scans the
+ * reservation table; the table is read on startup to rebuild the wheel. Holds confirmed or released
+ * in time have their timers cancelled, and an expiry that loses the race to either is a no-op.
+ * <p>
+ * The wheel only knows the holds of its own instance, so holds taken by an instance that died and
+ * did not come back are picked up by a periodic sweep on every instance. It only looks at holds
+ * expired for longer than one sweep interval, leaving the owner's wheel to go first, and relies on
+ * the guarded release for the instances racing on the same row.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationExpiryScheduler implements SmartLifecycle {
+
+    private final ReservationProperties properties;
+    private final StockReservationRepository reservationRepository;
+    private final StockReservationService reservationService;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<UUID, TimingWheel.Timer<UUID>> timers = new HashMap<>();
+    private TimingWheel<UUID> wheel;
+    private volatile boolean running;
+    private Thread driver;
+
+    @Override
+    public void start() {
+        lock.lock();
+        try {
+            wheel = new TimingWheel<>(properties.wheelSize(), properties.wheelLevels(), currentTick());
+        } finally {
+            lock.unlock();
+        }
+        reservationRepository.findHeld(this::schedule);
+        log.info("Tracking expiry of {} held reservations", outstanding());
+
+        running = true;
+        driver = Thread.ofPlatform().name("reservation-expiry").start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            driver.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int outstanding() {
+        lock.lock();
+        try {
+            return wheel == null ? 0 : wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onReservationHeld(ReservationHeldEvent event) {
+        schedule(event.reservationId(), event.expiresAt());
+    }
+
+    @TransactionalEventListener
+    public void onReservationClosed(ReservationClosedEvent event) {
+        lock.lock();
+        try {
+            var timer = timers.remove(event.reservationId());
+            if (timer != null) {
+                wheel.cancel(timer);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.reservation.sweep-interval:30s}",
+            initialDelayString = "${product.reservation.sweep-interval:30s}")
+    public void sweep() {
+        try {
+            int swept = 0;
+            List<UUID> expired;
+            do {
+                expired = reservationRepository.findExpiredHeld(
+                        Instant.now().minus(properties.sweepInterval()), properties.sweepBatchSize());
+                for (var reservationId : expired) {
+                    if (reservationService.expire(reservationId)) {
+                        swept++;
+                    }
+                }
+            } while (expired.size() == properties.sweepBatchSize());
+            if (swept > 0) {
+                log.info("Released {} expired reservations no instance was tracking", swept);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not sweep expired reservations, retrying with the next run", e);
+        }
+    }
+
+    private void schedule(UUID reservationId, Instant expiresAt) {
+        lock.lock();
+        try {
+            if (wheel != null && !timers.containsKey(reservationId)) {
+                timers.put(reservationId, wheel.schedule(reservationId, tickOf(expiresAt)));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        var tickMillis = properties.tick().toMillis();
+        while (running) {
+            try {
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            List<UUID> expired;
+            lock.lock();
+            try {
+                expired = wheel.advanceTo(currentTick());
+                expired.forEach(timers::remove);
+            } finally {
+                lock.unlock();
+            }
+            expired.forEach(this::expire);
+        }
+    }
+
+    private void expire(UUID reservationId) {
+        try {
+            reservationService.expire(reservationId);
+        } catch (RuntimeException e) {
+            log.warn("Could not release expired reservation {}, retrying in {}",
+                    reservationId, properties.retryDelay(), e);
+            schedule(reservationId, Instant.now().plus(properties.retryDelay()));
+        }
+    }
+
+    private long currentTick() {
+        return Math.floorDiv(System.currentTimeMillis(), properties.tick().toMillis());
+    }
+
+    /**
+     * Rounds up, so a hold is never released before its {@code expires_at}.
+     */
+    private long tickOf(Instant expiresAt) {
+        return Math.ceilDiv(expiresAt.toEpochMilli(), properties.tick().toMillis());
+    }
+}
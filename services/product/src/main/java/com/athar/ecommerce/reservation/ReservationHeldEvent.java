@@ -0,0 +1,10 @@
+package com.athar.ecommerce.reservation;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ReservationHeldEvent(
+        UUID reservationId,
+        Instant expiresAt
+) {
+}
@@ -0,0 +1,27 @@
+package com.athar.ecommerce.reservation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "product.reservation")
+public record ReservationProperties(
+        @DefaultValue("15m")
+        Duration defaultTtl,
+        @DefaultValue("2h")
+        Duration maxTtl,
+        @DefaultValue("100ms")
+        Duration tick,
+        @DefaultValue("512")
+        int wheelSize,
+        @DefaultValue("4")
+        int wheelLevels,
+        @DefaultValue("5s")
+        Duration retryDelay,
+        @DefaultValue("30s")
+        Duration sweepInterval,
+        @DefaultValue("500")
+        int sweepBatchSize
+) {
+}
@@ -0,0 +1,8 @@
+package com.athar.ecommerce.reservation;
+
+public enum ReservationStatus {
+    HELD,
+    CONFIRMED,
+    RELEASED,
+    EXPIRED
+}
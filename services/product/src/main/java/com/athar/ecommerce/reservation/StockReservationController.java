@@ -0,0 +1,41 @@
+package com.athar.ecommerce.reservation;
+
+import com.athar.ecommerce.product.ProductPurchaseResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/v1/reservations")
+@RequiredArgsConstructor
+public class StockReservationController {
+
+    private final StockReservationService reservationService;
+
+    @PostMapping
+    public ResponseEntity<StockReservationResponse> hold(@RequestBody @Valid StockReservationRequest request) {
+        return ResponseEntity.ok(reservationService.hold(request));
+    }
+
+    @GetMapping("/{reservation_id}")
+    public ResponseEntity<StockReservationResponse> findById(@PathVariable("reservation_id") UUID reservationId) {
+        return ResponseEntity.ok(reservationService.findById(reservationId));
+    }
+
+    @PostMapping("/{reservation_id}/confirm")
+    public ResponseEntity<List<ProductPurchaseResponse>> confirm(@PathVariable("reservation_id") UUID reservationId) {
+        return ResponseEntity.ok(reservationService.confirm(reservationId));
+    }
+
+    @PostMapping("/{reservation_id}/release")
+    public ResponseEntity<Void> release(@PathVariable("reservation_id") UUID reservationId) {
+        reservationService.release(reservationId);
+        return ResponseEntity.accepted().build();
+    }
+}
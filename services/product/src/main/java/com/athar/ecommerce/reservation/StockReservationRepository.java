@@ -0,0 +1,133 @@
+package com.athar.ecommerce.reservation;
+
+import com.athar.ecommerce.product.ProductPurchaseRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+@Repository
+@RequiredArgsConstructor
+public class StockReservationRepository {
+
+    private static final String INSERT_RESERVATION = """
+            INSERT INTO stock_reservation (id, status, expires_at)
+            VALUES (:id, :status, :expiresAt)
+            """;
+
+    private static final String INSERT_LINE = """
+            INSERT INTO stock_reservation_line (reservation_id, product_id, quantity)
+            VALUES (:reservationId, :productId, :quantity)
+            """;
+
+    private static final String CLOSE_RESERVATION = """
+            UPDATE stock_reservation
+               SET status = :status
+             WHERE id = :id
+               AND status = 'HELD'
+               AND expires_at > :notExpiredAt
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void insert(UUID reservationId, Instant expiresAt, List<ProductPurchaseRequest> lines) {
+        jdbcTemplate.update(INSERT_RESERVATION, new MapSqlParameterSource()
+                .addValue("id", reservationId)
+                .addValue("status", ReservationStatus.HELD.name())
+                .addValue("expiresAt", Timestamp.from(expiresAt)));
+        jdbcTemplate.batchUpdate(INSERT_LINE, lines.stream()
+                .map(line -> new MapSqlParameterSource()
+                        .addValue("reservationId", reservationId)
+                        .addValue("productId", line.productId())
+                        .addValue("quantity", line.quantity()))
+                .toArray(MapSqlParameterSource[]::new));
+    }
+
+    /**
+     * Confirms a held reservation that has not expired by {@code now}. Confirmations, releases and
+     * expiries all race on the same guarded update, so exactly one of them wins.
+     *
+     * @return {@code false} when the reservation is unknown, no longer held or expired
+     */
+    public boolean confirm(UUID reservationId, Instant now) {
+        return close(reservationId, ReservationStatus.CONFIRMED, now);
+    }
+
+    /**
+     * Moves a held reservation to {@code status} whether or not it has expired yet.
+     *
+     * @return {@code false} when the reservation is unknown or no longer held
+     */
+    public boolean close(UUID reservationId, ReservationStatus status) {
+        return close(reservationId, status, Instant.EPOCH);
+    }
+
+    private boolean close(UUID reservationId, ReservationStatus status, Instant notExpiredAt) {
+        return jdbcTemplate.update(CLOSE_RESERVATION, new MapSqlParameterSource()
+                .addValue("id", reservationId)
+                .addValue("status", status.name())
+                .addValue("notExpiredAt", Timestamp.from(notExpiredAt))) == 1;
+    }
+
+    public Optional<StockReservationResponse> findById(UUID reservationId) {
+        var reservations = jdbcTemplate.query(
+                "SELECT status, expires_at FROM stock_reservation WHERE id = :id",
+                new MapSqlParameterSource("id", reservationId),
+                (rs, rowNum) -> new StockReservationResponse(
+                        reservationId,
+                        ReservationStatus.valueOf(rs.getString("status")),
+                        rs.getTimestamp("expires_at").toInstant(),
+                        List.of()));
+        return reservations.stream()
+                .findFirst()
+                .map(reservation -> new StockReservationResponse(reservation.id(), reservation.status(),
+                        reservation.expiresAt(), findLines(reservationId)));
+    }
+
+    public List<ProductPurchaseRequest> findLines(UUID reservationId) {
+        return jdbcTemplate.query("""
+                        SELECT product_id, quantity
+                          FROM stock_reservation_line
+                         WHERE reservation_id = :id
+                         ORDER BY product_id
+                        """,
+                new MapSqlParameterSource("id", reservationId),
+                (rs, rowNum) -> new ProductPurchaseRequest(rs.getInt("product_id"), rs.getDouble("quantity")));
+    }
+
+    /**
+     * Finds up to {@code limit} reservations still held that expired at or before {@code expiredBy},
+     * oldest first, whichever instance took them.
+     */
+    public List<UUID> findExpiredHeld(Instant expiredBy, int limit) {
+        return jdbcTemplate.queryForList("""
+                        SELECT id
+                          FROM stock_reservation
+                         WHERE status = 'HELD'
+                           AND expires_at <= :expiredBy
+                         ORDER BY expires_at
+                         LIMIT :limit
+                        """,
+                new MapSqlParameterSource()
+                        .addValue("expiredBy", Timestamp.from(expiredBy))
+                        .addValue("limit", limit),
+                UUID.class);
+    }
+
+    /**
+     * Streams every reservation still held, for rebuilding the expiry schedule on startup.
+     */
+    public void findHeld(BiConsumer<UUID, Instant> consumer) {
+        jdbcTemplate.query("SELECT id, expires_at FROM stock_reservation WHERE status = 'HELD'",
+                rs -> {
+                    consumer.accept(rs.getObject("id", UUID.class), rs.getTimestamp("expires_at").toInstant());
+                });
+    }
+}
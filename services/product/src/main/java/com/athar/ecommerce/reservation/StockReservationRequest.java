@@ -0,0 +1,15 @@
+package com.athar.ecommerce.reservation;
+
+import com.athar.ecommerce.product.ProductPurchaseRequest;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.time.Duration;
+import java.util.List;
+
+public record StockReservationRequest(
+        @NotEmpty(message = "At least one product is required")
+        List<@Valid ProductPurchaseRequest> products,
+        Duration ttl
+) {
+}
@@ -0,0 +1,15 @@
+package com.athar.ecommerce.reservation;
+
+import com.athar.ecommerce.product.ProductPurchaseRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record StockReservationResponse(
+        UUID id,
+        ReservationStatus status,
+        Instant expiresAt,
+        List<ProductPurchaseRequest> products
+) {
+}
@@ -0,0 +1,198 @@
+package com.athar.ecommerce.reservation;
+
+import com.athar.ecommerce.exception.ProductPurchaseException;
+import com.athar.ecommerce.inventory.HotInventoryLedger;
+import com.athar.ecommerce.product.ProductChangedEvent;
+import com.athar.ecommerce.product.ProductMapper;
+import com.athar.ecommerce.product.ProductPurchaseRequest;
+import com.athar.ecommerce.product.ProductPurchaseResponse;
+import com.athar.ecommerce.product.ProductRepository;
+import com.athar.ecommerce.product.ProductResponse;
+import com.athar.ecommerce.product.ProductService;
+import com.athar.ecommerce.product.ProductStockRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * Time-bounded holds on stock. A hold moves the quantities from {@code available_quantity} to
+ * {@code reserved_quantity} right away, so {@code available_quantity} stays the available-to-sell
+ * figure every read and purchase already uses; confirming drops the reserved quantities for good,
+ * releasing or expiring moves them back. Products served from the inventory ledger are held against
+ * their ledger cells instead.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductStockRepository productStockRepository;
+    private final ProductRepository productRepository;
+    private final ProductMapper mapper;
+    private final HotInventoryLedger inventoryLedger;
+    private final ReservationProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public StockReservationResponse hold(StockReservationRequest request) {
+        var ttl = ttlOf(request);
+        var lines = ProductService.mergeLines(request.products());
+        var hotLines = lines.stream()
+                .filter(line -> inventoryLedger.isHot(line.productId()))
+                .toList();
+        var databaseLines = lines.stream()
+                .filter(line -> !inventoryLedger.isHot(line.productId()))
+                .toList();
+
+        var rejectedProductIds = new HashSet<Integer>();
+        if (!hotLines.isEmpty()) {
+            var reservation = inventoryLedger.reserve(hotLines);
+            rejectedProductIds.addAll(reservation.rejectedProductIds());
+            inventoryLedger.confirmOnCommit(reservation);
+            productStockRepository.addReserved(hotLines);
+        }
+        if (!databaseLines.isEmpty()) {
+            var updateCounts = productStockRepository.holdStock(databaseLines);
+            for (int i = 0; i < databaseLines.size(); i++) {
+                if (updateCounts[i] == 0) {
+                    rejectedProductIds.add(databaseLines.get(i).productId());
+                }
+            }
+        }
+        if (!rejectedProductIds.isEmpty()) {
+            throw rejected(lines, rejectedProductIds);
+        }
+
+        var reservationId = UUID.randomUUID();
+        var expiresAt = Instant.now().plus(ttl);
+        reservationRepository.insert(reservationId, expiresAt, lines);
+
+        eventPublisher.publishEvent(new ProductChangedEvent(productIds(lines)));
+        eventPublisher.publishEvent(new ReservationHeldEvent(reservationId, expiresAt));
+        return new StockReservationResponse(reservationId, ReservationStatus.HELD, expiresAt, lines);
+    }
+
+    @Transactional
+    public List<ProductPurchaseResponse> confirm(UUID reservationId) {
+        if (!reservationRepository.confirm(reservationId, Instant.now())) {
+            throw notHeld(reservationId);
+        }
+        var lines = reservationRepository.findLines(reservationId);
+        productStockRepository.removeReserved(lines);
+        eventPublisher.publishEvent(new ReservationClosedEvent(reservationId));
+
+        var products = productRepository.findAllByIdInOrderById(productIds(lines)).stream()
+                .collect(Collectors.toMap(ProductResponse::id, Function.identity()));
+        return lines.stream()
+                .filter(line -> products.containsKey(line.productId()))
+                .map(line -> mapper.toProductPurchaseResponse(products.get(line.productId()), line.quantity()))
+                .toList();
+    }
+
+    @Transactional
+    public void release(UUID reservationId) {
+        if (!returnStock(reservationId, ReservationStatus.RELEASED)) {
+            throw notHeld(reservationId);
+        }
+    }
+
+    /**
+     * @return {@code false} when the reservation was confirmed or released in the meantime
+     */
+    @Transactional
+    public boolean expire(UUID reservationId) {
+        return returnStock(reservationId, ReservationStatus.EXPIRED);
+    }
+
+    public StockReservationResponse findById(UUID reservationId) {
+        return reservationRepository.findById(reservationId)
+                .orElseThrow(() -> notFound(reservationId));
+    }
+
+    private boolean returnStock(UUID reservationId, ReservationStatus status) {
+        if (!reservationRepository.close(reservationId, status)) {
+            return false;
+        }
+        var lines = reservationRepository.findLines(reservationId);
+        var hotLines = lines.stream()
+                .filter(line -> inventoryLedger.isHot(line.productId()))
+                .toList();
+        var databaseLines = lines.stream()
+                .filter(line -> !inventoryLedger.isHot(line.productId()))
+                .toList();
+        if (!hotLines.isEmpty()) {
+            productStockRepository.removeReserved(hotLines);
+            inventoryLedger.restockOnCommit(hotLines);
+        }
+        if (!databaseLines.isEmpty()) {
+            productStockRepository.returnStock(databaseLines);
+        }
+
+        eventPublisher.publishEvent(new ProductChangedEvent(productIds(lines)));
+        eventPublisher.publishEvent(new ReservationClosedEvent(reservationId));
+        return true;
+    }
+
+    private Duration ttlOf(StockReservationRequest request) {
+        if (request.ttl() == null) {
+            return properties.defaultTtl();
+        }
+        var ttl = request.ttl();
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(properties.maxTtl()) > 0) {
+            throw new ProductPurchaseException(
+                    format("Reservation TTL must be positive and at most %s", properties.maxTtl()));
+        }
+        return ttl;
+    }
+
+    private ProductPurchaseException rejected(List<ProductPurchaseRequest> lines, Set<Integer> rejectedProductIds) {
+        var existing = productRepository.findAllByIdInOrderById(List.copyOf(rejectedProductIds)).stream()
+                .map(ProductResponse::id)
+                .collect(Collectors.toSet());
+        var failures = new LinkedHashMap<String, String>();
+        for (var line : lines) {
+            if (!rejectedProductIds.contains(line.productId())) {
+                continue;
+            }
+            failures.put(ProductService.productKey(line.productId()), existing.contains(line.productId())
+                    ? format("Not enough stock for product ID %d", line.productId())
+                    : "Product does not exist");
+        }
+        return new ProductPurchaseException("One or more products could not be reserved!", failures);
+    }
+
+    private RuntimeException notHeld(UUID reservationId) {
+        var reservation = reservationRepository.findById(reservationId);
+        if (reservation.isEmpty()) {
+            return notFound(reservationId);
+        }
+        var status = reservation.get().status();
+        return new ProductPurchaseException(status == ReservationStatus.HELD
+                ? format("Reservation %s has expired", reservationId)
+                : format("Reservation %s is already %s", reservationId, status.name().toLowerCase()));
+    }
+
+    private static EntityNotFoundException notFound(UUID reservationId) {
+        return new EntityNotFoundException(format("reservation with id %s not found", reservationId));
+    }
+
+    private static List<Integer> productIds(List<ProductPurchaseRequest> lines) {
+        return lines.stream()
+                .map(ProductPurchaseRequest::productId)
+                .toList();
+    }
+}
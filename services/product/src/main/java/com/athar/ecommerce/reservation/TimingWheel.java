@@ -0,0 +1,189 @@
+package com.athar.ecommerce.reservation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel in the style of the Linux kernel timers. Level {@code 0} has one slot
+ * per tick, every level above covers {@code wheelSize} times the span of the one below, and a timer
+ * lives in the lowest level whose span reaches its deadline. Scheduling and cancelling are O(1);
+ * advancing costs one slot per tick plus the timers that cascade down a level, so the cost does not
+ * grow with the number of outstanding timers.
+ * <p>
+ * Time is measured in ticks chosen by the caller. Not thread-safe.
+ */
+public final class TimingWheel<T> {
+
+    private final int bits;
+    private final int mask;
+    private final Slot<T>[][] levels;
+    private final Slot<T> due = new Slot<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int wheelSize, int levelCount, long startTick) {
+        if (Integer.bitCount(wheelSize) != 1 || wheelSize < 2) {
+            throw new IllegalArgumentException("Wheel size must be a power of two, got " + wheelSize);
+        }
+        if (levelCount < 1 || Integer.numberOfTrailingZeros(wheelSize) * levelCount > 62) {
+            throw new IllegalArgumentException("Unsupported number of levels " + levelCount);
+        }
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.levels = new Slot[levelCount][wheelSize];
+        for (var level : levels) {
+            for (int i = 0; i < wheelSize; i++) {
+                level[i] = new Slot<>();
+            }
+        }
+        this.currentTick = startTick;
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Deadlines at or before the current tick are handed out by the next {@link #advanceTo}.
+     */
+    public Timer<T> schedule(T item, long deadlineTick) {
+        var timer = new Timer<>(item, deadlineTick);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * @return {@code false} when the timer already fired or was cancelled before
+     */
+    public boolean cancel(Timer<T> timer) {
+        if (timer.slot == null) {
+            return false;
+        }
+        timer.slot.remove(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel to {@code tick} and returns the items of every timer that came due on the way,
+     * in tick order.
+     */
+    public List<T> advanceTo(long tick) {
+        var expired = new ArrayList<T>();
+        drain(due, expired);
+        while (currentTick < tick) {
+            currentTick++;
+            cascade(1);
+            drain(due, expired);
+            drain(levels[0][(int) (currentTick & mask)], expired);
+        }
+        return expired;
+    }
+
+    private void cascade(int level) {
+        if (level >= levels.length || (currentTick & ((1L << (level * bits)) - 1)) != 0) {
+            return;
+        }
+        cascade(level + 1);
+        var slot = levels[level][(int) ((currentTick >>> (level * bits)) & mask)];
+        for (var timer = slot.detachAll(); timer != null; ) {
+            var next = timer.next;
+            timer.next = null;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        var delta = timer.deadline - currentTick;
+        if (delta <= 0) {
+            due.add(timer);
+            return;
+        }
+        var level = 0;
+        while (level < levels.length - 1 && delta >= 1L << ((level + 1) * bits)) {
+            level++;
+        }
+        levels[level][(int) ((timer.deadline >>> (level * bits)) & mask)].add(timer);
+    }
+
+    private void drain(Slot<T> slot, List<T> expired) {
+        for (var timer = slot.detachAll(); timer != null; ) {
+            var next = timer.next;
+            timer.next = null;
+            expired.add(timer.item);
+            size--;
+            timer = next;
+        }
+    }
+
+    public static final class Timer<T> {
+
+        private final T item;
+        private final long deadline;
+        private Slot<T> slot;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+
+        public T item() {
+            return item;
+        }
+
+        public long deadline() {
+            return deadline;
+        }
+    }
+
+    private static final class Slot<T> {
+
+        private Timer<T> head;
+
+        void add(Timer<T> timer) {
+            timer.slot = this;
+            timer.prev = null;
+            timer.next = head;
+            if (head != null) {
+                head.prev = timer;
+            }
+            head = timer;
+        }
+
+        void remove(Timer<T> timer) {
+            if (timer.prev == null) {
+                head = timer.next;
+            } else {
+                timer.prev.next = timer.next;
+            }
+            if (timer.next != null) {
+                timer.next.prev = timer.prev;
+            }
+            timer.slot = null;
+            timer.prev = null;
+            timer.next = null;
+        }
+
+        /**
+         * Empties the slot and returns its timers as a chain linked through {@code next}.
+         */
+        Timer<T> detachAll() {
+            var first = head;
+            head = null;
+            for (var timer = first; timer != null; timer = timer.next) {
+                timer.slot = null;
+                timer.prev = null;
+            }
+            return first;
+        }
+    }
+}
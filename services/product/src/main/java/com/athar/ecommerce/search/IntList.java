@@ -0,0 +1,57 @@
+package com.athar.ecommerce.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, duplicate-free list of document ids backed by a primitive array.
+ */
+class IntList {
+
+    private int[] values = new int[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    boolean contains(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    void add(int value) {
+        if (size > 0 && values[size - 1] >= value) {
+            var index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                return;
+            }
+            insertAt(-index - 1, value);
+            return;
+        }
+        insertAt(size, value);
+    }
+
+    void remove(int value) {
+        var index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+        }
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private void insertAt(int index, int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+    }
+}
@@ -0,0 +1,10 @@
+package com.athar.ecommerce.search;
+
+import java.math.BigDecimal;
+
+public record PriceFacet(
+        BigDecimal from,
+        BigDecimal to,
+        long count
+) {
+}
@@ -0,0 +1,427 @@
+package com.athar.ecommerce.search;
+
+import com.athar.ecommerce.datasource.ReadYourWrites;
+import com.athar.ecommerce.product.ProductCatalogRepository;
+import com.athar.ecommerce.product.ProductChangedEvent;
+import com.athar.ecommerce.product.ProductRepository;
+import com.athar.ecommerce.product.ProductResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory inverted index over product names and descriptions, with posting lists per category and
+ * a price-sorted index for range filters. Products get dense document ids in the order they are
+ * indexed, which is product id order for the initial build.
+ * <p>
+ * Facet counts for the whole catalog and per category are kept up to date on every upsert, so
+ * browsing without text or price filters only touches the requested page. The price index is built
+ * with the catalog and, after a change, rebuilt by the first price-filtered search while the others
+ * wait for it instead of each sorting the catalog again.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex implements SmartInitializingSingleton {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final long NO_PRICE = Long.MIN_VALUE;
+    private static final long[] PRICE_FACET_BOUNDS = {0, 25_00, 50_00, 100_00, 250_00, 500_00, 1000_00};
+
+    private final ProductCatalogRepository productCatalogRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Integer> documentIds = new HashMap<>();
+    private final NavigableMap<String, IntList> termPostings = new TreeMap<>();
+    private final Map<Integer, IntList> categoryPostings = new HashMap<>();
+    private ProductResponse[] documents = new ProductResponse[1024];
+    private long[] prices = new long[1024];
+    private final long[] priceFacetCounts = new long[PRICE_FACET_BOUNDS.length];
+    private final Map<Integer, long[]> categoryPriceFacetCounts = new HashMap<>();
+    private final ReentrantLock priceIndexBuild = new ReentrantLock();
+    private int size;
+    private volatile PriceIndex priceIndex;
+
+    public ProductSearchIndex(ProductCatalogRepository productCatalogRepository,
+                              ProductRepository productRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.productCatalogRepository = productCatalogRepository;
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        lock.writeLock().lock();
+        try {
+            ReadYourWrites.onWriter(() -> readOnlyTransaction.execute(status -> {
+                productCatalogRepository.streamAll(this::upsert);
+                return null;
+            }));
+            priceIndex = buildPriceIndex();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} products for search", size);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        var products = ReadYourWrites.onWriter(() -> productRepository.findAllByIdInOrderById(event.productIds()));
+        lock.writeLock().lock();
+        try {
+            products.forEach(this::upsert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ProductSearchResponse search(ProductSearchQuery query) {
+        lock.readLock().lock();
+        try {
+            var tokens = tokenize(query.text());
+            var priceFiltered = query.minPrice() != null || query.maxPrice() != null;
+            if (tokens.isEmpty() && !priceFiltered) {
+                return browse(query);
+            }
+
+            var minPrice = query.minPrice() == null ? NO_PRICE + 1 : toCents(query.minPrice(), RoundingMode.CEILING);
+            var maxPrice = query.maxPrice() == null ? Long.MAX_VALUE : toCents(query.maxPrice(), RoundingMode.FLOOR);
+            int[] candidates;
+            var priceApplied = false;
+            if (!tokens.isEmpty()) {
+                candidates = textMatches(tokens, query.categoryId());
+            } else if (query.categoryId() != null) {
+                var posting = categoryPostings.get(query.categoryId());
+                candidates = posting == null ? new int[0] : posting.toArray();
+            } else {
+                candidates = priceIndex().range(minPrice, maxPrice);
+                priceApplied = true;
+            }
+
+            var offset = (long) query.page() * query.size();
+            var content = new ArrayList<ProductResponse>(query.size());
+            var categoryFacets = new TreeMap<Integer, Long>();
+            var priceFacetCounts = new long[PRICE_FACET_BOUNDS.length];
+            long totalHits = 0;
+
+            for (var document : candidates) {
+                var price = prices[document];
+                if (!priceApplied && priceFiltered && (price < minPrice || price > maxPrice)) {
+                    continue;
+                }
+                var product = documents[document];
+
+                if (totalHits >= offset && content.size() < query.size()) {
+                    content.add(product);
+                }
+                totalHits++;
+                if (product.categoryId() != null) {
+                    categoryFacets.merge(product.categoryId(), 1L, Long::sum);
+                }
+                if (price != NO_PRICE) {
+                    priceFacetCounts[priceFacet(price)]++;
+                }
+            }
+
+            return new ProductSearchResponse(content, totalHits, query.page(), query.size(),
+                    categoryFacets, toPriceFacets(priceFacetCounts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Without text or price filters the hits are the whole catalog or one category's posting list,
+     * in document order, and the facets are the running counts.
+     */
+    private ProductSearchResponse browse(ProductSearchQuery query) {
+        var offset = (long) query.page() * query.size();
+        var content = new ArrayList<ProductResponse>(query.size());
+        var categoryFacets = new TreeMap<Integer, Long>();
+        if (query.categoryId() == null) {
+            for (var document = offset; document < size && content.size() < query.size(); document++) {
+                content.add(documents[(int) document]);
+            }
+            categoryPostings.forEach((categoryId, posting) -> {
+                if (posting.size() > 0) {
+                    categoryFacets.put(categoryId, (long) posting.size());
+                }
+            });
+            return new ProductSearchResponse(content, size, query.page(), query.size(),
+                    categoryFacets, toPriceFacets(priceFacetCounts));
+        }
+
+        var posting = categoryPostings.get(query.categoryId());
+        var totalHits = posting == null ? 0 : posting.size();
+        for (var i = offset; i < totalHits && content.size() < query.size(); i++) {
+            content.add(documents[posting.get((int) i)]);
+        }
+        if (totalHits > 0) {
+            categoryFacets.put(query.categoryId(), (long) totalHits);
+        }
+        var priceCounts = categoryPriceFacetCounts.get(query.categoryId());
+        return new ProductSearchResponse(content, totalHits, query.page(), query.size(), categoryFacets,
+                toPriceFacets(priceCounts == null ? new long[PRICE_FACET_BOUNDS.length] : priceCounts));
+    }
+
+    private void upsert(ProductResponse product) {
+        var document = documentIds.get(product.id());
+        if (document == null) {
+            document = size++;
+            ensureCapacity(size);
+            documentIds.put(product.id(), document);
+            index(document, product);
+            priceIndex = null;
+            return;
+        }
+
+        var previous = documents[document];
+        if (Objects.equals(previous.name(), product.name())
+                && Objects.equals(previous.description(), product.description())
+                && Objects.equals(previous.categoryId(), product.categoryId())
+                && Objects.equals(previous.price(), product.price())) {
+            documents[document] = product;
+            return;
+        }
+        unindex(document, previous);
+        index(document, product);
+        priceIndex = null;
+    }
+
+    private void index(int document, ProductResponse product) {
+        documents[document] = product;
+        prices[document] = product.price() == null ? NO_PRICE : toCents(product.price(), RoundingMode.HALF_UP);
+        countPrice(document, product, 1);
+        for (var token : terms(product)) {
+            termPostings.computeIfAbsent(token, t -> new IntList()).add(document);
+        }
+        if (product.categoryId() != null) {
+            categoryPostings.computeIfAbsent(product.categoryId(), c -> new IntList()).add(document);
+        }
+    }
+
+    private void unindex(int document, ProductResponse product) {
+        countPrice(document, product, -1);
+        for (var token : terms(product)) {
+            var posting = termPostings.get(token);
+            posting.remove(document);
+            if (posting.size() == 0) {
+                termPostings.remove(token);
+            }
+        }
+        if (product.categoryId() != null) {
+            categoryPostings.get(product.categoryId()).remove(document);
+        }
+    }
+
+    private void countPrice(int document, ProductResponse product, int delta) {
+        var price = prices[document];
+        if (price == NO_PRICE) {
+            return;
+        }
+        var facet = priceFacet(price);
+        priceFacetCounts[facet] += delta;
+        if (product.categoryId() != null) {
+            categoryPriceFacetCounts.computeIfAbsent(product.categoryId(),
+                    c -> new long[PRICE_FACET_BOUNDS.length])[facet] += delta;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > documents.length) {
+            var length = Math.max(capacity, documents.length * 2);
+            documents = Arrays.copyOf(documents, length);
+            prices = Arrays.copyOf(prices, length);
+        }
+    }
+
+    /**
+     * Documents matching every token by prefix and, if given, in the category. Tokens that match a
+     * single term, and the category, are posting lists that may span most of the catalog, so they
+     * are probed in place rather than copied; only the smallest of everything is materialized.
+     */
+    private int[] textMatches(Set<String> tokens, Integer categoryId) {
+        var unions = new ArrayList<int[]>();
+        var postings = new ArrayList<IntList>();
+        for (var token : tokens) {
+            var termMatches = termPostings.subMap(token, true, token + Character.MAX_VALUE, false).values();
+            if (termMatches.size() == 1) {
+                postings.add(termMatches.iterator().next());
+            } else {
+                unions.add(union(termMatches));
+            }
+        }
+        if (categoryId != null) {
+            var posting = categoryPostings.get(categoryId);
+            if (posting == null) {
+                return new int[0];
+            }
+            postings.add(posting);
+        }
+        unions.sort(Comparator.comparingInt(union -> union.length));
+        postings.sort(Comparator.comparingInt(IntList::size));
+
+        int[] candidates;
+        if (!unions.isEmpty() && (postings.isEmpty() || unions.getFirst().length <= postings.getFirst().size())) {
+            candidates = unions.removeFirst();
+        } else {
+            candidates = postings.removeFirst().toArray();
+        }
+        for (var union : unions) {
+            candidates = intersect(candidates, union);
+        }
+        for (var posting : postings) {
+            candidates = retain(candidates, posting);
+        }
+        return candidates;
+    }
+
+    private int[] union(Collection<IntList> postings) {
+        var union = new BitSet(size);
+        for (var posting : postings) {
+            for (int i = 0; i < posting.size(); i++) {
+                union.set(posting.get(i));
+            }
+        }
+        return union.stream().toArray();
+    }
+
+    private static int[] retain(int[] candidates, IntList posting) {
+        int kept = 0;
+        for (var document : candidates) {
+            if (posting.contains(document)) {
+                candidates[kept++] = document;
+            }
+        }
+        return kept == candidates.length ? candidates : Arrays.copyOf(candidates, kept);
+    }
+
+    private static int[] intersect(int[] left, int[] right) {
+        var result = new int[Math.min(left.length, right.length)];
+        int i = 0, j = 0, k = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[k++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    /**
+     * Runs under the read lock, so the documents cannot change while the index is rebuilt.
+     */
+    private PriceIndex priceIndex() {
+        var index = priceIndex;
+        if (index != null) {
+            return index;
+        }
+        priceIndexBuild.lock();
+        try {
+            index = priceIndex;
+            if (index == null) {
+                index = buildPriceIndex();
+                priceIndex = index;
+            }
+            return index;
+        } finally {
+            priceIndexBuild.unlock();
+        }
+    }
+
+    private PriceIndex buildPriceIndex() {
+        var sortedDocuments = IntStream.range(0, size)
+                .filter(document -> prices[document] != NO_PRICE)
+                .boxed()
+                .sorted(Comparator.comparingLong(document -> prices[document]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        var sortedPrices = Arrays.stream(sortedDocuments).mapToLong(document -> prices[document]).toArray();
+        return new PriceIndex(sortedPrices, sortedDocuments);
+    }
+
+    private static int priceFacet(long price) {
+        for (int i = PRICE_FACET_BOUNDS.length - 1; i > 0; i--) {
+            if (price >= PRICE_FACET_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static List<PriceFacet> toPriceFacets(long[] counts) {
+        var facets = new ArrayList<PriceFacet>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            var from = BigDecimal.valueOf(PRICE_FACET_BOUNDS[i], 2);
+            var to = i + 1 < counts.length ? BigDecimal.valueOf(PRICE_FACET_BOUNDS[i + 1], 2) : null;
+            facets.add(new PriceFacet(from, to, counts[i]));
+        }
+        return facets;
+    }
+
+    private static long toCents(BigDecimal price, RoundingMode roundingMode) {
+        return price.setScale(2, roundingMode).unscaledValue().longValueExact();
+    }
+
+    private static Set<String> terms(ProductResponse product) {
+        var terms = new HashSet<>(tokenize(product.name()));
+        terms.addAll(tokenize(product.description()));
+        return terms;
+    }
+
+    static Set<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+        var tokens = new LinkedHashSet<String>();
+        for (var token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private record PriceIndex(long[] prices, int[] documents) {
+
+        int[] range(long minPrice, long maxPrice) {
+            var from = lowerBound(minPrice);
+            var to = maxPrice == Long.MAX_VALUE ? prices.length : lowerBound(maxPrice + 1);
+            var matches = Arrays.copyOfRange(documents, from, Math.max(from, to));
+            Arrays.sort(matches);
+            return matches;
+        }
+
+        private int lowerBound(long price) {
+            int low = 0, high = prices.length;
+            while (low < high) {
+                var middle = (low + high) >>> 1;
+                if (prices[middle] < price) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.athar.ecommerce.search;
+
+import java.math.BigDecimal;
+
+public record ProductSearchQuery(
+        String text,
+        Integer categoryId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        int page,
+        int size
+) {
+}
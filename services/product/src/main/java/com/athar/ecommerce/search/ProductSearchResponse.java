@@ -0,0 +1,16 @@
+package com.athar.ecommerce.search;
+
+import com.athar.ecommerce.product.ProductResponse;
+
+import java.util.List;
+import java.util.Map;
+
+public record ProductSearchResponse(
+        List<ProductResponse> content,
+        long totalHits,
+        int page,
+        int size,
+        Map<Integer, Long> categoryFacets,
+        List<PriceFacet> priceFacets
+) {
+}
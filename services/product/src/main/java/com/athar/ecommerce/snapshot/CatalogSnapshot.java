@@ -0,0 +1,98 @@
+package com.athar.ecommerce.snapshot;
+
+import com.athar.ecommerce.datasource.ReadYourWrites;
+import com.athar.ecommerce.inventory.HotInventoryLedger;
+import com.athar.ecommerce.product.ProductCatalogRepository;
+import com.athar.ecommerce.product.ProductChangedEvent;
+import com.athar.ecommerce.product.ProductRepository;
+import com.athar.ecommerce.product.ProductResponse;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+/**
+ * Serves full-catalog reads from a {@link ColumnarCatalog} instead of a cached
+ * {@code List<ProductResponse>}. Built once on startup and then kept current product by product
+ * from {@link ProductChangedEvent}s, always reading from the writer.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "product.catalog.snapshot.enabled", havingValue = "true")
+public class CatalogSnapshot implements SmartInitializingSingleton {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ColumnarCatalog catalog;
+    private final ProductCatalogRepository productCatalogRepository;
+    private final ProductRepository productRepository;
+    private final HotInventoryLedger inventoryLedger;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public CatalogSnapshot(CatalogSnapshotProperties properties,
+                           ProductCatalogRepository productCatalogRepository,
+                           ProductRepository productRepository,
+                           HotInventoryLedger inventoryLedger,
+                           ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager) {
+        this.catalog = new ColumnarCatalog(LOAD_BATCH_SIZE, (int) properties.arenaInitialSize().toBytes());
+        this.productCatalogRepository = productCatalogRepository;
+        this.productRepository = productRepository;
+        this.inventoryLedger = inventoryLedger;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        var batch = new ArrayList<ProductResponse>(LOAD_BATCH_SIZE);
+        ReadYourWrites.onWriter(() -> readOnlyTransaction.execute(status -> {
+            productCatalogRepository.streamAll(product -> {
+                batch.add(product);
+                if (batch.size() == LOAD_BATCH_SIZE) {
+                    catalog.upsertAll(batch);
+                    batch.clear();
+                }
+            });
+            return null;
+        }));
+        catalog.upsertAll(batch);
+        log.info("Loaded {} products into the catalog snapshot, {} KB on heap and {} KB off heap",
+                catalog.size(), catalog.heapBytes() / 1024, catalog.offHeapBytes() / 1024);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        catalog.upsertAll(ReadYourWrites.onWriter(() -> productRepository.findAllByIdInOrderById(event.productIds())));
+    }
+
+    /**
+     * The whole catalog as a JSON array body, with ledger stock for hot products.
+     */
+    public CatalogView view() {
+        return new CatalogView(catalog, inventoryLedger::quantityOf);
+    }
+
+    /**
+     * Writes the whole catalog as newline-delimited JSON, like the cursor-based stream does.
+     */
+    public void writeNdjson(OutputStream outputStream) throws IOException {
+        try (var generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            catalog.writeRows(generator, inventoryLedger::quantityOf);
+        }
+    }
+}
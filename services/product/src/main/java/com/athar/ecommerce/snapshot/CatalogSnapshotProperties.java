@@ -0,0 +1,14 @@
+package com.athar.ecommerce.snapshot;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "product.catalog.snapshot")
+public record CatalogSnapshotProperties(
+        @DefaultValue("false")
+        boolean enabled,
+        @DefaultValue("4MB")
+        DataSize arenaInitialSize
+) {
+}
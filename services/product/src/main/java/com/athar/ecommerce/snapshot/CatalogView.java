@@ -0,0 +1,33 @@
+package com.athar.ecommerce.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.OptionalDouble;
+import java.util.function.IntFunction;
+
+/**
+ * Response body for the full catalog, serialized by whichever Jackson converter the request
+ * negotiated as the same array a {@code List<ProductResponse>} would give.
+ */
+public record CatalogView(
+        ColumnarCatalog catalog,
+        IntFunction<OptionalDouble> quantityOverlay
+) implements JsonSerializable {
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        generator.writeStartArray();
+        catalog.writeRows(generator, quantityOverlay);
+        generator.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers,
+                                  TypeSerializer typeSerializer) throws IOException {
+        serialize(generator, serializers);
+    }
+}
@@ -0,0 +1,446 @@
+package com.athar.ecommerce.snapshot;
+
+import com.athar.ecommerce.product.ProductResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.core.json.WriterBasedJsonGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+/**
+ * The catalog as parallel primitive columns sorted by product id: quantities as {@code double},
+ * prices as an unscaled {@code long} plus a scale, categories as an index into a small dictionary,
+ * and names and descriptions in an off-heap {@link StringArena}. Holding it costs a few dozen heap
+ * bytes per product in a handful of arrays, against several objects per product for a list of
+ * {@link ProductResponse}.
+ * <p>
+ * {@link #writeRows} produces the same JSON (or CBOR) as serializing the equivalent
+ * {@code ProductResponse}s, straight from the columns. Rows are copied out in chunks under the read
+ * lock and written after it is released, so a slow client never holds up updates.
+ */
+public class ColumnarCatalog {
+
+    private static final int CHUNK_SIZE = 256;
+    private static final byte NULL_PRICE = Byte.MIN_VALUE;
+    /**
+     * Scale marker for prices that do not fit the columns, kept as {@code BigDecimal} instead.
+     */
+    private static final byte LARGE_PRICE = Byte.MAX_VALUE;
+    private static final long NEGATIVE_ZERO = Double.doubleToRawLongBits(-0.0);
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString PRICE = new SerializedString("price");
+    private static final SerializableString AVAILABLE_QUANTITY = new SerializedString("availableQuantity");
+    private static final SerializableString CATEGORY_ID = new SerializedString("categoryId");
+    private static final SerializableString CATEGORY_NAME = new SerializedString("categoryName");
+    private static final SerializableString CATEGORY_DESCRIPTION = new SerializedString("categoryDescription");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, BigDecimal> largePrices = new HashMap<>();
+    private final List<CategoryEntry> categoryDictionary = new ArrayList<>();
+    private final Map<CategoryKey, Integer> categoryIndexes = new HashMap<>();
+    private StringArena arena;
+    private int size;
+    private int[] ids;
+    private double[] quantities;
+    private long[] prices;
+    private byte[] priceScales;
+    private long[] names;
+    private long[] descriptions;
+    private int[] categories;
+
+    public ColumnarCatalog(int initialCapacity, int arenaCapacity) {
+        var capacity = Math.max(initialCapacity, 16);
+        this.arena = new StringArena(arenaCapacity);
+        this.ids = new int[capacity];
+        this.quantities = new double[capacity];
+        this.prices = new long[capacity];
+        this.priceScales = new byte[capacity];
+        this.names = new long[capacity];
+        this.descriptions = new long[capacity];
+        this.categories = new int[capacity];
+    }
+
+    /**
+     * Adds the products that are new and overwrites the ones already present.
+     */
+    public void upsertAll(Collection<ProductResponse> products) {
+        lock.writeLock().lock();
+        try {
+            products.forEach(this::upsert);
+            if (arena.garbage() > arena.used() / 2) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Heap bytes held by the columns, including spare capacity.
+     */
+    public long heapBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) ids.length * (Integer.BYTES * 2 + Double.BYTES + Long.BYTES * 3 + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return arena.capacity();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes every product as an object at the generator's current position, in id order. Products
+     * with a stock overlay get that quantity instead of the stored one.
+     */
+    public void writeRows(JsonGenerator generator, IntFunction<OptionalDouble> quantityOverlay) throws IOException {
+        var chunk = new RowChunk(!(generator instanceof WriterBasedJsonGenerator),
+                generator instanceof JsonGeneratorImpl || generator.canWriteFormattedNumbers());
+        var afterId = Integer.MIN_VALUE;
+        var filled = CHUNK_SIZE;
+        while (filled == CHUNK_SIZE) {
+            lock.readLock().lock();
+            try {
+                filled = chunk.fill(afterId);
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (int i = 0; i < filled; i++) {
+                chunk.write(generator, i, quantityOverlay);
+            }
+            if (filled > 0) {
+                afterId = chunk.ids[filled - 1];
+            }
+        }
+    }
+
+    private void upsert(ProductResponse product) {
+        var position = Arrays.binarySearch(ids, 0, size, product.id());
+        if (position < 0) {
+            position = insertAt(-position - 1, product.id());
+        }
+        names[position] = replace(names[position], utf8(product.name()));
+        descriptions[position] = replace(descriptions[position], utf8(product.description()));
+        quantities[position] = product.availableQuantity();
+        setPrice(position, product.id(), product.price());
+        categories[position] = categoryIndex(new CategoryKey(
+                product.categoryId(), product.categoryName(), product.categoryDescription()));
+    }
+
+    /**
+     * Keeps the existing arena bytes when the string did not change, which is the common case for a
+     * stock update, so purchases do not grow the arena.
+     */
+    private long replace(long current, byte[] utf8) {
+        if (arena.contentEquals(current, utf8)) {
+            return current;
+        }
+        arena.release(current);
+        return utf8 == null ? StringArena.NULL : arena.add(utf8);
+    }
+
+    private int insertAt(int position, int productId) {
+        if (size == ids.length) {
+            var capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            priceScales = Arrays.copyOf(priceScales, capacity);
+            names = Arrays.copyOf(names, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+        if (position < size) {
+            var moved = size - position;
+            System.arraycopy(ids, position, ids, position + 1, moved);
+            System.arraycopy(quantities, position, quantities, position + 1, moved);
+            System.arraycopy(prices, position, prices, position + 1, moved);
+            System.arraycopy(priceScales, position, priceScales, position + 1, moved);
+            System.arraycopy(names, position, names, position + 1, moved);
+            System.arraycopy(descriptions, position, descriptions, position + 1, moved);
+            System.arraycopy(categories, position, categories, position + 1, moved);
+        }
+        ids[position] = productId;
+        names[position] = StringArena.NULL;
+        descriptions[position] = StringArena.NULL;
+        size++;
+        return position;
+    }
+
+    private void setPrice(int position, int productId, BigDecimal price) {
+        largePrices.remove(productId);
+        if (price == null) {
+            priceScales[position] = NULL_PRICE;
+        } else if (fitsColumns(price)) {
+            prices[position] = price.unscaledValue().longValue();
+            priceScales[position] = (byte) price.scale();
+        } else {
+            priceScales[position] = LARGE_PRICE;
+            largePrices.put(productId, price);
+        }
+    }
+
+    /**
+     * Whether the price can be stored as a {@code long} and a scale, and written back exactly as
+     * {@link BigDecimal#toString()} would, which is plain notation for these.
+     */
+    private static boolean fitsColumns(BigDecimal price) {
+        return price.scale() >= 0
+                && price.scale() < LARGE_PRICE
+                && price.unscaledValue().bitLength() < Long.SIZE - 1
+                && price.precision() - price.scale() - 1 >= -6;
+    }
+
+    private int categoryIndex(CategoryKey key) {
+        var index = categoryIndexes.get(key);
+        if (index == null) {
+            index = categoryDictionary.size();
+            categoryDictionary.add(new CategoryEntry(key.id(),
+                    key.name() == null ? null : new SerializedString(key.name()),
+                    key.description() == null ? null : new SerializedString(key.description())));
+            categoryIndexes.put(key, index);
+        }
+        return index;
+    }
+
+    private void compact() {
+        var compacted = new StringArena(Math.max(arena.used() - (int) arena.garbage(), 64) * 2);
+        for (int i = 0; i < size; i++) {
+            names[i] = compacted.copyOf(arena, names[i]);
+            descriptions[i] = compacted.copyOf(arena, descriptions[i]);
+        }
+        arena = compacted;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Formats {@code unscaled * 10^-scale} like {@link BigDecimal#toString()} for prices accepted by
+     * {@link #fitsColumns}.
+     *
+     * @return the number of characters written
+     */
+    static int formatPrice(long unscaled, int scale, char[] target) {
+        var remaining = Math.abs(unscaled);
+        var digits = 1;
+        for (var rest = remaining / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        digits = Math.max(digits, scale + 1);
+        var length = (unscaled < 0 ? 1 : 0) + digits + (scale > 0 ? 1 : 0);
+        var position = length;
+        for (int i = 0; i < digits; i++) {
+            if (i == scale && scale > 0) {
+                target[--position] = '.';
+            }
+            target[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        if (unscaled < 0) {
+            target[0] = '-';
+        }
+        return length;
+    }
+
+    /**
+     * Formats a whole quantity like {@link Double#toString(double)} does, which is plain notation
+     * with a trailing {@code .0} between 1 and 10^7.
+     *
+     * @return the number of characters written, -1 for quantities left to the generator
+     */
+    static int formatQuantity(double quantity, char[] target) {
+        if (quantity != Math.rint(quantity) || Math.abs(quantity) >= 1e7
+                || Double.doubleToRawLongBits(quantity) == NEGATIVE_ZERO) {
+            return -1;
+        }
+        return formatPrice((long) quantity * 10, 1, target);
+    }
+
+    private record CategoryKey(Integer id, String name, String description) {
+    }
+
+    private record CategoryEntry(Integer id, SerializableString name, SerializableString description) {
+    }
+
+    /**
+     * One chunk of rows copied out of the columns, reused for the whole catalog.
+     */
+    private class RowChunk {
+
+        private final int[] ids = new int[CHUNK_SIZE];
+        private final double[] quantities = new double[CHUNK_SIZE];
+        private final long[] prices = new long[CHUNK_SIZE];
+        private final byte[] priceScales = new byte[CHUNK_SIZE];
+        private final BigDecimal[] largePrices = new BigDecimal[CHUNK_SIZE];
+        private final CategoryEntry[] categories = new CategoryEntry[CHUNK_SIZE];
+        private final int[] nameOffsets = new int[CHUNK_SIZE];
+        private final int[] nameLengths = new int[CHUNK_SIZE];
+        private final int[] descriptionOffsets = new int[CHUNK_SIZE];
+        private final int[] descriptionLengths = new int[CHUNK_SIZE];
+        private final char[] number = new char[32];
+        private final boolean rawUtf8;
+        private final boolean formattedNumbers;
+        private byte[] strings = new byte[64 * 1024];
+        private int stringsUsed;
+
+        /**
+         * @param rawUtf8 whether the generator takes UTF-8 bytes as they are; only the generator
+         *                writing to a {@code Writer} rather than a byte stream needs them decoded
+         * @param formattedNumbers whether the generator writes formatted digits as a number; the JSON
+         *                         generators do, although they don't advertise it the way CSV does
+         */
+        RowChunk(boolean rawUtf8, boolean formattedNumbers) {
+            this.rawUtf8 = rawUtf8;
+            this.formattedNumbers = formattedNumbers;
+        }
+
+        /**
+         * Copies the rows following {@code afterId}; must be called under the read lock.
+         *
+         * @return the number of rows copied
+         */
+        int fill(int afterId) {
+            var found = afterId == Integer.MIN_VALUE ? -1 : Arrays.binarySearch(
+                    ColumnarCatalog.this.ids, 0, size, afterId);
+            var start = found >= 0 ? found + 1 : -found - 1;
+            var count = Math.min(CHUNK_SIZE, size - start);
+            stringsUsed = 0;
+            for (int i = 0; i < count; i++) {
+                var position = start + i;
+                ids[i] = ColumnarCatalog.this.ids[position];
+                quantities[i] = ColumnarCatalog.this.quantities[position];
+                prices[i] = ColumnarCatalog.this.prices[position];
+                priceScales[i] = ColumnarCatalog.this.priceScales[position];
+                largePrices[i] = priceScales[i] == LARGE_PRICE ? ColumnarCatalog.this.largePrices.get(ids[i]) : null;
+                categories[i] = categoryDictionary.get(ColumnarCatalog.this.categories[position]);
+                nameLengths[i] = StringArena.length(names[position]);
+                nameOffsets[i] = copyString(names[position]);
+                descriptionLengths[i] = StringArena.length(descriptions[position]);
+                descriptionOffsets[i] = copyString(descriptions[position]);
+            }
+            return count;
+        }
+
+        /**
+         * @return offset of the copied bytes in {@link #strings}, -1 for null
+         */
+        private int copyString(long ref) {
+            if (ref == StringArena.NULL) {
+                return -1;
+            }
+            var length = StringArena.length(ref);
+            if (stringsUsed + length > strings.length) {
+                strings = Arrays.copyOf(strings, Math.max(strings.length * 2, stringsUsed + length));
+            }
+            var offset = stringsUsed;
+            arena.copyTo(ref, strings, offset);
+            stringsUsed += length;
+            return offset;
+        }
+
+        void write(JsonGenerator generator, int i, IntFunction<OptionalDouble> quantityOverlay) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(ID);
+            generator.writeNumber(ids[i]);
+            generator.writeFieldName(NAME);
+            writeString(generator, nameOffsets[i], nameLengths[i]);
+            generator.writeFieldName(DESCRIPTION);
+            writeString(generator, descriptionOffsets[i], descriptionLengths[i]);
+            generator.writeFieldName(PRICE);
+            writePrice(generator, i);
+            generator.writeFieldName(AVAILABLE_QUANTITY);
+            var overlay = quantityOverlay.apply(ids[i]);
+            writeQuantity(generator, overlay.isPresent() ? overlay.getAsDouble() : quantities[i]);
+            var category = categories[i];
+            generator.writeFieldName(CATEGORY_ID);
+            if (category.id() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(category.id());
+            }
+            generator.writeFieldName(CATEGORY_NAME);
+            writeString(generator, category.name());
+            generator.writeFieldName(CATEGORY_DESCRIPTION);
+            writeString(generator, category.description());
+            generator.writeEndObject();
+        }
+
+        private void writeString(JsonGenerator generator, int offset, int length) throws IOException {
+            if (offset < 0) {
+                generator.writeNull();
+            } else if (rawUtf8) {
+                generator.writeUTF8String(strings, offset, length);
+            } else {
+                generator.writeString(new String(strings, offset, length, StandardCharsets.UTF_8));
+            }
+        }
+
+        private static void writeString(JsonGenerator generator, SerializableString value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(value);
+            }
+        }
+
+        /**
+         * Whole quantities, the usual case, skip the {@code String} that writing a {@code double}
+         * as JSON text allocates per row.
+         */
+        private void writeQuantity(JsonGenerator generator, double quantity) throws IOException {
+            var length = formattedNumbers ? formatQuantity(quantity, number) : -1;
+            if (length < 0) {
+                generator.writeNumber(quantity);
+            } else {
+                generator.writeNumber(number, 0, length);
+            }
+        }
+
+        private void writePrice(JsonGenerator generator, int i) throws IOException {
+            var scale = priceScales[i];
+            if (scale == NULL_PRICE) {
+                generator.writeNull();
+            } else if (scale == LARGE_PRICE) {
+                generator.writeNumber(largePrices[i]);
+            } else if (formattedNumbers) {
+                generator.writeNumber(number, 0, formatPrice(prices[i], scale, number));
+            } else {
+                generator.writeNumber(BigDecimal.valueOf(prices[i], scale));
+            }
+        }
+    }
+}
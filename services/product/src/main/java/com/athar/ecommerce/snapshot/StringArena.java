@@ -0,0 +1,114 @@
+package com.athar.ecommerce.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Append-only UTF-8 string storage in a direct buffer, outside the Java heap. A string is addressed
+ * by a {@code long} reference packing its offset and length, so a column of strings is a
+ * {@code long[]} rather than an array of objects the collector has to trace. Replaced strings are
+ * only counted as garbage; the owner compacts by copying the live ones into a new arena.
+ * <p>
+ * Not thread-safe, callers guard it with their own lock.
+ */
+public class StringArena {
+
+    public static final long NULL = -1L;
+
+    private ByteBuffer buffer;
+    private int used;
+    private long garbage;
+
+    public StringArena(int initialCapacity) {
+        this.buffer = ByteBuffer.allocateDirect(Math.max(initialCapacity, 64));
+    }
+
+    public long add(String value) {
+        return value == null ? NULL : add(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long add(byte[] utf8) {
+        ensureCapacity(utf8.length);
+        buffer.put(used, utf8);
+        var ref = ref(used, utf8.length);
+        used += utf8.length;
+        return ref;
+    }
+
+    /**
+     * Copies a string of {@code other} into this arena, without decoding it.
+     */
+    public long copyOf(StringArena other, long ref) {
+        if (ref == NULL) {
+            return NULL;
+        }
+        var length = length(ref);
+        ensureCapacity(length);
+        buffer.put(used, other.buffer, offset(ref), length);
+        var copy = ref(used, length);
+        used += length;
+        return copy;
+    }
+
+    public boolean contentEquals(long ref, byte[] utf8) {
+        if (ref == NULL || utf8 == null) {
+            return ref == NULL && utf8 == null;
+        }
+        return length(ref) == utf8.length
+                && buffer.slice(offset(ref), utf8.length).mismatch(ByteBuffer.wrap(utf8)) == -1;
+    }
+
+    /**
+     * Copies the UTF-8 bytes of {@code ref} into {@code target}.
+     *
+     * @return the number of bytes copied
+     */
+    public int copyTo(long ref, byte[] target, int targetOffset) {
+        var length = length(ref);
+        buffer.get(offset(ref), target, targetOffset, length);
+        return length;
+    }
+
+    public void release(long ref) {
+        if (ref != NULL) {
+            garbage += length(ref);
+        }
+    }
+
+    public int used() {
+        return used;
+    }
+
+    public long garbage() {
+        return garbage;
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    public static int length(long ref) {
+        return ref == NULL ? 0 : (int) ref;
+    }
+
+    private static int offset(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    private static long ref(int offset, int length) {
+        return ((long) offset << 32) | length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if ((long) used + extra <= buffer.capacity()) {
+            return;
+        }
+        var capacity = Math.max((long) buffer.capacity() * 2, (long) used + extra);
+        if (capacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("String arena cannot grow beyond 2 GB");
+        }
+        var grown = ByteBuffer.allocateDirect((int) capacity);
+        grown.put(0, buffer, 0, used);
+        buffer = grown;
+    }
+}
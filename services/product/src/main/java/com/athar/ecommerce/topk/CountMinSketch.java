@@ -0,0 +1,78 @@
+package com.athar.ecommerce.topk;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate frequency counts for int keys in fixed memory. Estimates never undercount; with the
+ * conservative update used here they overcount by at most {@code e * total / width} with
+ * probability {@code 1 - e^-depth}. Safe for concurrent use without locking: racing updates can
+ * only make an estimate slightly higher than a serial run would.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("width and depth must be positive");
+        }
+        var rowWidth = Integer.highestOneBit(width) == width ? width : Integer.highestOneBit(width) << 1;
+        this.depth = depth;
+        this.mask = rowWidth - 1;
+        this.counters = new AtomicLongArray(rowWidth * depth);
+    }
+
+    /**
+     * Adds {@code count} occurrences of {@code key}, raising only the counters that are below the
+     * new estimate.
+     *
+     * @return the estimated count of {@code key} after the update
+     */
+    public long add(int key, long count) {
+        var estimate = estimate(key) + count;
+        for (int row = 0; row < depth; row++) {
+            counters.accumulateAndGet(index(key, row), estimate, Math::max);
+        }
+        return estimate;
+    }
+
+    public long estimate(int key) {
+        var estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(key, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Halves every counter, so old traffic fades out and the estimates follow what is hot now.
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.updateAndGet(i, counter -> counter >>> 1);
+        }
+    }
+
+    private int index(int key, int row) {
+        return row * (mask + 1) + (mix(key, row) & mask);
+    }
+
+    /**
+     * MurmurHash3 finalizer over the key salted per row, which gives independent enough hashes for
+     * the small number of rows a sketch uses.
+     */
+    private static int mix(int key, int row) {
+        var h = key ^ (0x9E3779B9 * (row + 1));
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
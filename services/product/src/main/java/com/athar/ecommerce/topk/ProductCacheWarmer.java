@@ -0,0 +1,67 @@
+package com.athar.ecommerce.topk;
+
+import com.athar.ecommerce.product.ProductCache;
+import com.athar.ecommerce.product.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the last persisted top products into the product cache before the instance takes traffic,
+ * so a fresh deploy does not send its first wave of requests for the hottest products to the
+ * database. Runs in a phase before the Eureka registration (phase 0) and the web server, and
+ * persists the list once more on shutdown.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCacheWarmer implements SmartLifecycle {
+
+    private final TopProductProperties properties;
+    private final TopProductRepository topProductRepository;
+    private final TopProductTracker tracker;
+    private final ProductCache productCache;
+    private final ProductRepository productRepository;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        running = true;
+        try {
+            var topProducts = topProductRepository.findAll();
+            tracker.seed(topProducts);
+            if (!properties.warmUp() || topProducts.isEmpty()) {
+                return;
+            }
+            var started = System.nanoTime();
+            var productIds = topProducts.stream()
+                    .map(TopProduct::productId)
+                    .toList();
+            var warmed = productCache.getProducts(productIds, productRepository::findAllByIdInOrderById);
+            log.info("Warmed the product cache with {} of the top {} products in {} ms", warmed.size(),
+                    productIds.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException e) {
+            log.warn("Could not warm the product cache, starting cold", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        tracker.persist();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return -1;
+    }
+}
@@ -0,0 +1,7 @@
+package com.athar.ecommerce.topk;
+
+public record TopProduct(
+        int productId,
+        long estimatedCount
+) {
+}
@@ -0,0 +1,28 @@
+package com.athar.ecommerce.topk;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param size          how many products the top list keeps
+ * @param decayInterval how often all counts are halved, which sets how quickly the list forgets
+ * @param warmUp        whether the persisted list is loaded into the product cache on startup
+ */
+@ConfigurationProperties(prefix = "product.top-products")
+public record TopProductProperties(
+        @DefaultValue("100")
+        int size,
+        @DefaultValue("4096")
+        int sketchWidth,
+        @DefaultValue("4")
+        int sketchDepth,
+        @DefaultValue("10m")
+        Duration decayInterval,
+        @DefaultValue("1m")
+        Duration persistInterval,
+        @DefaultValue("true")
+        boolean warmUp
+) {
+}
@@ -0,0 +1,44 @@
+package com.athar.ecommerce.topk;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class TopProductRepository {
+
+    private static final String INSERT_TOP_PRODUCT = """
+            INSERT INTO top_product (product_id, estimated_count, recorded_at)
+            VALUES (:productId, :estimatedCount, :recordedAt)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Replaces the stored list. With several instances the last one to persist wins, which is fine
+     * for a list that only decides what to warm.
+     */
+    @Transactional
+    public void replace(List<TopProduct> topProducts, Instant recordedAt) {
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM top_product");
+        jdbcTemplate.batchUpdate(INSERT_TOP_PRODUCT, topProducts.stream()
+                .map(topProduct -> new MapSqlParameterSource()
+                        .addValue("productId", topProduct.productId())
+                        .addValue("estimatedCount", topProduct.estimatedCount())
+                        .addValue("recordedAt", Timestamp.from(recordedAt)))
+                .toArray(MapSqlParameterSource[]::new));
+    }
+
+    public List<TopProduct> findAll() {
+        return jdbcTemplate.getJdbcTemplate().query(
+                "SELECT product_id, estimated_count FROM top_product ORDER BY estimated_count DESC, product_id",
+                (rs, rowNum) -> new TopProduct(rs.getInt("product_id"), rs.getLong("estimated_count")));
+    }
+}
@@ -0,0 +1,129 @@
+package com.athar.ecommerce.topk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks the most requested products: every lookup and purchase line is counted in a
+ * {@link CountMinSketch}, and a bounded heavy-hitters set keeps the products whose estimate made it
+ * into the top {@code size}. Recording a product that is not a candidate only touches the sketch;
+ * the lock is taken when its estimate reaches the smallest count in the set.
+ */
+@Slf4j
+@Component
+public class TopProductTracker {
+
+    private static final Comparator<TopProduct> BY_COUNT = Comparator.comparingLong(TopProduct::estimatedCount)
+            .thenComparingInt(TopProduct::productId);
+
+    private final TopProductProperties properties;
+    private final TopProductRepository topProductRepository;
+    private final CountMinSketch sketch;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Integer, TopProduct> candidates = new HashMap<>();
+    private final TreeSet<TopProduct> ranking = new TreeSet<>(BY_COUNT);
+    private volatile long admissionThreshold;
+
+    public TopProductTracker(TopProductProperties properties, TopProductRepository topProductRepository) {
+        this.properties = properties;
+        this.topProductRepository = topProductRepository;
+        this.sketch = new CountMinSketch(properties.sketchWidth(), properties.sketchDepth());
+    }
+
+    public void record(int productId) {
+        record(productId, 1);
+    }
+
+    public void record(int productId, long count) {
+        var estimate = sketch.add(productId, count);
+        if (estimate < admissionThreshold) {
+            return;
+        }
+        lock.lock();
+        try {
+            offer(new TopProduct(productId, estimate));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the tracked products, most requested first
+     */
+    public List<TopProduct> topProducts() {
+        lock.lock();
+        try {
+            return List.copyOf(ranking.descendingSet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Carries a persisted list over a restart, so the ranking does not start from nothing.
+     */
+    public void seed(List<TopProduct> topProducts) {
+        topProducts.forEach(topProduct -> record(topProduct.productId(), topProduct.estimatedCount()));
+    }
+
+    @Scheduled(fixedRateString = "${product.top-products.decay-interval:10m}",
+            initialDelayString = "${product.top-products.decay-interval:10m}")
+    public void decay() {
+        lock.lock();
+        try {
+            sketch.decay();
+            var decayed = ranking.stream()
+                    .map(topProduct -> new TopProduct(topProduct.productId(), topProduct.estimatedCount() >>> 1))
+                    .toList();
+            ranking.clear();
+            candidates.clear();
+            decayed.forEach(this::offer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedRateString = "${product.top-products.persist-interval:1m}",
+            initialDelayString = "${product.top-products.persist-interval:1m}")
+    public void persist() {
+        var topProducts = topProducts();
+        if (topProducts.isEmpty()) {
+            return;
+        }
+        try {
+            topProductRepository.replace(topProducts, Instant.now());
+        } catch (RuntimeException e) {
+            log.warn("Could not persist the top {} products", topProducts.size(), e);
+        }
+    }
+
+    private void offer(TopProduct topProduct) {
+        var current = candidates.get(topProduct.productId());
+        if (current != null) {
+            if (current.estimatedCount() >= topProduct.estimatedCount()) {
+                return;
+            }
+            ranking.remove(current);
+        } else if (candidates.size() >= properties.size()) {
+            var smallest = ranking.first();
+            if (smallest.estimatedCount() >= topProduct.estimatedCount()) {
+                return;
+            }
+            ranking.pollFirst();
+            candidates.remove(smallest.productId());
+        }
+        candidates.put(topProduct.productId(), topProduct);
+        ranking.add(topProduct);
+        admissionThreshold = candidates.size() < properties.size() ? 0 : ranking.first().estimatedCount();
+    }
+}
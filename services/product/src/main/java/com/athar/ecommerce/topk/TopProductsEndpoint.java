@@ -0,0 +1,25 @@
+package com.athar.ecommerce.topk;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/topproducts}: the products currently requested the most, with their estimated
+ * request counts since the last decay.
+ */
+@Component
+@Endpoint(id = "topproducts")
+@RequiredArgsConstructor
+public class TopProductsEndpoint {
+
+    private final TopProductTracker tracker;
+
+    @ReadOperation
+    public List<TopProduct> topProducts() {
+        return tracker.topProducts();
+    }
+}
@@ -0,0 +1,8 @@
+CREATE TABLE If not exists inventory_ledger_checkpoint
+(
+    id            INTEGER NOT NULL PRIMARY KEY,
+    last_sequence BIGINT  NOT NULL
+);
+
+INSERT INTO inventory_ledger_checkpoint (id, last_sequence)
+VALUES (1, 0);
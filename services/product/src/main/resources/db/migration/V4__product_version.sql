@@ -0,0 +1,5 @@
+CREATE SEQUENCE IF NOT EXISTS product_version_seq;
+
+-- Every write to a product takes the next value, so max(version) also versions the whole catalog.
+ALTER TABLE product
+    ADD COLUMN version BIGINT DEFAULT nextval('product_version_seq') NOT NULL;
@@ -0,0 +1,19 @@
+ALTER TABLE product ADD COLUMN reserved_quantity DOUBLE PRECISION DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS stock_reservation
+(
+    id         UUID                     NOT NULL PRIMARY KEY,
+    status     VARCHAR(16)              NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_status ON stock_reservation (status, expires_at);
+
+CREATE TABLE IF NOT EXISTS stock_reservation_line
+(
+    reservation_id UUID             NOT NULL
+        CONSTRAINT fk_stock_reservation_line_on_reservation REFERENCES stock_reservation ON DELETE CASCADE,
+    product_id     INTEGER          NOT NULL,
+    quantity       DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (reservation_id, product_id)
+);
@@ -0,0 +1,20 @@
+CREATE TABLE IF NOT EXISTS product_outbox
+(
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id         INTEGER                  NOT NULL,
+    available_quantity DOUBLE PRECISION         NOT NULL,
+    version            BIGINT                   NOT NULL,
+    created_at         TIMESTAMP WITH TIME ZONE NOT NULL,
+    change_offset      BIGINT
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_product_outbox_change_offset ON product_outbox (change_offset);
+
+CREATE TABLE IF NOT EXISTS product_outbox_relay
+(
+    id          INTEGER NOT NULL PRIMARY KEY,
+    last_offset BIGINT  NOT NULL
+);
+
+INSERT INTO product_outbox_relay (id, last_offset)
+VALUES (1, 0);
@@ -0,0 +1,6 @@
+CREATE TABLE top_product
+(
+    product_id      INTEGER                  NOT NULL PRIMARY KEY,
+    estimated_count BIGINT                   NOT NULL,
+    recorded_at     TIMESTAMP WITH TIME ZONE NOT NULL
+);
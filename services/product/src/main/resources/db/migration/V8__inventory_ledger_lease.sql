@@ -0,0 +1,2 @@
+ALTER TABLE inventory_ledger_checkpoint ADD COLUMN owner VARCHAR(255);
+ALTER TABLE inventory_ledger_checkpoint ADD COLUMN lease_expires_at TIMESTAMP WITH TIME ZONE;
@@ -0,0 +1,100 @@
+package com.athar.ecommerce.bulkhead;
+
+import com.athar.ecommerce.product.ProductPurchaseRequest;
+import com.athar.ecommerce.product.ProductRepository;
+import com.athar.ecommerce.product.ProductService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "product.bulkhead.enabled=true",
+        "product.bulkhead.reader-pool.maximum-pool-size=2",
+        "product.bulkhead.reader-pool.connection-timeout=250",
+        "product.inventory.journal-path=target/bulkhead/${random.uuid}.log"
+})
+@ActiveProfiles("test")
+class BulkheadDataSourceTest {
+
+    private static final int PRODUCT_ID = 1;
+
+    @Autowired
+    private HikariDataSource readerDataSource;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Connection> heldReaderConnections = new ArrayList<>();
+    private double seededStock;
+
+    @BeforeEach
+    void setUp() {
+        seededStock = jdbcTemplate.queryForObject("SELECT available_quantity FROM product WHERE id = :id",
+                new MapSqlParameterSource("id", PRODUCT_ID), Double.class);
+    }
+
+    /**
+     * The embedded database is shared with the other tests, which expect the seeded stock.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        for (var connection : heldReaderConnections) {
+            connection.close();
+        }
+        jdbcTemplate.update("UPDATE product SET available_quantity = :stock WHERE id = :id",
+                new MapSqlParameterSource()
+                        .addValue("id", PRODUCT_ID)
+                        .addValue("stock", seededStock));
+    }
+
+    @Test
+    void purchases_keep_their_connections_while_every_reader_connection_is_taken() throws Exception {
+        // Arrange
+        for (int i = 0; i < readerDataSource.getMaximumPoolSize(); i++) {
+            heldReaderConnections.add(readerDataSource.getConnection());
+        }
+
+        // Act
+        var purchased = productService.purchaseProduct(List.of(new ProductPurchaseRequest(PRODUCT_ID, 1)));
+
+        // Assert
+        assertEquals(PRODUCT_ID, purchased.getFirst().id());
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> productRepository.findAllByIdInOrderById(List.of(PRODUCT_ID)));
+        assertEquals(readerDataSource.getMaximumPoolSize(), connections("active", "reader"));
+        assertTrue(connections("active", "writer") < connections("max", "writer"));
+    }
+
+    @Test
+    void export_executor_reports_its_saturation() {
+        // Act & Assert
+        assertEquals(0.0, saturation("catalog-export"));
+    }
+
+    private double connections(String state, String pool) {
+        return meterRegistry.get("hikaricp.connections." + state).tag("pool", pool).gauge().value();
+    }
+
+    private double saturation(String bulkhead) {
+        return meterRegistry.get("product.bulkhead.saturation").tag("bulkhead", bulkhead).gauge().value();
+    }
+}
@@ -0,0 +1,117 @@
+package com.athar.ecommerce.datasource;
+
+import com.athar.ecommerce.datasource.ReadWriteRoutingDataSource.Route;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private DataSource writer;
+    @Mock
+    private DataSource reader;
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ReadWriteRoutingDataSource(writer, reader);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        ReadYourWrites.end();
+    }
+
+    @Test
+    void read_only_transaction_goes_to_the_reader() {
+        // Arrange
+        readOnlyTransaction();
+
+        // Act
+        var route = routingDataSource.determineCurrentLookupKey();
+
+        // Assert
+        assertEquals(Route.READER, route);
+    }
+
+    @Test
+    void read_write_transaction_and_statements_outside_a_transaction_go_to_the_writer() {
+        // Act
+        var outside = routingDataSource.determineCurrentLookupKey();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        var readWrite = routingDataSource.determineCurrentLookupKey();
+
+        // Assert
+        assertEquals(Route.WRITER, outside);
+        assertEquals(Route.WRITER, readWrite);
+    }
+
+    @Test
+    void write_pins_the_rest_of_the_request_to_the_writer_and_notifies_once() {
+        // Arrange
+        var notifications = new AtomicInteger();
+        ReadYourWrites.begin(0, notifications::incrementAndGet);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // Act
+        routingDataSource.determineCurrentLookupKey();
+        routingDataSource.determineCurrentLookupKey();
+        TransactionSynchronizationManager.clear();
+        readOnlyTransaction();
+        var route = routingDataSource.determineCurrentLookupKey();
+
+        // Assert
+        assertEquals(1, notifications.get());
+        assertEquals(Route.WRITER, route);
+    }
+
+    @Test
+    void client_inside_its_read_your_writes_window_reads_from_the_writer() {
+        // Arrange
+        readOnlyTransaction();
+
+        // Act
+        ReadYourWrites.begin(System.currentTimeMillis() + 60_000, () -> {
+        });
+        var pinned = routingDataSource.determineCurrentLookupKey();
+        ReadYourWrites.begin(System.currentTimeMillis() - 1, () -> {
+        });
+        var expired = routingDataSource.determineCurrentLookupKey();
+
+        // Assert
+        assertEquals(Route.WRITER, pinned);
+        assertEquals(Route.READER, expired);
+    }
+
+    @Test
+    void on_writer_pins_only_the_given_action() {
+        // Arrange
+        readOnlyTransaction();
+
+        // Act
+        var inside = ReadYourWrites.onWriter(routingDataSource::determineCurrentLookupKey);
+        var after = routingDataSource.determineCurrentLookupKey();
+
+        // Assert
+        assertEquals(Route.WRITER, inside);
+        assertEquals(Route.READER, after);
+    }
+
+    private static void readOnlyTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+}
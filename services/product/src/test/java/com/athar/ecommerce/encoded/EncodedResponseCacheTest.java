@@ -0,0 +1,111 @@
+package com.athar.ecommerce.encoded;
+
+import com.athar.ecommerce.product.ProductChangedEvent;
+import com.athar.ecommerce.product.ProductResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EncodedResponseCacheTest {
+
+    private final ObjectMapper objectMapper = spy(new ObjectMapper());
+    private EncodedResponseCache sut;
+
+    @BeforeEach
+    void setUp() {
+        var cacheManager = new CaffeineCacheManager(EncodedResponseCache.PRODUCT_RESPONSES,
+                EncodedResponseCache.CATALOG_RESPONSES);
+        sut = new EncodedResponseCache(cacheManager, objectMapper);
+    }
+
+    private ProductResponse createProductResponse(int id, double quantity) {
+        return new ProductResponse(id, "Product " + id, "Description " + id, new BigDecimal("19.90"),
+                quantity, 1, "Electronics", "Devices and gadgets");
+    }
+
+    private static byte[] bytesOf(EncodedJson<?> json) throws Exception {
+        var body = new ByteArrayOutputStream();
+        json.writeTo(body);
+        assertEquals(body.size(), json.contentLength());
+        return body.toByteArray();
+    }
+
+    @Test
+    void product_is_encoded_once_while_its_etag_matches() throws Exception {
+        // Arrange
+        var product = createProductResponse(1, 5);
+        var loads = new AtomicInteger();
+
+        // Act
+        sut.getProduct(1, "\"1\"", () -> {
+            loads.incrementAndGet();
+            return product;
+        });
+        var json = sut.getProduct(1, "\"1\"", () -> {
+            loads.incrementAndGet();
+            return product;
+        });
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertArrayEquals(objectMapper.writeValueAsBytes(product), bytesOf(json));
+        assertSame(product, json.value());
+    }
+
+    @Test
+    void new_etag_reloads_the_product_and_reencodes_only_changed_content() throws Exception {
+        // Arrange
+        sut.getProduct(1, "\"1\"", () -> createProductResponse(1, 5));
+        sut.getProduct(1, "\"1-a\"", () -> createProductResponse(1, 5));
+        clearInvocations(objectMapper);
+
+        // Act
+        var json = sut.getProduct(1, "\"2\"", () -> createProductResponse(1, 4));
+
+        // Assert
+        verify(objectMapper, times(1)).writeValueAsBytes(any());
+        assertArrayEquals(objectMapper.writeValueAsBytes(createProductResponse(1, 4)), bytesOf(json));
+    }
+
+    @Test
+    void catalog_is_the_json_array_of_its_products() throws Exception {
+        // Arrange
+        var products = List.of(createProductResponse(1, 5), createProductResponse(2, 0),
+                createProductResponse(3, 2.5));
+
+        // Act
+        var json = sut.getCatalog("all", "\"v1\"", () -> products);
+
+        // Assert
+        assertArrayEquals(objectMapper.writeValueAsBytes(products), bytesOf(json));
+        assertArrayEquals("[]".getBytes(), bytesOf(sut.getCatalog("empty", "\"v1\"", List::of)));
+    }
+
+    @Test
+    void product_change_rebuilds_the_catalog_reusing_unchanged_fragments() throws Exception {
+        // Arrange
+        sut.getCatalog("all", "\"v1\"", () -> List.of(createProductResponse(1, 5), createProductResponse(2, 0)));
+        clearInvocations(objectMapper);
+
+        // Act
+        sut.onProductChanged(new ProductChangedEvent(List.of(2)));
+        var cached = sut.getCatalog("all", "\"v1\"", List::of);
+        var rebuilt = sut.getCatalog("all", "\"v2\"",
+                () -> List.of(createProductResponse(1, 5), createProductResponse(2, 3)));
+
+        // Assert
+        assertTrue(cached.value().isEmpty());
+        verify(objectMapper, times(1)).writeValueAsBytes(any());
+        assertArrayEquals(objectMapper.writeValueAsBytes(rebuilt.value()), bytesOf(rebuilt));
+    }
+}
@@ -0,0 +1,292 @@
+package com.athar.ecommerce.inventory;
+
+import com.athar.ecommerce.product.ProductChangedEvent;
+import com.athar.ecommerce.product.ProductPurchaseRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HotInventoryLedgerTest {
+
+    @TempDir
+    private Path journalDir;
+
+    private final InventoryLedgerRepository repository = mock(InventoryLedgerRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private HotInventoryLedger sut;
+
+    private HotInventoryLedger createLedger(Map<Integer, Double> quantities) {
+        var properties = new InventoryProperties(quantities.keySet(), Duration.ofMillis(500), Duration.ofSeconds(10),
+                journalDir.resolve("journal.log"), true);
+        when(repository.findQuantities(quantities.keySet())).thenReturn(quantities);
+        lenient().when(repository.acquireLease(anyString(), any())).thenReturn(true);
+        lenient().when(repository.renewLease(anyString(), any())).thenReturn(true);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        var ledger = new HotInventoryLedger(properties, repository, transactionTemplate, eventPublisher);
+        ledger.afterSingletonsInstantiated();
+        return ledger;
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (sut != null) {
+            sut.destroy();
+        }
+    }
+
+    @Test
+    void concurrent_reservations_never_oversell() throws Exception {
+        // Arrange
+        sut = createLedger(Map.of(1, 1000.0));
+        var sold = new AtomicInteger();
+
+        // Act
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 2000; i++) {
+                executor.submit(() -> {
+                    var reservation = sut.reserve(List.of(new ProductPurchaseRequest(1, 1)));
+                    if (!reservation.isRejected()) {
+                        sut.confirm(reservation);
+                        sold.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        // Assert
+        assertEquals(1000, sold.get());
+        assertEquals(0.0, sut.quantityOf(1).getAsDouble());
+    }
+
+    @Test
+    void rejected_cart_gives_back_every_reserved_line() {
+        // Arrange
+        sut = createLedger(Map.of(1, 5.0, 2, 1.0));
+
+        // Act
+        var reservation = sut.reserve(List.of(
+                new ProductPurchaseRequest(1, 3),
+                new ProductPurchaseRequest(2, 2)));
+
+        // Assert
+        assertTrue(reservation.isRejected());
+        assertEquals(List.of(2), reservation.rejectedProductIds());
+        assertEquals(5.0, sut.quantityOf(1).getAsDouble());
+        assertEquals(1.0, sut.quantityOf(2).getAsDouble());
+    }
+
+    @Test
+    void flush_writes_accumulated_decrements_behind() {
+        // Arrange
+        sut = createLedger(Map.of(1, 10.0));
+        sut.confirm(sut.reserve(List.of(new ProductPurchaseRequest(1, 2))));
+        sut.confirm(sut.reserve(List.of(new ProductPurchaseRequest(1, 3))));
+
+        // Act
+        sut.flush();
+
+        // Assert
+        verify(repository).applyDecrements(Map.of(1, 5.0), 2L);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(List.of(1)));
+    }
+
+    @Test
+    void confirmed_reservations_publish_no_change_before_they_are_flushed() {
+        // Arrange
+        sut = createLedger(Map.of(1, 10.0));
+
+        // Act
+        sut.confirm(sut.reserve(List.of(new ProductPurchaseRequest(1, 2))));
+
+        // Assert
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void sale_is_journaled_before_the_transaction_commits() {
+        // Arrange
+        sut = createLedger(Map.of(1, 10.0));
+        var reservation = sut.reserve(List.of(new ProductPurchaseRequest(1, 2)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        Map<Integer, Double> journaled;
+        try {
+            sut.confirmOnCommit(reservation);
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+            journaled = journaledDecrements();
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(Map.of(1, 2.0), journaled);
+        assertEquals(8.0, sut.quantityOf(1).getAsDouble());
+    }
+
+    @Test
+    void commit_failing_after_the_journal_releases_and_cancels_the_sale() {
+        // Arrange
+        sut = createLedger(Map.of(1, 10.0));
+        var reservation = sut.reserve(List.of(new ProductPurchaseRequest(1, 2)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        try {
+            sut.confirmOnCommit(reservation);
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        var journaled = journaledDecrements();
+        sut.flush();
+
+        // Assert
+        assertEquals(10.0, sut.quantityOf(1).getAsDouble());
+        assertEquals(Map.of(1, 0.0), journaled);
+        verify(repository).applyDecrements(Map.of(1, 0.0), 2L);
+    }
+
+    @Test
+    void restock_reaches_the_cells_only_after_the_commit() {
+        // Arrange
+        sut = createLedger(Map.of(1, 10.0));
+        var lines = List.of(new ProductPurchaseRequest(1, 3));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        double beforeCommit;
+        try {
+            sut.restockOnCommit(lines);
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+            beforeCommit = sut.quantityOf(1).getAsDouble();
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(10.0, beforeCommit);
+        assertEquals(Map.of(1, -3.0), journaledDecrements());
+        assertEquals(13.0, sut.quantityOf(1).getAsDouble());
+    }
+
+    @Test
+    void ledger_refuses_to_start_while_another_instance_holds_the_lease() {
+        // Arrange
+        var properties = new InventoryProperties(Set.of(1), Duration.ofMillis(500), Duration.ofSeconds(10),
+                journalDir.resolve("journal.log"), true);
+        var ledger = new HotInventoryLedger(properties, repository, transactionTemplate, eventPublisher);
+        when(repository.acquireLease(anyString(), any())).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, ledger::afterSingletonsInstantiated);
+        verify(repository, never()).findQuantities(any());
+    }
+
+    @Test
+    void ledger_stops_selling_once_its_lease_is_taken_over() {
+        // Arrange
+        sut = createLedger(Map.of(1, 10.0));
+        sut.confirm(sut.reserve(List.of(new ProductPurchaseRequest(1, 2))));
+        when(repository.renewLease(anyString(), any())).thenReturn(false);
+
+        // Act
+        sut.flush();
+
+        // Assert
+        verify(repository, never()).applyDecrements(any(), anyLong());
+        verifyNoInteractions(eventPublisher);
+        assertThrows(IllegalStateException.class, () -> sut.reserve(List.of(new ProductPurchaseRequest(1, 1))));
+    }
+
+    @Test
+    void concurrent_confirmations_are_all_journaled() throws Exception {
+        // Arrange
+        sut = createLedger(Map.of(1, 1000.0));
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 200; i++) {
+                executor.submit(() -> sut.confirm(sut.reserve(List.of(new ProductPurchaseRequest(1, 1)))));
+            }
+        }
+        var journal = new InventoryJournal(journalDir.resolve("journal.log"), false);
+
+        // Act
+        var recovered = journal.recover(0);
+        journal.close();
+
+        // Assert
+        assertEquals(Map.of(1, 200.0), recovered.decrements());
+        assertEquals(200, recovered.lastSequence());
+    }
+
+    @Test
+    void journaled_decrements_are_replayed_after_a_restart() throws Exception {
+        // Arrange
+        var journal = new InventoryJournal(journalDir.resolve("journal.log"), false);
+        journal.append(1, Map.of(1, 2.0));
+        journal.append(2, Map.of(1, 4.0));
+        journal.sync(2);
+        journal.close();
+        when(repository.findCheckpoint()).thenReturn(1L);
+
+        // Act
+        sut = createLedger(Map.of(1, 10.0));
+
+        // Assert
+        verify(repository).applyDecrements(Map.of(1, 4.0), 2L);
+        verify(repository, never()).applyDecrements(eq(Map.of(1, 6.0)), anyLong());
+        assertTrue(sut.isHot(1));
+        assertFalse(sut.isHot(2));
+    }
+
+    @Test
+    void ledger_is_inert_without_hot_products() {
+        // Arrange
+        var properties = new InventoryProperties(Set.of(), Duration.ofMillis(500), Duration.ofSeconds(10),
+                journalDir.resolve("journal.log"), false);
+        sut = new HotInventoryLedger(properties, repository, transactionTemplate, eventPublisher);
+
+        // Act
+        sut.afterSingletonsInstantiated();
+        sut.flush();
+
+        // Assert
+        assertFalse(sut.isHot(1));
+        verifyNoInteractions(repository);
+    }
+
+    private Map<Integer, Double> journaledDecrements() {
+        var journal = new InventoryJournal(journalDir.resolve("journal.log"), false);
+        try (journal) {
+            return journal.recover(0).decrements();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.athar.ecommerce.inventory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(InventoryLedgerRepository.class)
+class InventoryLedgerRepositoryTest {
+
+    @Autowired
+    private InventoryLedgerRepository repository;
+
+    @Test
+    void lease_belongs_to_one_owner_until_released() {
+        // Arrange
+        var lease = Duration.ofSeconds(10);
+
+        // Act
+        var first = repository.acquireLease("first", lease);
+        var second = repository.acquireLease("second", lease);
+        var renewedByOther = repository.renewLease("second", lease);
+        var renewedByOwner = repository.renewLease("first", lease);
+        repository.releaseLease("first");
+        var secondAfterRelease = repository.acquireLease("second", lease);
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertFalse(renewedByOther);
+        assertTrue(renewedByOwner);
+        assertTrue(secondAfterRelease);
+    }
+
+    @Test
+    void expired_lease_can_be_taken_over() {
+        // Arrange
+        repository.acquireLease("crashed", Duration.ofSeconds(-1));
+
+        // Act
+        var takenOver = repository.acquireLease("next", Duration.ofSeconds(10));
+        var renewedByCrashed = repository.renewLease("crashed", Duration.ofSeconds(10));
+
+        // Assert
+        assertTrue(takenOver);
+        assertFalse(renewedByCrashed);
+    }
+}
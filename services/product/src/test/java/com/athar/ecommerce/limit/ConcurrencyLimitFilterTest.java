@@ -0,0 +1,86 @@
+package com.athar.ecommerce.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ConcurrencyLimitFilter sut;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new ConcurrencyLimitProperties(true, 4, 10, 2, 10, 1, 1.5, 0.2, 100,
+                Duration.ofSeconds(2));
+        sut = new ConcurrencyLimitFilter(properties, registry);
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        var request = new MockHttpServletRequest(method, path);
+        request.setRequestURI(path);
+        return request;
+    }
+
+    @Test
+    void purchases_over_the_write_limit_are_rejected_with_retry_after() throws Exception {
+        // Arrange
+        var writeLimiter = sut.limiterFor(request("POST", "/api/v1/products/purchase"));
+        var held = new ArrayList<ConcurrencyLimiter.Permit>();
+        for (int i = 0; i < writeLimiter.limit(); i++) {
+            held.add(writeLimiter.tryAcquire().orElseThrow());
+        }
+        var response = new MockHttpServletResponse();
+        var chain = new MockFilterChain();
+
+        // Act
+        sut.doFilter(request("POST", "/api/v1/products/purchase"), response, chain);
+
+        // Assert
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertNull(chain.getRequest());
+        assertEquals(1, registry.get("product.concurrency.rejections").tag("route", "write").counter().count());
+        held.forEach(permit -> permit.release(false));
+    }
+
+    @Test
+    void reads_are_admitted_while_writes_are_at_their_limit() throws Exception {
+        // Arrange
+        var writeLimiter = sut.limiterFor(request("POST", "/api/v1/reservations"));
+        for (int i = 0; i < writeLimiter.limit(); i++) {
+            writeLimiter.tryAcquire().orElseThrow();
+        }
+        var response = new MockHttpServletResponse();
+        var chain = new MockFilterChain();
+
+        // Act
+        sut.doFilter(request("GET", "/api/v1/products/1"), response, chain);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        assertEquals(0, sut.limiterFor(request("GET", "/api/v1/products")).inFlight());
+        assertEquals(2.0, registry.get("product.concurrency.in-flight").tag("route", "write").gauge().value());
+    }
+
+    @Test
+    void change_feed_imports_and_product_creation_are_not_limited() {
+        // Act & Assert
+        assertNull(sut.limiterFor(request("GET", "/api/v1/products/changes")));
+        assertNull(sut.limiterFor(request("POST", "/api/v1/products/import")));
+        assertNull(sut.limiterFor(request("POST", "/api/v1/products")));
+        assertNotNull(sut.limiterFor(request("POST", "/api/v1/products/quote")));
+        assertNotNull(sut.limiterFor(request("POST", "/api/v1/products/batch")));
+        assertNotNull(sut.limiterFor(request("GET", "/api/v1/reservations/0f8fad5b-d9cb-469f-a165-70867728950e")));
+    }
+}
@@ -0,0 +1,140 @@
+package com.athar.ecommerce.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientLimitTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private GradientLimit createLimit() {
+        return new GradientLimit(20, 2, 100, 1.5, 0.2, 100);
+    }
+
+    @Test
+    void steady_latency_under_load_grows_the_limit() {
+        // Arrange
+        var sut = createLimit();
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            sut.onSample(RTT, sut.limit(), false);
+        }
+
+        // Assert
+        assertTrue(sut.limit() > 40, "limit " + sut.limit());
+    }
+
+    @Test
+    void latency_that_grows_with_concurrency_settles_the_limit_near_capacity() {
+        // Arrange
+        var sut = createLimit();
+        var capacity = 10;
+        sut.onSample(RTT, 1, false);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            var inFlight = sut.limit();
+            sut.onSample(RTT * Math.max(inFlight, capacity) / capacity, inFlight, false);
+        }
+
+        // Assert
+        assertTrue(sut.limit() >= capacity && sut.limit() <= 2.5 * capacity, "limit " + sut.limit());
+    }
+
+    @Test
+    void a_slowdown_shrinks_the_limit_gradually() {
+        // Arrange
+        var sut = createLimit();
+        for (int i = 0; i < 20; i++) {
+            sut.onSample(RTT, sut.limit(), false);
+        }
+        var before = sut.limit();
+
+        // Act
+        sut.onSample(RTT * 10, sut.limit(), false);
+        var afterOne = sut.limit();
+        for (int i = 0; i < 100; i++) {
+            sut.onSample(RTT * 10, sut.limit(), false);
+        }
+
+        // Assert
+        assertTrue(afterOne < before && afterOne >= before * 0.9 - 1, afterOne + " after " + before);
+        assertTrue(sut.limit() <= 5, "limit " + sut.limit());
+    }
+
+    @Test
+    void lightly_loaded_requests_relearn_a_slower_baseline() {
+        // Arrange
+        var sut = createLimit();
+        sut.onSample(RTT, 20, false);
+
+        // Act
+        for (int i = 0; i < 500; i++) {
+            sut.onSample(RTT * 3, 1, false);
+        }
+        var before = sut.limit();
+        for (int i = 0; i < 20; i++) {
+            sut.onSample(RTT * 3, sut.limit(), false);
+        }
+
+        // Assert
+        assertTrue(sut.limit() > before, sut.limit() + " after " + before);
+    }
+
+    @Test
+    void limit_does_not_grow_without_the_traffic_to_fill_it() {
+        // Arrange
+        var sut = createLimit();
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            sut.onSample(RTT, 3, false);
+        }
+
+        // Assert
+        assertEquals(20, sut.limit());
+    }
+
+    @Test
+    void failed_requests_back_off_multiplicatively() {
+        // Arrange
+        var sut = createLimit();
+
+        // Act
+        sut.onSample(RTT, 20, true);
+        sut.onSample(RTT, 20, true);
+
+        // Assert
+        assertEquals(16, sut.limit());
+    }
+
+    @Test
+    void concurrent_samples_never_wait_and_keep_the_limit_in_bounds() {
+        // Arrange
+        var sut = createLimit();
+        var applied = new AtomicInteger();
+        var samples = 10_000;
+
+        // Act
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < samples; i++) {
+                var dropped = i % 10 == 0;
+                executor.submit(() -> {
+                    if (sut.onSample(RTT, sut.limit(), dropped)) {
+                        applied.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        // Assert
+        assertTrue(applied.get() > 0 && applied.get() <= samples, "applied " + applied.get());
+        assertTrue(sut.limit() >= 2 && sut.limit() <= 100, "limit " + sut.limit());
+    }
+}
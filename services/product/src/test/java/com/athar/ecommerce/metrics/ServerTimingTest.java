@@ -0,0 +1,40 @@
+package com.athar.ecommerce.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingTest {
+
+    @AfterEach
+    void tearDown() {
+        ServerTiming.end();
+    }
+
+    @Test
+    void stages_are_summed_and_listed_before_the_app_total() {
+        // Arrange
+        ServerTiming.begin();
+
+        // Act
+        ServerTiming.record("fetch", TimeUnit.MILLISECONDS.toNanos(2));
+        ServerTiming.record("stock", TimeUnit.MICROSECONDS.toNanos(500));
+        ServerTiming.record("fetch", TimeUnit.MILLISECONDS.toNanos(1));
+        var header = ServerTiming.current().toHeaderValue();
+
+        // Assert
+        assertTrue(header.startsWith("fetch;dur=3.00, stock;dur=0.50, app;dur="), header);
+    }
+
+    @Test
+    void recording_outside_a_request_is_ignored() {
+        // Act
+        ServerTiming.record("fetch", 1);
+
+        // Assert
+        assertNull(ServerTiming.current());
+    }
+}
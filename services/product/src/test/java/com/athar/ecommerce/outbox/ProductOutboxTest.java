@@ -0,0 +1,146 @@
+package com.athar.ecommerce.outbox;
+
+import com.athar.ecommerce.inventory.HotInventoryLedger;
+import com.athar.ecommerce.product.ProductChangedEvent;
+import com.athar.ecommerce.product.ProductPurchaseRequest;
+import com.athar.ecommerce.product.ProductStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalDouble;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnableConfigurationProperties(OutboxProperties.class)
+@Import({ProductOutboxRepository.class, ProductOutboxWriter.class, ProductOutboxRelay.class, ProductChangeFeed.class,
+        InMemoryProductChangeSink.class, ProductStockRepository.class})
+class ProductOutboxTest {
+
+    @Autowired
+    private ProductOutboxRelay relay;
+    @Autowired
+    private ProductChangeFeed changeFeed;
+    @Autowired
+    private ProductOutboxRepository outboxRepository;
+    @Autowired
+    private InMemoryProductChangeSink sink;
+    @Autowired
+    private ProductStockRepository productStockRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @MockitoBean
+    private HotInventoryLedger inventoryLedger;
+
+    private long head;
+
+    @BeforeEach
+    void setUp() {
+        when(inventoryLedger.quantityOf(anyInt())).thenReturn(OptionalDouble.empty());
+        relay.relay();
+        head = outboxRepository.findLastOffset();
+    }
+
+    @Test
+    void committed_changes_are_relayed_in_order_with_consecutive_offsets() throws Exception {
+        // Arrange
+        transactionTemplate.executeWithoutResult(status -> {
+            productStockRepository.decrementStock(List.of(new ProductPurchaseRequest(1, 1)));
+            eventPublisher.publishEvent(new ProductChangedEvent(List.of(51, 1)));
+        });
+        when(inventoryLedger.quantityOf(101)).thenReturn(OptionalDouble.of(7));
+        transactionTemplate.executeWithoutResult(status ->
+                eventPublisher.publishEvent(new ProductChangedEvent(List.of(101))));
+
+        // Act
+        relay.relay();
+        var response = changeFeed.changesSince(head, 10, Duration.ZERO);
+        var empty = changeFeed.changesSince(response.nextOffset(), 10, Duration.ZERO);
+
+        // Assert
+        assertEquals(List.of(1, 51, 101), response.changes().stream().map(ProductChange::productId).toList());
+        assertEquals(List.of(head + 1, head + 2, head + 3),
+                response.changes().stream().map(ProductChange::offset).toList());
+        assertEquals(7, response.changes().getLast().availableQuantity());
+        assertFalse(response.truncated());
+        assertEquals(response.changes(), sink.changes().subList(sink.changes().size() - 3, sink.changes().size()));
+        assertEquals(List.of(), empty.changes());
+        assertEquals(head + 3, empty.nextOffset());
+    }
+
+    @Test
+    void rolled_back_changes_never_reach_the_outbox() throws Exception {
+        // Act
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new ProductChangedEvent(List.of(1)));
+            throw new IllegalStateException("rolled back");
+        }));
+        relay.relay();
+
+        // Assert
+        assertEquals(List.of(), changeFeed.changesSince(head, 10, Duration.ZERO).changes());
+    }
+
+    @Test
+    void consumer_behind_the_retention_window_is_told_to_resynchronise() throws Exception {
+        // Arrange
+        transactionTemplate.executeWithoutResult(status ->
+                eventPublisher.publishEvent(new ProductChangedEvent(List.of(1))));
+        relay.relay();
+
+        // Act
+        outboxRepository.deleteRelayedBefore(Instant.now().plusSeconds(60));
+        var behind = changeFeed.changesSince(head, 10, Duration.ZERO);
+        var current = changeFeed.changesSince(head + 1, 10, Duration.ZERO);
+
+        // Assert
+        assertTrue(behind.truncated());
+        assertFalse(current.truncated());
+    }
+
+    @Test
+    void long_poll_returns_as_soon_as_a_change_is_relayed() throws Exception {
+        // Arrange
+        var poller = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    eventPublisher.publishEvent(new ProductChangedEvent(List.of(51))));
+            relay.relay();
+        });
+
+        // Act
+        var started = System.nanoTime();
+        var response = changeFeed.changesSince(head, 10, Duration.ofSeconds(10));
+        var waited = Duration.ofNanos(System.nanoTime() - started);
+        poller.join();
+
+        // Assert
+        assertEquals(List.of(51), response.changes().stream().map(ProductChange::productId).toList());
+        assertTrue(waited.compareTo(Duration.ofSeconds(5)) < 0);
+    }
+}
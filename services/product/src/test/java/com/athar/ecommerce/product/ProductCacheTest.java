@@ -0,0 +1,172 @@
+package com.athar.ecommerce.product;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest {
+
+    private ProductCache sut;
+
+    @BeforeEach
+    void setUp() {
+        var cacheManager = new CaffeineCacheManager(ProductCache.PRODUCTS, ProductCache.PRODUCT_CATALOG,
+                ProductCache.PRODUCT_VERSIONS);
+        sut = new ProductCache(cacheManager);
+    }
+
+    private ProductResponse createProductResponse(int id) {
+        return new ProductResponse(id, "Product " + id, "Description " + id, BigDecimal.TEN,
+                10, 1, "Electronics", "Devices and gadgets");
+    }
+
+    @Test
+    void concurrent_misses_load_the_product_once() throws Exception {
+        // Arrange
+        var loads = new AtomicInteger();
+        var start = new CountDownLatch(1);
+
+        // Act
+        try (var executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 64; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    return sut.getProduct(1, () -> {
+                        loads.incrementAndGet();
+                        return createProductResponse(1);
+                    });
+                });
+            }
+            start.countDown();
+        }
+
+        // Assert
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void product_change_evicts_the_product_and_the_catalog() {
+        // Arrange
+        sut.getProduct(1, () -> createProductResponse(1));
+        sut.getCatalog("all", () -> List.of(createProductResponse(1)));
+        var loads = new AtomicInteger();
+
+        // Act
+        sut.onProductChanged(new ProductChangedEvent(List.of(1)));
+        sut.getProduct(1, () -> {
+            loads.incrementAndGet();
+            return createProductResponse(1);
+        });
+        sut.getCatalog("all", () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void missing_product_is_cached_until_created() {
+        // Arrange
+        var loads = new AtomicInteger();
+
+        // Act
+        sut.getProduct(7, () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        var cached = sut.getProduct(7, () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        sut.onProductChanged(new ProductChangedEvent(List.of(7)));
+        var created = sut.getProduct(7, () -> createProductResponse(7));
+
+        // Assert
+        assertNull(cached);
+        assertEquals(1, loads.get());
+        assertEquals(7, created.id());
+    }
+
+    @Test
+    void batch_lookup_loads_only_uncached_ids_in_one_call() {
+        // Arrange
+        sut.getProduct(1, () -> createProductResponse(1));
+        sut.getProduct(7, () -> null);
+        var loaded = new ArrayList<List<Integer>>();
+
+        // Act
+        var found = sut.getProducts(List.of(1, 7, 2, 3), ids -> {
+            loaded.add(ids);
+            return List.of(createProductResponse(2));
+        });
+        var again = sut.getProduct(2, () -> fail("product 2 should be cached"));
+
+        // Assert
+        assertEquals(List.of(List.of(2, 3)), loaded);
+        assertEquals(Set.of(1, 2), found.keySet());
+        assertEquals(2, again.id());
+    }
+
+    @Test
+    void batch_load_overlapping_a_change_is_not_left_in_the_cache() {
+        // Arrange
+        var loads = new AtomicInteger();
+
+        // Act
+        sut.getProducts(List.of(1), ids -> {
+            // The change commits and is evicted after the loader has read the old row
+            sut.onProductChanged(new ProductChangedEvent(List.of(1)));
+            return List.of(createProductResponse(1));
+        });
+        sut.getProduct(1, () -> {
+            loads.incrementAndGet();
+            return createProductResponse(1);
+        });
+
+        // Assert
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void async_cache_mode_keeps_single_flight_and_cached_misses_on_virtual_threads() throws Exception {
+        // Arrange
+        var cacheManager = new CaffeineCacheManager(ProductCache.PRODUCTS, ProductCache.PRODUCT_CATALOG,
+                ProductCache.PRODUCT_VERSIONS);
+        new ProductCacheConfiguration().virtualThreadCacheLoading(new CacheProperties()).customize(cacheManager);
+        var cache = new ProductCache(cacheManager);
+        var loads = new AtomicInteger();
+        var start = new CountDownLatch(1);
+
+        // Act
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 256; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    return cache.getProduct(3, () -> {
+                        loads.incrementAndGet();
+                        return null;
+                    });
+                });
+            }
+            start.countDown();
+        }
+        var cached = cache.getProduct(3, () -> createProductResponse(3));
+
+        // Assert
+        assertNull(cached);
+        assertEquals(1, loads.get());
+    }
+}
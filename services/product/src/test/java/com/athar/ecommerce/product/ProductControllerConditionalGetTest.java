@@ -0,0 +1,142 @@
+package com.athar.ecommerce.product;
+
+import com.athar.ecommerce.config.CborConfiguration;
+import com.athar.ecommerce.encoded.EncodedJson;
+import com.athar.ecommerce.encoded.EncodedResponseCache;
+import com.athar.ecommerce.topk.TopProductTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ProductController.class)
+@Import(CborConfiguration.class)
+@ActiveProfiles("test")
+class ProductControllerConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @MockitoBean
+    private ProductService productService;
+    @MockitoBean
+    private ProductImportService productImportService;
+    @MockitoBean
+    private ProductCatalogProperties catalogProperties;
+    @MockitoBean
+    private TopProductTracker topProductTracker;
+    @MockitoBean
+    private EncodedResponseCache encodedResponses;
+
+    private ProductResponse createProduct(int id) {
+        return new ProductResponse(id, "Product " + id, "Description " + id, new BigDecimal("19.90"),
+                7.5, 1, "Electronics", "Devices and gadgets");
+    }
+
+    @Test
+    void not_modified_lookup_still_counts_towards_the_top_products() throws Exception {
+        // Arrange
+        when(productService.findETag(1)).thenReturn(Optional.of("\"1-3\""));
+        when(encodedResponses.getProduct(eq(1), any(), any())).thenAnswer(invocation ->
+                EncodedJson.of(createProduct(1), objectMapper.writeValueAsBytes(createProduct(1))));
+        var eTag = mockMvc.perform(get("/api/v1/products/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act
+        mockMvc.perform(get("/api/v1/products/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        // Assert
+        verify(topProductTracker, times(2)).record(1);
+        verify(encodedResponses, times(1)).getProduct(eq(1), any(), any());
+    }
+
+    @Test
+    void lookup_answered_from_the_encoded_response_cache_still_counts_towards_the_top_products() throws Exception {
+        // Arrange
+        when(productService.findETag(1)).thenReturn(Optional.of("\"1-3\""));
+        when(encodedResponses.getProduct(eq(1), any(), any())).thenAnswer(invocation ->
+                EncodedJson.of(createProduct(1), objectMapper.writeValueAsBytes(createProduct(1))));
+
+        // Act
+        mockMvc.perform(get("/api/v1/products/1"))
+                .andExpect(status().isOk());
+
+        // Assert
+        verify(topProductTracker).record(1);
+        verify(productService, never()).findById(1);
+    }
+
+    @Test
+    void json_catalog_etag_never_answers_an_ndjson_request_with_not_modified() throws Exception {
+        // Arrange
+        when(productService.findCatalogETag()).thenReturn("\"3-7\"");
+        var eTag = mockMvc.perform(get("/api/v1/products").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act
+        var ndjson = mockMvc.perform(get("/api/v1/products")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse();
+        var json = mockMvc.perform(get("/api/v1/products")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andReturn().getResponse();
+
+        // Assert
+        assertEquals(200, ndjson.getStatus());
+        assertNotEquals(eTag, ndjson.getHeader(HttpHeaders.ETAG));
+        assertEquals(304, json.getStatus());
+    }
+
+    @Test
+    void json_etag_never_answers_a_cbor_request_with_not_modified() throws Exception {
+        // Arrange
+        when(productService.findETag(1)).thenReturn(Optional.of("\"1-3\""));
+        when(encodedResponses.getProduct(eq(1), any(), any())).thenAnswer(invocation ->
+                EncodedJson.of(createProduct(1), objectMapper.writeValueAsBytes(createProduct(1))));
+        var eTag = mockMvc.perform(get("/api/v1/products/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act
+        var cbor = mockMvc.perform(get("/api/v1/products/1")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse();
+
+        // Assert
+        assertEquals(200, cbor.getStatus());
+        assertEquals(MediaType.APPLICATION_CBOR_VALUE, cbor.getContentType());
+        assertNotEquals(eTag, cbor.getHeader(HttpHeaders.ETAG));
+        mockMvc.perform(get("/api/v1/products/1")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cbor.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -0,0 +1,108 @@
+package com.athar.ecommerce.product;
+
+import com.athar.ecommerce.config.CborConfiguration;
+import com.athar.ecommerce.topk.TopProductTracker;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ProductController.class)
+@Import(CborConfiguration.class)
+@ActiveProfiles("test")
+class ProductControllerContentNegotiationTest {
+
+    private static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @MockitoBean
+    private ProductService productService;
+    @MockitoBean
+    private ProductImportService productImportService;
+    @MockitoBean
+    private ProductCatalogProperties catalogProperties;
+    @MockitoBean
+    private TopProductTracker topProductTracker;
+
+    private final CBORMapper cborMapper = new CBORMapper();
+
+    private ProductResponse createProduct(int id) {
+        return new ProductResponse(id, "Product " + id, "Description " + id, new BigDecimal("19.90"),
+                7.5, 1, "Electronics", "Devices and gadgets");
+    }
+
+    @Test
+    void find_by_id_should_answer_with_cbor_when_the_client_accepts_it() throws Exception {
+        // Arrange
+        var product = createProduct(1);
+        when(productService.findById(1)).thenReturn(product);
+
+        // Act
+        var body = mockMvc.perform(get("/api/v1/products/1").accept(CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        assertEquals(product, cborMapper.readValue(body, ProductResponse.class));
+    }
+
+    @Test
+    void find_by_id_should_default_to_json() throws Exception {
+        // Arrange
+        var product = createProduct(1);
+        when(productService.findById(1)).thenReturn(product);
+
+        // Act
+        var body = mockMvc.perform(get("/api/v1/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        assertEquals(product, objectMapper.readValue(body, ProductResponse.class));
+    }
+
+    @Test
+    void purchase_should_read_and_write_cbor() throws Exception {
+        // Arrange
+        var cart = List.of(new ProductPurchaseRequest(1, 2), new ProductPurchaseRequest(2, 1));
+        var purchased = List.of(
+                new ProductPurchaseResponse(1, "Product 1", "Description 1", new BigDecimal("19.90"), 2),
+                new ProductPurchaseResponse(2, "Product 2", "Description 2", new BigDecimal("5.00"), 1));
+        when(productService.purchaseProduct(cart)).thenReturn(purchased);
+
+        // Act
+        var body = mockMvc.perform(post("/api/v1/products/purchase")
+                        .contentType(CBOR)
+                        .accept(CBOR)
+                        .content(cborMapper.writeValueAsBytes(cart)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        assertEquals(purchased, cborMapper.readValue(body, new TypeReference<List<ProductPurchaseResponse>>() {
+        }));
+    }
+}
@@ -0,0 +1,119 @@
+package com.athar.ecommerce.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductImportServiceTest {
+
+    private final ProductImportRepository repository = mock(ProductImportRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private ProductImportService sut;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findCategoryIds()).thenReturn(Set.of(1, 51));
+        when(repository.allocateIds(anyInt())).thenAnswer(invocation ->
+                IntStream.rangeClosed(1, 50).boxed().toList());
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        sut = new ProductImportService(repository, new ProductImportProperties(2, 100), transactionTemplate,
+                eventPublisher, new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void json_import_inserts_valid_rows_in_batches_and_reports_rejected_rows() throws Exception {
+        // Arrange
+        var json = """
+                [
+                  {"name": "Kettle", "description": "Steel kettle", "price": 25.5, "availableQuantity": 10, "categoryId": 1},
+                  {"name": "Toaster", "description": "Two slots", "price": 30, "availableQuantity": 5, "categoryId": 1},
+                  {"description": "No name", "price": 30, "availableQuantity": 5, "categoryId": 1},
+                  {"name": "Lamp", "description": "Desk lamp", "price": "cheap", "availableQuantity": 5, "categoryId": 1},
+                  {"name": "Ball", "description": "Football", "price": 12, "availableQuantity": 3, "categoryId": 999},
+                  {"name": "Racket", "description": "Squash racket", "price": 70, "availableQuantity": 8, "categoryId": 51}
+                ]
+                """;
+
+        // Act
+        var response = sut.importJson(body(json));
+
+        // Assert
+        assertEquals(3, response.accepted());
+        assertEquals(3, response.rejected());
+        assertEquals(List.of(3L, 4L, 5L), response.errors().stream().map(ProductImportError::row).toList());
+        assertEquals("Category with id 999 does not exist", response.errors().get(2).reason());
+        verify(repository, times(2)).insertAll(anyList(), anyList());
+        verify(eventPublisher, times(2)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void malformed_json_keeps_the_rows_read_so_far() throws Exception {
+        // Arrange
+        var json = """
+                [{"name": "Kettle", "description": "Steel kettle", "price": 25.5, "availableQuantity": 10, "categoryId": 1},
+                 {"name": "Toaster", "description"
+                """;
+
+        // Act
+        var response = sut.importJson(body(json));
+
+        // Assert
+        assertEquals(1, response.accepted());
+        assertEquals(1, response.rejected());
+        assertTrue(response.errors().getFirst().reason().startsWith("Malformed JSON"));
+    }
+
+    @Test
+    void csv_import_maps_columns_by_header() throws Exception {
+        // Arrange
+        var csv = """
+                categoryId,name,description,price,availableQuantity
+                1,Kettle,"Steel kettle, 1.7l",25.5,10
+                1,"Toaster \"\"Deluxe\"\"",Two slots,abc,5
+                """;
+        var inserted = new ArrayList<ProductRequest>();
+        doAnswer(invocation -> inserted.addAll(invocation.getArgument(1)))
+                .when(repository).insertAll(anyList(), anyList());
+
+        // Act
+        var response = sut.importCsv(body(csv));
+
+        // Assert
+        assertEquals(1, response.accepted());
+        assertEquals(1, response.rejected());
+        assertEquals(2, response.errors().getFirst().row());
+        assertEquals(1, inserted.size());
+        assertEquals("Steel kettle, 1.7l", inserted.getFirst().description());
+    }
+
+    @Test
+    void csv_line_parser_handles_quotes() {
+        assertEquals(List.of("a", "b,c", "say \"hi\"", ""),
+                ProductImportService.parseCsvLine("a,\"b,c\",\"say \"\"hi\"\"\","));
+    }
+}
@@ -0,0 +1,98 @@
+package com.athar.ecommerce.product;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductStockRepository.class)
+class ProductRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductStockRepository productStockRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void find_by_id_projection_runs_one_query_without_loading_entities() {
+        // Act
+        var product = productRepository.findResponseById(1).orElseThrow();
+
+        // Assert
+        assertEquals("Smartphone", product.name());
+        assertEquals("Electronics", product.categoryName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void find_all_projection_runs_one_query_without_loading_entities() {
+        // Act
+        var products = productRepository.findAllResponses();
+
+        // Assert
+        assertEquals(11, products.size());
+        assertNotNull(products.getFirst().categoryDescription());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void batch_projection_runs_one_query_in_id_order() {
+        // Act
+        var products = productRepository.findAllByIdInOrderById(List.of(101, 1, 51));
+
+        // Assert
+        assertEquals(List.of(1, 51, 101), products.stream().map(ProductResponse::id).toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void entity_read_hydrates_products_for_comparison() {
+        // Act
+        var products = productRepository.findAll();
+
+        // Assert
+        assertEquals(11, products.size());
+        assertEquals(11, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void stock_updates_move_the_product_to_a_new_version() {
+        // Arrange
+        var before = productRepository.findVersionById(1).orElseThrow();
+        var untouched = productRepository.findVersionById(51).orElseThrow();
+
+        // Act
+        productStockRepository.decrementStock(List.of(new ProductPurchaseRequest(1, 1)));
+
+        // Assert
+        assertTrue(productRepository.findVersionById(1).orElseThrow() > before);
+        assertEquals(untouched, productRepository.findVersionById(51).orElseThrow());
+        assertTrue(productRepository.findVersionById(9999).isEmpty());
+    }
+}
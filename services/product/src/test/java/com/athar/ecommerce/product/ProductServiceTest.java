@@ -0,0 +1,278 @@
+package com.athar.ecommerce.product;
+
+import com.athar.ecommerce.exception.ProductPurchaseException;
+import com.athar.ecommerce.inventory.HotInventoryLedger;
+import com.athar.ecommerce.inventory.LedgerStockOverlay;
+import com.athar.ecommerce.inventory.LedgerReservation;
+import com.athar.ecommerce.topk.TopProductTracker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.junit.jupiter.api.BeforeEach;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.OptionalDouble;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductStockRepository productStockRepository;
+    @Mock
+    private HotInventoryLedger inventoryLedger;
+    @Mock
+    private LedgerStockOverlay ledgerStock;
+    @Mock
+    private PurchaseCoalescer purchaseCoalescer;
+    @Mock
+    private TopProductTracker topProductTracker;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private ProductMapper mapper;
+    @Spy
+    private ProductCache productCache = new ProductCache(new CaffeineCacheManager(
+            ProductCache.PRODUCTS, ProductCache.PRODUCT_CATALOG, ProductCache.PRODUCT_VERSIONS));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private PurchaseMetrics purchaseMetrics = new PurchaseMetrics(meterRegistry);
+    @InjectMocks
+    private ProductService sut;
+
+    // Test Data Helper Methods
+    private ProductResponse createProduct(int id, double availableQuantity) {
+        return new ProductResponse(id, "Product " + id, "Description " + id, BigDecimal.valueOf(9.99),
+                availableQuantity, 1, "Electronics", "Devices and gadgets");
+    }
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(ledgerStock.apply(any()))
+                .thenAnswer(invocation -> new LedgerStockOverlay(inventoryLedger).apply(invocation.getArgument(0)));
+    }
+
+    @Test
+    void purchase_merges_duplicate_lines_and_decrements_in_id_order() {
+        // Arrange
+        var request = List.of(
+                new ProductPurchaseRequest(51, 2),
+                new ProductPurchaseRequest(1, 1),
+                new ProductPurchaseRequest(51, 3)
+        );
+        when(productStockRepository.decrementStock(anyList())).thenReturn(new int[]{1, 1});
+        when(productRepository.findAllByIdInOrderById(List.of(1, 51)))
+                .thenReturn(List.of(createProduct(1, 9), createProduct(51, 5)));
+
+        // Act
+        var responses = sut.purchaseProduct(request);
+
+        // Assert
+        verify(productStockRepository).decrementStock(List.of(
+                new ProductPurchaseRequest(1, 1),
+                new ProductPurchaseRequest(51, 5)
+        ));
+        assertEquals(2, responses.size());
+        assertEquals(1, responses.get(0).id());
+        assertEquals(5, responses.get(1).quantity());
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(List.of(1, 51)));
+        assertEquals(1, meterRegistry.get("product.purchase.stage").tag("stage", "stock").timer().count());
+        assertEquals(2, meterRegistry.get("product.purchase.cart.items").summary().totalAmount());
+    }
+
+    @Test
+    void purchase_publishes_changes_only_for_rows_it_updated() {
+        // Arrange
+        var request = List.of(
+                new ProductPurchaseRequest(1, 1),
+                new ProductPurchaseRequest(51, 2)
+        );
+        when(inventoryLedger.isHot(anyInt())).thenAnswer(invocation -> invocation.<Integer>getArgument(0) == 51);
+        when(inventoryLedger.reserve(List.of(new ProductPurchaseRequest(51, 2))))
+                .thenReturn(new LedgerReservation(List.of(new ProductPurchaseRequest(51, 2)), List.of()));
+        when(productStockRepository.decrementStock(anyList())).thenReturn(new int[]{1});
+        when(productRepository.findAllByIdInOrderById(List.of(1, 51)))
+                .thenReturn(List.of(createProduct(1, 9), createProduct(51, 5)));
+
+        // Act
+        sut.purchaseProduct(request);
+
+        // Assert
+        verify(productStockRepository).decrementStock(List.of(new ProductPurchaseRequest(1, 1)));
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(List.of(1)));
+    }
+
+    @Test
+    void purchase_reports_every_failed_line() {
+        // Arrange
+        var request = List.of(
+                new ProductPurchaseRequest(1, 100),
+                new ProductPurchaseRequest(51, 1),
+                new ProductPurchaseRequest(999, 1)
+        );
+        when(productStockRepository.decrementStock(anyList())).thenReturn(new int[]{0, 1, 0});
+        when(productRepository.findAllByIdInOrderById(List.of(1, 51, 999)))
+                .thenReturn(List.of(createProduct(1, 9), createProduct(51, 5)));
+
+        // Act & Assert
+        var exception = assertThrows(ProductPurchaseException.class, () -> sut.purchaseProduct(request));
+
+        assertEquals(2, exception.getFailures().size());
+        assertEquals("Not enough stock for product ID 1", exception.getFailures().get("product 1"));
+        assertEquals("Product does not exist", exception.getFailures().get("product 999"));
+        verifyNoInteractions(eventPublisher);
+        assertEquals(1, meterRegistry.get("product.purchase.rejections").tag("reason", "out-of-stock").counter().count());
+        assertEquals(1, meterRegistry.get("product.purchase.rejections").tag("reason", "not-found").counter().count());
+        assertEquals(1, meterRegistry.get("product.purchase.rejected.carts").counter().count());
+    }
+
+    @Test
+    void purchase_rejects_non_positive_lines_before_touching_stock() {
+        // Arrange
+        var request = List.of(
+                new ProductPurchaseRequest(1, 2),
+                new ProductPurchaseRequest(51, -5),
+                new ProductPurchaseRequest(101, 0)
+        );
+
+        // Act & Assert
+        var exception = assertThrows(ProductPurchaseException.class, () -> sut.purchaseProduct(request));
+        assertEquals("Quantity must be positive", exception.getFailures().get("product 51"));
+        assertEquals("Quantity must be positive", exception.getFailures().get("product 101"));
+        assertEquals(2, exception.getFailures().size());
+        verifyNoInteractions(productStockRepository, inventoryLedger, purchaseCoalescer, eventPublisher);
+    }
+
+    @Test
+    void purchase_is_handed_to_the_coalescer_when_enabled() {
+        // Arrange
+        var request = List.of(new ProductPurchaseRequest(51, 2), new ProductPurchaseRequest(1, 1));
+        var expected = List.of(new ProductPurchaseResponse(1, "Product 1", "Description 1", BigDecimal.ONE, 1));
+        when(purchaseCoalescer.isEnabled()).thenReturn(true);
+        when(purchaseCoalescer.purchase(anyList())).thenReturn(expected);
+
+        // Act
+        var responses = sut.purchaseProduct(request);
+
+        // Assert
+        assertSame(expected, responses);
+        verify(purchaseCoalescer).purchase(List.of(
+                new ProductPurchaseRequest(1, 1),
+                new ProductPurchaseRequest(51, 2)
+        ));
+        verifyNoInteractions(productStockRepository, transactionTemplate);
+    }
+
+    @Test
+    void find_all_by_id_keeps_request_order_and_reports_missing_ids() {
+        // Arrange
+        when(productRepository.findAllByIdInOrderById(List.of(51, 999, 1)))
+                .thenReturn(List.of(createProduct(1, 9), createProduct(51, 5)));
+        when(inventoryLedger.quantityOf(anyInt())).thenReturn(OptionalDouble.empty());
+        when(inventoryLedger.quantityOf(51)).thenReturn(OptionalDouble.of(3));
+
+        // Act
+        var response = sut.findAllById(List.of(51, 999, 1, 51));
+
+        // Assert
+        assertEquals(List.of(51, 1), response.products().stream().map(ProductResponse::id).toList());
+        assertEquals(3, response.products().getFirst().availableQuantity());
+        assertEquals(List.of(999), response.missingIds());
+    }
+
+    @Test
+    void quote_prices_merged_lines_against_ledger_stock_without_locking() {
+        // Arrange
+        var request = List.of(
+                new ProductPurchaseRequest(51, 1),
+                new ProductPurchaseRequest(1, 2),
+                new ProductPurchaseRequest(51, 2)
+        );
+        when(productRepository.findAllByIdInOrderById(List.of(1, 51)))
+                .thenReturn(List.of(createProduct(1, 9), createProduct(51, 0)));
+        when(inventoryLedger.quantityOf(anyInt())).thenReturn(OptionalDouble.empty());
+        when(inventoryLedger.quantityOf(51)).thenReturn(OptionalDouble.of(4));
+
+        // Act
+        var quote = sut.quote(request);
+
+        // Assert
+        assertTrue(quote.fulfillable());
+        assertEquals(List.of(1, 51), quote.lines().stream().map(CartQuoteLine::productId).toList());
+        assertEquals(new BigDecimal("19.98"), quote.lines().get(0).lineTotal());
+        assertEquals(4, quote.lines().get(1).availableQuantity());
+        assertEquals(new BigDecimal("49.95"), quote.total());
+        assertTrue(quote.problems().isEmpty());
+        verifyNoInteractions(productStockRepository, transactionTemplate, eventPublisher);
+    }
+
+    @Test
+    void quote_collects_every_problem_instead_of_failing() {
+        // Arrange
+        var request = List.of(
+                new ProductPurchaseRequest(1, 100),
+                new ProductPurchaseRequest(51, 1),
+                new ProductPurchaseRequest(101, 6),
+                new ProductPurchaseRequest(999, 1)
+        );
+        when(productRepository.findAllByIdInOrderById(List.of(1, 51, 101, 999)))
+                .thenReturn(List.of(createProduct(1, 9), createProduct(51, 5), createProduct(101, 5)));
+        when(inventoryLedger.quantityOf(anyInt())).thenReturn(OptionalDouble.empty());
+
+        // Act
+        var quote = sut.quote(request);
+
+        // Assert
+        assertFalse(quote.fulfillable());
+        assertEquals(4, quote.lines().size());
+        assertFalse(quote.lines().get(0).available());
+        assertNull(quote.lines().get(3).unitPrice());
+        assertEquals(new BigDecimal("1068.93"), quote.total());
+        assertEquals(3, quote.problems().size());
+        assertEquals("Not enough stock for product ID 1", quote.problems().get("product 1"));
+        assertEquals("Not enough stock for product ID 101", quote.problems().get("product 101"));
+        assertEquals("Product does not exist", quote.problems().get("product 999"));
+    }
+
+    @Test
+    void quote_reports_non_positive_lines_next_to_the_other_problems() {
+        // Arrange
+        var request = List.of(
+                new ProductPurchaseRequest(1, 2),
+                new ProductPurchaseRequest(51, -1),
+                new ProductPurchaseRequest(999, 1)
+        );
+        when(productRepository.findAllByIdInOrderById(List.of(1, 999))).thenReturn(List.of(createProduct(1, 9)));
+        when(inventoryLedger.quantityOf(anyInt())).thenReturn(OptionalDouble.empty());
+
+        // Act
+        var quote = sut.quote(request);
+
+        // Assert
+        assertFalse(quote.fulfillable());
+        assertEquals("Quantity must be positive", quote.problems().get("product 51"));
+        assertEquals("Product does not exist", quote.problems().get("product 999"));
+        assertEquals(List.of(1, 999), quote.lines().stream().map(CartQuoteLine::productId).toList());
+        assertEquals(new BigDecimal("19.98"), quote.total());
+    }
+}
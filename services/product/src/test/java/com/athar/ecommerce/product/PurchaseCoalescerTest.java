@@ -0,0 +1,173 @@
+package com.athar.ecommerce.product;
+
+import com.athar.ecommerce.exception.ProductPurchaseException;
+import com.athar.ecommerce.inventory.HotInventoryLedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PurchaseCoalescerTest {
+
+    @Mock
+    private ProductStockRepository productStockRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private HotInventoryLedger inventoryLedger;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private PurchaseCoalescer sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new PurchaseCoalescer(new PurchaseCoalescingProperties(true, Duration.ofMillis(2), 256, Duration.ofMillis(200)),
+                productStockRepository, productRepository, new ProductMapper(), inventoryLedger,
+                transactionTemplate, eventPublisher, new PurchaseMetrics(new SimpleMeterRegistry()));
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    // Test Data Helper Methods
+    private PurchaseCoalescer.PendingPurchase pending(ProductPurchaseRequest... lines) {
+        return new PurchaseCoalescer.PendingPurchase(List.of(lines), new CompletableFuture<>());
+    }
+
+    private LockedProduct lockedProduct(int id, double availableQuantity) {
+        return new LockedProduct(id, "Product " + id, "Description " + id, BigDecimal.valueOf(9.99), availableQuantity);
+    }
+
+    @Test
+    void flush_applies_carts_in_arrival_order_with_one_lock_and_one_update() throws Exception {
+        // Arrange
+        var first = pending(new ProductPurchaseRequest(1, 3), new ProductPurchaseRequest(2, 1));
+        var second = pending(new ProductPurchaseRequest(1, 2));
+        var third = pending(new ProductPurchaseRequest(1, 1));
+        when(productStockRepository.lockStock(Set.of(1, 2)))
+                .thenReturn(List.of(lockedProduct(1, 4), lockedProduct(2, 10)));
+
+        // Act
+        sut.flush(List.of(first, second, third));
+
+        // Assert
+        assertEquals(3, first.result().get().get(0).quantity());
+        var exception = assertThrows(ExecutionException.class, () -> second.result().get());
+        assertEquals("Not enough stock for product ID 1",
+                ((ProductPurchaseException) exception.getCause()).getFailures().get("product 1"));
+        assertEquals(1, third.result().get().size());
+        verify(productStockRepository).lockStock(Set.of(1, 2));
+        verify(productStockRepository).updateStock(Map.of(1, 0.0, 2, 9.0));
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(List.of(1, 2)));
+    }
+
+    @Test
+    void flush_reports_missing_products_per_cart() throws Exception {
+        // Arrange
+        var missing = pending(new ProductPurchaseRequest(999, 1));
+        var valid = pending(new ProductPurchaseRequest(1, 1));
+        when(productStockRepository.lockStock(Set.of(1, 999))).thenReturn(List.of(lockedProduct(1, 5)));
+
+        // Act
+        sut.flush(List.of(missing, valid));
+
+        // Assert
+        var exception = assertThrows(ExecutionException.class, () -> missing.result().get());
+        assertEquals("Product does not exist",
+                ((ProductPurchaseException) exception.getCause()).getFailures().get("product 999"));
+        assertEquals(1, valid.result().get().get(0).id());
+        verify(productStockRepository).updateStock(Map.of(1, 4.0));
+    }
+
+    @Test
+    void flush_fails_every_cart_when_the_transaction_fails() {
+        // Arrange
+        var first = pending(new ProductPurchaseRequest(1, 1));
+        var second = pending(new ProductPurchaseRequest(2, 1));
+        when(productStockRepository.lockStock(Set.of(1, 2))).thenThrow(new CannotAcquireLockException("timeout"));
+
+        // Act
+        sut.flush(List.of(first, second));
+
+        // Assert
+        assertInstanceOf(CannotAcquireLockException.class,
+                assertThrows(ExecutionException.class, () -> first.result().get()).getCause());
+        assertInstanceOf(CannotAcquireLockException.class,
+                assertThrows(ExecutionException.class, () -> second.result().get()).getCause());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void purchase_gives_up_after_the_timeout_instead_of_waiting_forever() {
+        // Arrange
+        var release = new CountDownLatch(1);
+        when(productStockRepository.lockStock(Set.of(1))).thenReturn(List.of(lockedProduct(1, 5)));
+        doAnswer(invocation -> {
+            release.await();
+            return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+        }).when(transactionTemplate).execute(any());
+        sut.start();
+
+        // Act & Assert
+        try {
+            var exception = assertThrows(IllegalStateException.class,
+                    () -> sut.purchase(List.of(new ProductPurchaseRequest(1, 1))));
+            assertTrue(exception.getMessage().endsWith("its outcome is unknown"), exception.getMessage());
+        } finally {
+            release.countDown();
+            sut.stop();
+        }
+    }
+
+    @Test
+    void flusher_survives_an_unexpected_error_and_fails_only_the_carts_it_held() {
+        // Arrange
+        when(productStockRepository.lockStock(Set.of(1))).thenReturn(List.of(lockedProduct(1, 5)));
+        doThrow(new StackOverflowError())
+                .doAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+        sut.start();
+
+        // Act & Assert
+        try {
+            var exception = assertThrows(IllegalStateException.class,
+                    () -> sut.purchase(List.of(new ProductPurchaseRequest(1, 1))));
+            assertInstanceOf(StackOverflowError.class, exception.getCause());
+            assertEquals(1, sut.purchase(List.of(new ProductPurchaseRequest(1, 1))).size());
+        } finally {
+            sut.stop();
+        }
+    }
+
+    @Test
+    void purchase_is_refused_once_the_coalescer_stopped() {
+        // Arrange
+        sut.start();
+        sut.stop();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> sut.purchase(List.of(new ProductPurchaseRequest(1, 1))));
+    }
+}
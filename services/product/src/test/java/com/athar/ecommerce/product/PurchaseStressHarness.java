@@ -0,0 +1,250 @@
+package com.athar.ecommerce.product;
+
+import com.athar.ecommerce.exception.ProductPurchaseException;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.Function;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.LongSupplier;
+
+import static java.lang.String.format;
+
+/**
+ * Fires overlapping carts at a few products from many threads for a fixed time, the way a sale on a
+ * handful of items hits the purchase path. Every cart is a random mix of the products, with
+ * repeated lines now and then. Carts failing on a deadlock or a lock timeout are retried like a
+ * client would; carts rejected for stock are not.
+ *
+ * <p>While it runs, a sampler keeps the lowest stock seen for any product, so a transient oversell
+ * is caught even if later restocks would hide it at the end.
+ */
+class PurchaseStressHarness {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(5);
+
+    private final Function<List<ProductPurchaseRequest>, List<ProductPurchaseResponse>> purchase;
+    private final IntToDoubleFunction stockOf;
+    private final LongSupplier lockWaitNanos;
+
+    /**
+     * @param purchase      the purchase path under test
+     * @param stockOf       current stock of a product, wherever that product's stock is kept
+     * @param lockWaitNanos total time spent so far acquiring and updating stock rows
+     */
+    PurchaseStressHarness(Function<List<ProductPurchaseRequest>, List<ProductPurchaseResponse>> purchase,
+                          IntToDoubleFunction stockOf,
+                          LongSupplier lockWaitNanos) {
+        this.purchase = purchase;
+        this.stockOf = stockOf;
+        this.lockWaitNanos = lockWaitNanos;
+    }
+
+    Report run(List<Integer> productIds, Settings settings) throws Exception {
+        var initialStock = stockOf(productIds);
+        var sold = new ConcurrentHashMap<Integer, DoubleAdder>();
+        productIds.forEach(productId -> sold.put(productId, new DoubleAdder()));
+        var counters = new Counters();
+        var lowestStock = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        var lockWaitBefore = lockWaitNanos.getAsLong();
+
+        var start = new CountDownLatch(1);
+        var deadline = new AtomicLong();
+        var workers = new ArrayList<Future<long[]>>(settings.threads());
+        long elapsed;
+        try (var executor = Executors.newFixedThreadPool(settings.threads() + 1)) {
+            for (int i = 0; i < settings.threads(); i++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    return purchaseUntil(deadline.get(), productIds, settings, sold, counters);
+                }));
+            }
+            var sampler = executor.submit(() -> {
+                start.await();
+                while (System.nanoTime() < deadline.get()) {
+                    for (var productId : productIds) {
+                        lowestStock.accumulate((long) Math.floor(stockOf.applyAsDouble(productId)));
+                    }
+                    TimeUnit.MILLISECONDS.sleep(SAMPLE_INTERVAL.toMillis());
+                }
+                return null;
+            });
+
+            var startedAt = System.nanoTime();
+            deadline.set(startedAt + settings.duration().toNanos());
+            start.countDown();
+            var latencies = new ArrayList<long[]>(workers.size());
+            for (var worker : workers) {
+                latencies.add(worker.get());
+            }
+            elapsed = System.nanoTime() - startedAt;
+            sampler.get();
+
+            var merged = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            var soldTotals = new ConcurrentHashMap<Integer, Double>();
+            sold.forEach((productId, quantity) -> soldTotals.put(productId, quantity.sum()));
+            return new Report(
+                    Duration.ofNanos(elapsed),
+                    counters.purchased.get(),
+                    counters.rejected.get(),
+                    counters.deadlocks.get(),
+                    counters.lockTimeouts.get(),
+                    counters.retries.get(),
+                    counters.failed.get(),
+                    Duration.ofNanos(percentile(merged, 0.50)),
+                    Duration.ofNanos(percentile(merged, 0.99)),
+                    Duration.ofNanos(lockWaitNanos.getAsLong() - lockWaitBefore),
+                    lowestStock.get(),
+                    initialStock,
+                    soldTotals);
+        }
+    }
+
+    Map<Integer, Double> stockOf(List<Integer> productIds) {
+        var stock = new ConcurrentHashMap<Integer, Double>();
+        productIds.forEach(productId -> stock.put(productId, stockOf.applyAsDouble(productId)));
+        return stock;
+    }
+
+    /**
+     * @return the latency of every cart this thread completed, retries included, in nanoseconds
+     */
+    private long[] purchaseUntil(long deadline, List<Integer> productIds, Settings settings,
+                                 Map<Integer, DoubleAdder> sold, Counters counters) {
+        var latencies = new long[1024];
+        var completed = 0;
+        var random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            var cart = randomCart(random, productIds, settings.maxCartLines());
+            var startedAt = System.nanoTime();
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                try {
+                    purchase.apply(cart).forEach(line -> sold.get(line.id()).add(line.quantity()));
+                    counters.purchased.incrementAndGet();
+                    break;
+                } catch (ProductPurchaseException e) {
+                    counters.rejected.incrementAndGet();
+                    break;
+                } catch (PessimisticLockingFailureException e) {
+                    (e instanceof CannotAcquireLockException ? counters.lockTimeouts : counters.deadlocks)
+                            .incrementAndGet();
+                    if (attempt == MAX_ATTEMPTS) {
+                        counters.failed.incrementAndGet();
+                    } else {
+                        counters.retries.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    counters.failed.incrementAndGet();
+                    break;
+                }
+            }
+            if (completed == latencies.length) {
+                latencies = Arrays.copyOf(latencies, completed * 2);
+            }
+            latencies[completed++] = System.nanoTime() - startedAt;
+        }
+        return Arrays.copyOf(latencies, completed);
+    }
+
+    private static List<ProductPurchaseRequest> randomCart(ThreadLocalRandom random, List<Integer> productIds,
+                                                           int maxCartLines) {
+        var lines = random.nextInt(1, maxCartLines + 1);
+        var cart = new ArrayList<ProductPurchaseRequest>(lines);
+        for (int i = 0; i < lines; i++) {
+            var productId = productIds.get(random.nextInt(productIds.size()));
+            cart.add(new ProductPurchaseRequest(productId, random.nextInt(1, 4)));
+        }
+        return cart;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    /**
+     * @param threads      concurrent buyers
+     * @param duration     how long they keep buying
+     * @param maxCartLines lines per cart, before repeated lines are merged
+     */
+    record Settings(int threads, Duration duration, int maxCartLines) {
+
+        /**
+         * Defaults small enough for every build, raised with {@code -Dstress.threads},
+         * {@code -Dstress.duration} (ISO-8601, e.g. {@code PT30S}) and {@code -Dstress.max-cart-lines}.
+         */
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("stress.threads", 16),
+                    Duration.parse(System.getProperty("stress.duration", "PT2S")),
+                    Integer.getInteger("stress.max-cart-lines", 4));
+        }
+    }
+
+    /**
+     * @param failed      carts that ran out of retries or failed with anything but a stock rejection
+     * @param lockWait    time spent in the stock stages of the purchase path, which under contention
+     *                    is mostly waiting for row locks held by other carts
+     * @param lowestStock lowest stock sampled for any product during the run, rounded down
+     */
+    record Report(
+            Duration elapsed,
+            long purchased,
+            long rejected,
+            long deadlocks,
+            long lockTimeouts,
+            long retries,
+            long failed,
+            Duration p50,
+            Duration p99,
+            Duration lockWait,
+            long lowestStock,
+            Map<Integer, Double> initialStock,
+            Map<Integer, Double> sold
+    ) {
+
+        long carts() {
+            return purchased + rejected + failed;
+        }
+
+        double throughput() {
+            return carts() / (elapsed.toNanos() / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return format("%d carts in %d ms (%.0f carts/s): %d purchased, %d rejected, %d failed; "
+                            + "p50 %.2f ms, p99 %.2f ms; %d deadlocks, %d lock timeouts, %d retries; "
+                            + "lock wait %d ms; lowest stock %d",
+                    carts(), elapsed.toMillis(), throughput(), purchased, rejected, failed,
+                    p50.toNanos() / 1e6, p99.toNanos() / 1e6, deadlocks, lockTimeouts, retries,
+                    lockWait.toMillis(), lowestStock);
+        }
+    }
+
+    private static final class Counters {
+        final AtomicLong purchased = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong deadlocks = new AtomicLong();
+        final AtomicLong lockTimeouts = new AtomicLong();
+        final AtomicLong retries = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+    }
+}
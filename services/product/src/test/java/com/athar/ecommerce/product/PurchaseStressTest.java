@@ -0,0 +1,138 @@
+package com.athar.ecommerce.product;
+
+import com.athar.ecommerce.inventory.HotInventoryLedger;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Regression gate for the purchase path under contention, against the embedded database: however
+ * the carts interleave, no product may be oversold and every unit sold must be accounted for.
+ * Each nested class runs the same load through a different purchase path. The defaults keep the
+ * run short; see {@link PurchaseStressHarness.Settings} for scaling it up.
+ */
+@Slf4j
+@SpringBootTest(properties = "product.inventory.journal-path=target/purchase-stress/${random.uuid}.log")
+@ActiveProfiles("test")
+class PurchaseStressTest {
+
+    private static final int PRODUCTS = 5;
+    private static final double STOCK = 500;
+
+    abstract static class Scenario {
+
+        @Autowired
+        private ProductService productService;
+        @Autowired
+        private HotInventoryLedger inventoryLedger;
+        @Autowired
+        private NamedParameterJdbcTemplate jdbcTemplate;
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        private List<Integer> productIds;
+        private Map<Integer, Double> seededStock;
+        private PurchaseStressHarness harness;
+
+        @BeforeEach
+        void setUp() {
+            productIds = jdbcTemplate.queryForList("SELECT id FROM product ORDER BY id LIMIT :limit",
+                    new MapSqlParameterSource("limit", PRODUCTS), Integer.class);
+            seededStock = productIds.stream()
+                    .collect(Collectors.toMap(Function.identity(), this::storedStockOf));
+            var restocked = productIds.stream()
+                    .filter(productId -> !inventoryLedger.isHot(productId))
+                    .toList();
+            jdbcTemplate.update("UPDATE product SET available_quantity = :stock WHERE id IN (:ids)",
+                    new MapSqlParameterSource()
+                            .addValue("stock", STOCK)
+                            .addValue("ids", restocked));
+            harness = new PurchaseStressHarness(productService::purchaseProduct, this::stockOf,
+                    () -> stageNanos("lock") + stageNanos("stock"));
+        }
+
+        /**
+         * The embedded database is shared with the other tests, which expect the seeded stock.
+         */
+        @AfterEach
+        void restoreSeededStock() {
+            inventoryLedger.flush();
+            jdbcTemplate.batchUpdate("UPDATE product SET available_quantity = :stock WHERE id = :id",
+                    seededStock.entrySet().stream()
+                            .map(entry -> new MapSqlParameterSource()
+                                    .addValue("id", entry.getKey())
+                                    .addValue("stock", entry.getValue()))
+                            .toArray(MapSqlParameterSource[]::new));
+        }
+
+        private double stockOf(int productId) {
+            return inventoryLedger.quantityOf(productId).orElseGet(() -> storedStockOf(productId));
+        }
+
+        private double storedStockOf(int productId) {
+            return jdbcTemplate.queryForObject("SELECT available_quantity FROM product WHERE id = :id",
+                    new MapSqlParameterSource("id", productId), Double.class);
+        }
+
+        private long stageNanos(String stage) {
+            return (long) meterRegistry.find("product.purchase.stage").tag("stage", stage).timers().stream()
+                    .mapToDouble(timer -> timer.totalTime(TimeUnit.NANOSECONDS))
+                    .sum();
+        }
+
+        @Test
+        void overlapping_carts_never_oversell() throws Exception {
+            // Act
+            var report = harness.run(productIds, PurchaseStressHarness.Settings.fromSystemProperties());
+            inventoryLedger.flush();
+            var finalStock = harness.stockOf(productIds);
+
+            // Assert
+            log.info("{}: {}", getClass().getSimpleName(), report);
+            assertEquals(0, report.failed(), report::toString);
+            assertTrue(report.purchased() > 0, report::toString);
+            assertTrue(report.lowestStock() >= 0, report::toString);
+            for (var productId : productIds) {
+                var remaining = finalStock.get(productId);
+                assertTrue(remaining >= 0, () -> "product " + productId + " went negative: " + remaining);
+                assertEquals(report.initialStock().get(productId) - remaining, report.sold().get(productId),
+                        1e-6, () -> "units sold of product " + productId + " do not match its stock");
+                if (inventoryLedger.isHot(productId)) {
+                    assertEquals(remaining, storedStockOf(productId), 1e-6,
+                            () -> "flushed stock of hot product " + productId + " does not match the ledger");
+                }
+            }
+        }
+    }
+
+    @Nested
+    class GuardedUpdates extends Scenario {
+    }
+
+    @Nested
+    @TestPropertySource(properties = "product.purchase.coalescing.enabled=true")
+    class CoalescedPurchases extends Scenario {
+    }
+
+    @Nested
+    @TestPropertySource(properties = "product.inventory.hot-product-ids=1,51")
+    class HotAndStoredProducts extends Scenario {
+    }
+}
@@ -0,0 +1,72 @@
+package com.athar.ecommerce.product.reactive;
+
+import com.athar.ecommerce.product.ProductCatalogProperties;
+import com.athar.ecommerce.product.ProductResponse;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+class ReactiveProductRepositoryTest {
+
+    private ReactiveProductRepository sut;
+
+    @BeforeEach
+    void setUp() {
+        var connectionFactory = ConnectionFactories.get(
+                "r2dbc:h2:mem:///reactive-products;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        var databaseClient = DatabaseClient.create(connectionFactory);
+        Flux.just(
+                        "DROP ALL OBJECTS",
+                        "CREATE TABLE category (id INTEGER PRIMARY KEY, name VARCHAR(255), description VARCHAR(255))",
+                        """
+                        CREATE TABLE product (id INTEGER PRIMARY KEY, name VARCHAR(255), description VARCHAR(255),
+                            price DECIMAL, available_quantity DOUBLE PRECISION NOT NULL,
+                            category_id INTEGER REFERENCES category)
+                        """,
+                        "INSERT INTO category VALUES (1, 'Electronics', 'Devices and gadgets')",
+                        "INSERT INTO product VALUES (1, 'Smartphone', 'Android phone', 799.99, 10, 1)",
+                        "INSERT INTO product VALUES (51, 'Laptop', '15-inch laptop', 1299.99, 5, 1)",
+                        "INSERT INTO product VALUES (101, 'Gift card', 'No category', 25, 100, NULL)")
+                .concatMap(sql -> databaseClient.sql(sql).then())
+                .blockLast();
+
+        sut = new ReactiveProductRepository(databaseClient, new ProductCatalogProperties(100, 1000, 2));
+    }
+
+    @Test
+    void find_by_id_maps_the_category_columns() {
+        // Act & Assert
+        StepVerifier.create(sut.findById(51))
+                .expectNextMatches(product -> product.name().equals("Laptop")
+                        && product.availableQuantity() == 5
+                        && product.categoryName().equals("Electronics"))
+                .verifyComplete();
+        StepVerifier.create(sut.findById(999)).verifyComplete();
+    }
+
+    @Test
+    void find_all_streams_every_product_in_id_order_on_demand() {
+        // Act & Assert
+        StepVerifier.create(sut.findAll().map(ProductResponse::id), 1)
+                .expectNext(1)
+                .thenRequest(2)
+                .expectNext(51, 101)
+                .verifyComplete();
+    }
+
+    @Test
+    void find_all_by_id_and_page_after_use_the_id_order() {
+        // Act & Assert
+        StepVerifier.create(sut.findAllById(List.of(101, 1, 999)).map(ProductResponse::id))
+                .expectNext(1, 101)
+                .verifyComplete();
+        StepVerifier.create(sut.findPageAfter(1, 1).map(ProductResponse::id))
+                .expectNext(51)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,84 @@
+package com.athar.ecommerce.product.reactive;
+
+import com.athar.ecommerce.inventory.HotInventoryLedger;
+import com.athar.ecommerce.inventory.LedgerStockOverlay;
+import com.athar.ecommerce.product.ProductResponse;
+import com.athar.ecommerce.topk.TopProductTracker;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.OptionalDouble;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveProductServiceTest {
+
+    @Mock
+    private ReactiveProductRepository productRepository;
+    @Mock
+    private HotInventoryLedger inventoryLedger;
+    @Mock
+    private LedgerStockOverlay ledgerStock;
+    @Mock
+    private TopProductTracker topProductTracker;
+    @InjectMocks
+    private ReactiveProductService sut;
+
+    // Test Data Helper Methods
+    private ProductResponse createProduct(int id) {
+        return new ProductResponse(id, "Product " + id, "Description " + id, BigDecimal.TEN,
+                10, 1, "Electronics", "Devices and gadgets");
+    }
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(ledgerStock.apply(any()))
+                .thenAnswer(invocation -> new LedgerStockOverlay(inventoryLedger).apply(invocation.getArgument(0)));
+    }
+
+    @Test
+    void batch_lookup_keeps_request_order_and_reports_missing_ids() {
+        // Arrange
+        when(productRepository.findAllById(List.of(51, 1, 999)))
+                .thenReturn(Flux.just(createProduct(1), createProduct(51)));
+        when(inventoryLedger.quantityOf(anyInt())).thenReturn(OptionalDouble.empty());
+
+        // Act
+        var response = sut.findAllById(List.of(51, 1, 51, 999)).block();
+
+        // Assert
+        assertNotNull(response);
+        assertEquals(List.of(51, 1), response.products().stream().map(ProductResponse::id).toList());
+        assertEquals(List.of(999), response.missingIds());
+    }
+
+    @Test
+    void find_by_id_overlays_ledger_stock_and_fails_when_missing() {
+        // Arrange
+        when(productRepository.findById(1)).thenReturn(Mono.just(createProduct(1)));
+        when(productRepository.findById(2)).thenReturn(Mono.empty());
+        when(inventoryLedger.quantityOf(1)).thenReturn(OptionalDouble.of(3));
+
+        // Act & Assert
+        StepVerifier.create(sut.findById(1))
+                .expectNextMatches(product -> product.availableQuantity() == 3)
+                .verifyComplete();
+        StepVerifier.create(sut.findById(2))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+    }
+}
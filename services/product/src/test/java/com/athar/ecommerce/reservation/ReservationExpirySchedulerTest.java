@@ -0,0 +1,75 @@
+package com.athar.ecommerce.reservation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationExpirySchedulerTest {
+
+    @Spy
+    private ReservationProperties properties = new ReservationProperties(Duration.ofMinutes(15), Duration.ofHours(2),
+            Duration.ofMillis(100), 512, 4, Duration.ofSeconds(5), Duration.ofSeconds(30), 2);
+    @Mock
+    private StockReservationRepository reservationRepository;
+    @Mock
+    private StockReservationService reservationService;
+    @InjectMocks
+    private ReservationExpiryScheduler sut;
+
+    @Test
+    void sweep_releases_expired_holds_in_batches_until_a_batch_is_short() {
+        // Arrange
+        var first = UUID.randomUUID();
+        var second = UUID.randomUUID();
+        var third = UUID.randomUUID();
+        when(reservationRepository.findExpiredHeld(any(Instant.class), eq(2)))
+                .thenReturn(List.of(first, second), List.of(third));
+        when(reservationService.expire(any(UUID.class))).thenReturn(true);
+        var before = Instant.now();
+
+        // Act
+        sut.sweep();
+
+        // Assert
+        var expiredBy = ArgumentCaptor.forClass(Instant.class);
+        verify(reservationRepository, times(2)).findExpiredHeld(expiredBy.capture(), eq(2));
+        assertFalse(expiredBy.getValue().isAfter(Instant.now().minusSeconds(30)));
+        assertFalse(expiredBy.getValue().isBefore(before.minusSeconds(30)));
+        verify(reservationService).expire(first);
+        verify(reservationService).expire(second);
+        verify(reservationService).expire(third);
+        assertEquals(0, sut.outstanding());
+    }
+
+    @Test
+    void sweep_stops_at_a_failed_release_and_leaves_the_rest_for_the_next_run() {
+        // Arrange
+        var failing = UUID.randomUUID();
+        when(reservationRepository.findExpiredHeld(any(Instant.class), eq(2)))
+                .thenReturn(List.of(failing, UUID.randomUUID()));
+        when(reservationService.expire(failing)).thenThrow(new IllegalStateException("database down"));
+
+        // Act
+        assertDoesNotThrow(sut::sweep);
+
+        // Assert
+        verify(reservationRepository).findExpiredHeld(any(Instant.class), eq(2));
+        verify(reservationService).expire(failing);
+        verifyNoMoreInteractions(reservationService);
+    }
+}
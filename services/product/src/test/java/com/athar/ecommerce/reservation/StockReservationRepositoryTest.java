@@ -0,0 +1,109 @@
+package com.athar.ecommerce.reservation;
+
+import com.athar.ecommerce.product.ProductPurchaseRequest;
+import com.athar.ecommerce.product.ProductStockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StockReservationRepository.class, ProductStockRepository.class})
+class StockReservationRepositoryTest {
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+    @Autowired
+    private ProductStockRepository productStockRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private double[] stockOf(int productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT available_quantity, reserved_quantity FROM product WHERE id = ?",
+                (rs, rowNum) -> new double[]{rs.getDouble(1), rs.getDouble(2)}, productId);
+    }
+
+    @Test
+    void hold_and_return_move_stock_between_available_and_reserved() {
+        // Arrange
+        var before = stockOf(1);
+        var lines = List.of(new ProductPurchaseRequest(1, 2));
+
+        // Act
+        var held = productStockRepository.holdStock(lines);
+        var whileHeld = stockOf(1);
+        var tooMuch = productStockRepository.holdStock(List.of(new ProductPurchaseRequest(1, before[0])));
+        productStockRepository.returnStock(lines);
+
+        // Assert
+        assertArrayEquals(new int[]{1}, held);
+        assertArrayEquals(new double[]{before[0] - 2, before[1] + 2}, whileHeld);
+        assertArrayEquals(new int[]{0}, tooMuch);
+        assertArrayEquals(before, stockOf(1));
+    }
+
+    @Test
+    void reservation_closes_once_and_cannot_be_confirmed_after_expiry() {
+        // Arrange
+        var live = UUID.randomUUID();
+        var expired = UUID.randomUUID();
+        var now = Instant.now();
+        reservationRepository.insert(live, now.plusSeconds(60), List.of(
+                new ProductPurchaseRequest(51, 1), new ProductPurchaseRequest(1, 2)));
+        reservationRepository.insert(expired, now.minusSeconds(1), List.of(new ProductPurchaseRequest(1, 1)));
+
+        // Act
+        var confirmed = reservationRepository.confirm(live, now);
+        var confirmedTwice = reservationRepository.confirm(live, now);
+        var expiredConfirmed = reservationRepository.confirm(expired, now);
+        var expiredReleased = reservationRepository.close(expired, ReservationStatus.EXPIRED);
+
+        // Assert
+        assertTrue(confirmed);
+        assertFalse(confirmedTwice);
+        assertFalse(expiredConfirmed);
+        assertTrue(expiredReleased);
+        var reservation = reservationRepository.findById(live).orElseThrow();
+        assertEquals(ReservationStatus.CONFIRMED, reservation.status());
+        assertEquals(List.of(new ProductPurchaseRequest(1, 2), new ProductPurchaseRequest(51, 1)),
+                reservation.products());
+    }
+
+    @Test
+    void expired_held_reservations_are_found_oldest_first_up_to_the_limit() {
+        // Arrange
+        var now = Instant.now();
+        var oldest = UUID.randomUUID();
+        var older = UUID.randomUUID();
+        var recent = UUID.randomUUID();
+        var closed = UUID.randomUUID();
+        var live = UUID.randomUUID();
+        var lines = List.of(new ProductPurchaseRequest(1, 1));
+        reservationRepository.insert(older, now.minusSeconds(120), lines);
+        reservationRepository.insert(oldest, now.minusSeconds(180), lines);
+        reservationRepository.insert(recent, now.minusSeconds(10), lines);
+        reservationRepository.insert(closed, now.minusSeconds(240), lines);
+        reservationRepository.insert(live, now.plusSeconds(60), lines);
+        reservationRepository.close(closed, ReservationStatus.RELEASED);
+
+        // Act
+        var expired = reservationRepository.findExpiredHeld(now.minusSeconds(30), 10);
+        var limited = reservationRepository.findExpiredHeld(now.minusSeconds(30), 1);
+
+        // Assert
+        assertEquals(List.of(oldest, older), expired);
+        assertEquals(List.of(oldest), limited);
+    }
+}
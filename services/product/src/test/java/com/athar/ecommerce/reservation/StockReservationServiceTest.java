@@ -0,0 +1,157 @@
+package com.athar.ecommerce.reservation;
+
+import com.athar.ecommerce.exception.ProductPurchaseException;
+import com.athar.ecommerce.inventory.HotInventoryLedger;
+import com.athar.ecommerce.product.ProductChangedEvent;
+import com.athar.ecommerce.product.ProductMapper;
+import com.athar.ecommerce.product.ProductPurchaseRequest;
+import com.athar.ecommerce.product.ProductRepository;
+import com.athar.ecommerce.product.ProductResponse;
+import com.athar.ecommerce.product.ProductStockRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    @Mock
+    private StockReservationRepository reservationRepository;
+    @Mock
+    private ProductStockRepository productStockRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Spy
+    private ProductMapper mapper;
+    @Mock
+    private HotInventoryLedger inventoryLedger;
+    @Spy
+    private ReservationProperties properties = new ReservationProperties(Duration.ofMinutes(15), Duration.ofHours(2),
+            Duration.ofMillis(100), 512, 4, Duration.ofSeconds(5), Duration.ofSeconds(30), 500);
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @InjectMocks
+    private StockReservationService sut;
+
+    // Test Data Helper Methods
+    private ProductResponse createProduct(int id) {
+        return new ProductResponse(id, "Product " + id, "Description " + id, BigDecimal.valueOf(9.99),
+                10, 1, "Electronics", "Devices and gadgets");
+    }
+
+    @Test
+    void hold_moves_merged_lines_to_reserved_stock_and_schedules_expiry() {
+        // Arrange
+        var request = new StockReservationRequest(List.of(
+                new ProductPurchaseRequest(51, 2),
+                new ProductPurchaseRequest(1, 1),
+                new ProductPurchaseRequest(51, 1)
+        ), Duration.ofMinutes(5));
+        when(productStockRepository.holdStock(anyList())).thenReturn(new int[]{1, 1});
+
+        // Act
+        var reservation = sut.hold(request);
+
+        // Assert
+        var lines = List.of(new ProductPurchaseRequest(1, 1), new ProductPurchaseRequest(51, 3));
+        verify(productStockRepository).holdStock(lines);
+        verify(reservationRepository).insert(eq(reservation.id()), eq(reservation.expiresAt()), eq(lines));
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(List.of(1, 51)));
+        verify(eventPublisher).publishEvent(new ReservationHeldEvent(reservation.id(), reservation.expiresAt()));
+        assertEquals(ReservationStatus.HELD, reservation.status());
+        assertTrue(reservation.expiresAt().isAfter(Instant.now().plus(Duration.ofMinutes(4))));
+    }
+
+    @Test
+    void hold_reports_every_line_that_cannot_be_reserved() {
+        // Arrange
+        var request = new StockReservationRequest(List.of(
+                new ProductPurchaseRequest(1, 100),
+                new ProductPurchaseRequest(51, 1),
+                new ProductPurchaseRequest(999, 1)
+        ), null);
+        when(productStockRepository.holdStock(anyList())).thenReturn(new int[]{0, 1, 0});
+        when(productRepository.findAllByIdInOrderById(anyList())).thenReturn(List.of(createProduct(1)));
+
+        // Act & Assert
+        var exception = assertThrows(ProductPurchaseException.class, () -> sut.hold(request));
+
+        assertEquals("Not enough stock for product ID 1", exception.getFailures().get("product 1"));
+        assertEquals("Product does not exist", exception.getFailures().get("product 999"));
+        assertEquals(2, exception.getFailures().size());
+        verifyNoInteractions(reservationRepository, eventPublisher);
+    }
+
+    @Test
+    void hold_rejects_a_ttl_above_the_maximum() {
+        // Arrange
+        var request = new StockReservationRequest(List.of(new ProductPurchaseRequest(1, 1)), Duration.ofDays(1));
+
+        // Act & Assert
+        assertThrows(ProductPurchaseException.class, () -> sut.hold(request));
+        verifyNoInteractions(productStockRepository);
+    }
+
+    @Test
+    void expiry_returns_stock_and_closes_the_reservation() {
+        // Arrange
+        var reservationId = UUID.randomUUID();
+        var lines = List.of(new ProductPurchaseRequest(1, 2));
+        when(reservationRepository.close(reservationId, ReservationStatus.EXPIRED)).thenReturn(true);
+        when(reservationRepository.findLines(reservationId)).thenReturn(lines);
+
+        // Act
+        var expired = sut.expire(reservationId);
+
+        // Assert
+        assertTrue(expired);
+        verify(productStockRepository).returnStock(lines);
+        verify(eventPublisher).publishEvent(new ReservationClosedEvent(reservationId));
+    }
+
+    @Test
+    void expiry_after_confirmation_leaves_stock_alone() {
+        // Arrange
+        var reservationId = UUID.randomUUID();
+        when(reservationRepository.close(reservationId, ReservationStatus.EXPIRED)).thenReturn(false);
+
+        // Act
+        var expired = sut.expire(reservationId);
+
+        // Assert
+        assertFalse(expired);
+        verifyNoInteractions(productStockRepository, eventPublisher);
+    }
+
+    @Test
+    void confirming_an_expired_hold_is_rejected() {
+        // Arrange
+        var reservationId = UUID.randomUUID();
+        when(reservationRepository.confirm(eq(reservationId), any())).thenReturn(false);
+        when(reservationRepository.findById(reservationId)).thenReturn(Optional.of(new StockReservationResponse(
+                reservationId, ReservationStatus.HELD, Instant.now().minusSeconds(1), List.of())));
+
+        // Act & Assert
+        var exception = assertThrows(ProductPurchaseException.class, () -> sut.confirm(reservationId));
+
+        assertEquals("Reservation %s has expired".formatted(reservationId), exception.getMessage());
+        verifyNoInteractions(productStockRepository);
+    }
+}
@@ -0,0 +1,88 @@
+package com.athar.ecommerce.reservation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void timer_fires_on_its_deadline_tick_and_not_before() {
+        // Arrange
+        var sut = new TimingWheel<String>(4, 3, 0);
+        sut.schedule("a", 3);
+
+        // Act
+        var early = sut.advanceTo(2);
+        var due = sut.advanceTo(3);
+
+        // Assert
+        assertEquals(List.of(), early);
+        assertEquals(List.of("a"), due);
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    void timers_cascading_through_every_level_fire_on_their_exact_tick() {
+        // Arrange
+        var sut = new TimingWheel<Long>(4, 3, 5);
+        var random = new SplittableRandom(7);
+        var deadlines = new ArrayList<Long>();
+        for (int i = 0; i < 500; i++) {
+            var deadline = 5 + random.nextLong(1, 200);
+            deadlines.add(deadline);
+            sut.schedule(deadline, deadline);
+        }
+
+        // Act & Assert
+        var fired = 0;
+        for (long tick = 6; tick <= 205; tick++) {
+            for (var deadline : sut.advanceTo(tick)) {
+                assertEquals(tick, deadline);
+                fired++;
+            }
+        }
+        assertEquals(deadlines.size(), fired);
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    void cancelled_timer_never_fires() {
+        // Arrange
+        var sut = new TimingWheel<String>(4, 3, 0);
+        var cancelled = sut.schedule("cancelled", 20);
+        sut.schedule("kept", 20);
+
+        // Act
+        var firstCancel = sut.cancel(cancelled);
+        var secondCancel = sut.cancel(cancelled);
+        var fired = sut.advanceTo(20);
+
+        // Assert
+        assertTrue(firstCancel);
+        assertFalse(secondCancel);
+        assertEquals(List.of("kept"), fired);
+    }
+
+    @Test
+    void overdue_and_out_of_range_deadlines_are_still_honoured() {
+        // Arrange
+        var sut = new TimingWheel<String>(4, 2, 100);
+        sut.schedule("overdue", 50);
+        sut.schedule("beyond-top-level", 100 + 40);
+
+        // Act
+        var overdue = sut.advanceTo(100);
+        var beforeDeadline = sut.advanceTo(139);
+        var atDeadline = sut.advanceTo(140);
+
+        // Assert
+        assertEquals(List.of("overdue"), overdue);
+        assertEquals(List.of(), beforeDeadline);
+        assertEquals(List.of("beyond-top-level"), atDeadline);
+    }
+}
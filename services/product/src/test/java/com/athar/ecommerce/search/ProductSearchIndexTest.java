@@ -0,0 +1,130 @@
+package com.athar.ecommerce.search;
+
+import com.athar.ecommerce.product.ProductCatalogRepository;
+import com.athar.ecommerce.product.ProductChangedEvent;
+import com.athar.ecommerce.product.ProductRepository;
+import com.athar.ecommerce.product.ProductResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexTest {
+
+    private final ProductCatalogRepository catalogRepository = mock(ProductCatalogRepository.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private ProductSearchIndex sut;
+
+    private static ProductResponse product(int id, String name, String description, String price, int categoryId) {
+        return new ProductResponse(id, name, description, new BigDecimal(price), 10, categoryId,
+                "Category " + categoryId, "Description of category " + categoryId);
+    }
+
+    @BeforeEach
+    void setUp() {
+        var catalog = List.of(
+                product(1, "Smartphone", "Latest Android smartphone", "799.99", 1),
+                product(51, "Laptop", "15-inch laptop with 16GB RAM", "1299.99", 1),
+                product(101, "Bluetooth Headphones", "Noise cancelling headphones", "199.99", 1),
+                product(151, "Fiction Novel", "Bestselling fiction novel", "19.99", 2),
+                product(201, "Cookbook", "Healthy recipes for everyday cooking", "29.99", 2),
+                product(251, "Smart Watch", "Fitness tracking watch", "249.00", 3));
+        doAnswer(invocation -> {
+            catalog.forEach(invocation.<Consumer<ProductResponse>>getArgument(0));
+            return null;
+        }).when(catalogRepository).streamAll(any());
+
+        sut = new ProductSearchIndex(catalogRepository, productRepository, mock(PlatformTransactionManager.class));
+        sut.afterSingletonsInstantiated();
+    }
+
+    private static List<Integer> ids(ProductSearchResponse response) {
+        return response.content().stream().map(ProductResponse::id).toList();
+    }
+
+    @Test
+    void text_query_matches_every_token_by_prefix() {
+        // Act
+        var response = sut.search(new ProductSearchQuery("smart", null, null, null, 0, 10));
+        var narrowed = sut.search(new ProductSearchQuery("Smart andr", null, null, null, 0, 10));
+
+        // Assert
+        assertEquals(List.of(1, 251), ids(response));
+        assertEquals(List.of(1), ids(narrowed));
+    }
+
+    @Test
+    void text_category_and_price_filters_combine_with_facets() {
+        // Act
+        var response = sut.search(new ProductSearchQuery(null, 1, new BigDecimal("100"), new BigDecimal("800"), 0, 10));
+
+        // Assert
+        assertEquals(List.of(1, 101), ids(response));
+        assertEquals(Map.of(1, 2L), response.categoryFacets());
+        assertEquals(1, response.priceFacets().get(3).count());
+        assertEquals(1, response.priceFacets().get(5).count());
+    }
+
+    @Test
+    void price_only_query_uses_the_price_index_and_pages_results() {
+        // Act
+        var firstPage = sut.search(new ProductSearchQuery(null, null, null, new BigDecimal("250"), 0, 2));
+        var secondPage = sut.search(new ProductSearchQuery(null, null, null, new BigDecimal("250"), 1, 2));
+
+        // Assert
+        assertEquals(4, firstPage.totalHits());
+        assertEquals(List.of(101, 151), ids(firstPage));
+        assertEquals(List.of(201, 251), ids(secondPage));
+    }
+
+    @Test
+    void changed_products_are_reindexed() {
+        // Arrange
+        when(productRepository.findAllByIdInOrderById(List.of(151, 301))).thenReturn(List.of(
+                product(151, "Mystery Novel", "Bestselling mystery novel", "19.99", 2),
+                product(301, "Yoga Mat", "Non-slip yoga mat", "24.99", 5)));
+
+        // Act
+        sut.onProductChanged(new ProductChangedEvent(List.of(151, 301)));
+
+        // Assert
+        assertEquals(List.of(), ids(sut.search(new ProductSearchQuery("fiction", null, null, null, 0, 10))));
+        assertEquals(List.of(151), ids(sut.search(new ProductSearchQuery("myst", null, null, null, 0, 10))));
+        assertEquals(List.of(301), ids(sut.search(new ProductSearchQuery("yoga", 5, null, null, 0, 10))));
+    }
+
+    @Test
+    void browsing_pages_the_catalog_with_facets_kept_up_to_date_on_changes() {
+        // Arrange
+        when(productRepository.findAllByIdInOrderById(List.of(251, 301))).thenReturn(List.of(
+                product(251, "Smart Watch", "Fitness tracking watch", "49.99", 2),
+                product(301, "Yoga Mat", "Non-slip yoga mat", "24.99", 5)));
+        sut.onProductChanged(new ProductChangedEvent(List.of(251, 301)));
+
+        // Act
+        var catalogPage = sut.search(new ProductSearchQuery(null, null, null, null, 1, 2));
+        var category = sut.search(new ProductSearchQuery(" ", 2, null, null, 0, 10));
+        var emptyCategory = sut.search(new ProductSearchQuery(null, 3, null, null, 0, 10));
+
+        // Assert
+        assertEquals(List.of(101, 151), ids(catalogPage));
+        assertEquals(7, catalogPage.totalHits());
+        assertEquals(Map.of(1, 3L, 2, 3L, 5, 1L), catalogPage.categoryFacets());
+        assertEquals(List.of(2L, 2L, 0L, 1L, 0L, 1L, 1L),
+                catalogPage.priceFacets().stream().map(PriceFacet::count).toList());
+        assertEquals(List.of(151, 201, 251), ids(category));
+        assertEquals(Map.of(2, 3L), category.categoryFacets());
+        assertEquals(List.of(1L, 2L, 0L, 0L, 0L, 0L, 0L),
+                category.priceFacets().stream().map(PriceFacet::count).toList());
+        assertEquals(0, emptyCategory.totalHits());
+        assertEquals(Map.of(), emptyCategory.categoryFacets());
+    }
+}
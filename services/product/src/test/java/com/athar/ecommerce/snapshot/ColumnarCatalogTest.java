@@ -0,0 +1,174 @@
+package com.athar.ecommerce.snapshot;
+
+import com.athar.ecommerce.product.ProductResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarCatalogTest {
+
+    private static final ObjectMapper JSON = Jackson2ObjectMapperBuilder.json().build();
+    private static final ObjectMapper CBOR = Jackson2ObjectMapperBuilder.cbor().build();
+
+    // Test Data Helper Methods
+    private ProductResponse createProduct(int id, String name, BigDecimal price, double availableQuantity) {
+        return new ProductResponse(id, name, "Description " + id, price, availableQuantity,
+                1, "Electronics", "Devices and gadgets");
+    }
+
+    private List<ProductResponse> edgeCaseProducts() {
+        return List.of(
+                createProduct(1, "Smartphone", new BigDecimal("799.99"), 50),
+                createProduct(51, "Café \"quoted\" \\ 日本 😀", new BigDecimal("3"), 0.5),
+                new ProductResponse(101, null, null, null, 7, null, null, null),
+                createProduct(151, "Tiny", new BigDecimal("0.000001"), 1),
+                createProduct(201, "Tinier", new BigDecimal("0.0000001"), 1),
+                createProduct(251, "Huge", new BigDecimal("123456789012345678901234567890.12"), 1),
+                createProduct(301, "Exponent", new BigDecimal("1E+3"), 1),
+                createProduct(351, "Negative", new BigDecimal("-12.50"), -1),
+                createProduct(401, "Zero", new BigDecimal("0.00"), 0),
+                new ProductResponse(451, "Other category", "x", BigDecimal.TEN, 3, 51, "Books", null));
+    }
+
+    private static ColumnarCatalog catalogOf(List<ProductResponse> products) {
+        var catalog = new ColumnarCatalog(4, 64);
+        catalog.upsertAll(products);
+        return catalog;
+    }
+
+    private static String json(ColumnarCatalog catalog) throws Exception {
+        return new String(JSON.writeValueAsBytes(new CatalogView(catalog, id -> OptionalDouble.empty())),
+                StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void serializes_exactly_like_the_product_responses() throws Exception {
+        // Arrange
+        var products = edgeCaseProducts();
+
+        // Act
+        var catalog = catalogOf(products);
+
+        // Assert
+        assertEquals(JSON.writeValueAsString(products), json(catalog));
+        // The row count can change while the catalog is written, so CBOR gets an indefinite-length array
+        assertEquals(products, CBOR.readValue(
+                CBOR.writeValueAsBytes(new CatalogView(catalog, id -> OptionalDouble.empty())),
+                new TypeReference<List<ProductResponse>>() {
+                }));
+    }
+
+    @Test
+    void catalog_larger_than_one_chunk_is_written_in_id_order() throws Exception {
+        // Arrange
+        var products = IntStream.range(0, 1000)
+                .map(i -> 1000 - i)
+                .mapToObj(id -> createProduct(id, "Product " + id, BigDecimal.valueOf(id, 2), id))
+                .toList();
+
+        // Act
+        var catalog = catalogOf(products);
+
+        // Assert
+        var sorted = new ArrayList<>(products);
+        sorted.sort((left, right) -> Integer.compare(left.id(), right.id()));
+        assertEquals(1000, catalog.size());
+        assertEquals(JSON.writeValueAsString(sorted), json(catalog));
+    }
+
+    @Test
+    void updates_replace_rows_in_place_and_keep_unchanged_strings() throws Exception {
+        // Arrange
+        var catalog = catalogOf(List.of(
+                createProduct(1, "Smartphone", new BigDecimal("799.99"), 50),
+                createProduct(101, "Headphones", new BigDecimal("99.50"), 5)));
+        var offHeap = catalog.offHeapBytes();
+
+        // Act
+        catalog.upsertAll(List.of(createProduct(1, "Smartphone", new BigDecimal("749.99"), 49)));
+        var afterStockUpdate = catalog.offHeapBytes();
+        catalog.upsertAll(List.of(createProduct(51, "Laptop", new BigDecimal("1299.99"), 30)));
+
+        // Assert
+        assertEquals(offHeap, afterStockUpdate);
+        assertEquals(JSON.writeValueAsString(List.of(
+                createProduct(1, "Smartphone", new BigDecimal("749.99"), 49),
+                createProduct(51, "Laptop", new BigDecimal("1299.99"), 30),
+                createProduct(101, "Headphones", new BigDecimal("99.50"), 5))), json(catalog));
+    }
+
+    @Test
+    void repeated_renames_are_compacted_away() throws Exception {
+        // Arrange
+        var catalog = catalogOf(List.of(createProduct(1, "Name 0", BigDecimal.ONE, 1)));
+
+        // Act
+        for (int i = 1; i <= 10_000; i++) {
+            catalog.upsertAll(List.of(createProduct(1, "Name " + i, BigDecimal.ONE, 1)));
+        }
+
+        // Assert
+        assertEquals(JSON.writeValueAsString(List.of(createProduct(1, "Name 10000", BigDecimal.ONE, 1))),
+                json(catalog));
+        assertTrue(catalog.offHeapBytes() < 1024, "arena grew to " + catalog.offHeapBytes());
+    }
+
+    @Test
+    void overlay_replaces_the_stored_quantity() throws Exception {
+        // Arrange
+        var catalog = catalogOf(List.of(
+                createProduct(1, "Smartphone", BigDecimal.TEN, 50),
+                createProduct(51, "Laptop", BigDecimal.TEN, 30)));
+
+        // Act
+        var json = JSON.writeValueAsString(new CatalogView(catalog,
+                id -> id == 51 ? OptionalDouble.of(12) : OptionalDouble.empty()));
+        var bytes = JSON.writeValueAsBytes(new CatalogView(catalog,
+                id -> id == 51 ? OptionalDouble.of(12) : OptionalDouble.empty()));
+
+        // Assert
+        assertEquals(JSON.writeValueAsString(List.of(
+                createProduct(1, "Smartphone", BigDecimal.TEN, 50),
+                createProduct(51, "Laptop", BigDecimal.TEN, 12))), json);
+        assertEquals(json, new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void price_formatting_matches_big_decimal() {
+        // Arrange
+        var target = new char[32];
+
+        // Act & Assert
+        for (var value : List.of("0", "0.00", "3", "799.99", "-12.50", "0.005", "-0.000001", "9223372036854775.80",
+                "1234567890123456789")) {
+            var price = new BigDecimal(value);
+            var length = ColumnarCatalog.formatPrice(price.unscaledValue().longValue(), price.scale(), target);
+            assertEquals(price.toString(), new String(target, 0, length));
+        }
+    }
+
+    @Test
+    void quantity_formatting_matches_double_to_string() {
+        // Arrange
+        var target = new char[32];
+
+        // Act & Assert
+        for (var quantity : List.of(0.0, 1.0, 50.0, -1.0, 9_999_999.0, -9_999_999.0)) {
+            var length = ColumnarCatalog.formatQuantity(quantity, target);
+            assertEquals(Double.toString(quantity), new String(target, 0, length));
+        }
+        for (var quantity : List.of(-0.0, 0.5, 1e7, Double.NaN, Double.POSITIVE_INFINITY)) {
+            assertEquals(-1, ColumnarCatalog.formatQuantity(quantity, target));
+        }
+    }
+}
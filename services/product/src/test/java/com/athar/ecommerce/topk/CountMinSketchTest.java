@@ -0,0 +1,59 @@
+package com.athar.ecommerce.topk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    void estimates_never_undercount_and_stay_close_for_frequent_keys() {
+        // Arrange
+        var sut = new CountMinSketch(1024, 4);
+        var random = new Random(42);
+        var exact = new HashMap<Integer, Long>();
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            var key = i % 10 == 0 ? random.nextInt(5) : random.nextInt(50_000);
+            exact.merge(key, 1L, Long::sum);
+            sut.add(key, 1);
+        }
+
+        // Assert
+        exact.forEach((key, count) -> assertTrue(sut.estimate(key) >= count, "undercounted " + key));
+        for (int key = 0; key < 5; key++) {
+            assertEquals(exact.get(key), sut.estimate(key), exact.get(key) * 0.1);
+        }
+    }
+
+    @Test
+    void decay_halves_the_estimates() {
+        // Arrange
+        var sut = new CountMinSketch(64, 3);
+        sut.add(7, 100);
+
+        // Act
+        sut.decay();
+
+        // Assert
+        assertEquals(50, sut.estimate(7));
+        assertEquals(0, sut.estimate(8));
+    }
+
+    @Test
+    void width_is_rounded_up_to_a_power_of_two() {
+        // Arrange
+        var sut = new CountMinSketch(100, 2);
+
+        // Act
+        var estimate = sut.add(1, 3);
+
+        // Assert
+        assertEquals(3, estimate);
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 2));
+    }
+}
@@ -0,0 +1,115 @@
+package com.athar.ecommerce.topk;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TopProductTrackerTest {
+
+    @Mock
+    private TopProductRepository topProductRepository;
+
+    private TopProductTracker sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new TopProductTracker(
+                new TopProductProperties(3, 2048, 4, Duration.ofMinutes(10), Duration.ofMinutes(1), true),
+                topProductRepository);
+    }
+
+    @Test
+    void keeps_the_most_requested_products_among_background_traffic() {
+        // Arrange
+        var random = new Random(7);
+
+        // Act
+        for (int i = 0; i < 50_000; i++) {
+            sut.record(1_000 + random.nextInt(10_000));
+            if (i % 10 == 0) {
+                sut.record(51);
+            }
+            if (i % 20 == 0) {
+                sut.record(101);
+            }
+            if (i % 40 == 0) {
+                sut.record(1);
+            }
+        }
+
+        // Assert
+        assertEquals(List.of(51, 101, 1), sut.topProducts().stream().map(TopProduct::productId).toList());
+        assertEquals(5_000, sut.topProducts().getFirst().estimatedCount(), 500);
+    }
+
+    @Test
+    void product_overtaking_the_smallest_entry_replaces_it() {
+        // Arrange
+        sut.record(1, 30);
+        sut.record(2, 20);
+        sut.record(3, 10);
+
+        // Act
+        sut.record(4, 5);
+        var beforeOvertaking = sut.topProducts();
+        sut.record(4, 10);
+
+        // Assert
+        assertEquals(List.of(1, 2, 3), beforeOvertaking.stream().map(TopProduct::productId).toList());
+        assertEquals(List.of(new TopProduct(1, 30), new TopProduct(2, 20), new TopProduct(4, 15)),
+                sut.topProducts());
+    }
+
+    @Test
+    void decay_halves_the_ranking_counts() {
+        // Arrange
+        sut.record(1, 40);
+        sut.record(2, 10);
+
+        // Act
+        sut.decay();
+        sut.record(2, 1);
+
+        // Assert
+        assertEquals(List.of(new TopProduct(1, 20), new TopProduct(2, 6)), sut.topProducts());
+    }
+
+    @Test
+    void persist_stores_the_ranking_and_seed_restores_it() {
+        // Arrange
+        sut.record(1, 10);
+        sut.record(2, 30);
+
+        // Act
+        sut.persist();
+        var restarted = new TopProductTracker(
+                new TopProductProperties(3, 2048, 4, Duration.ofMinutes(10), Duration.ofMinutes(1), true),
+                topProductRepository);
+        restarted.seed(sut.topProducts());
+
+        // Assert
+        verify(topProductRepository).replace(eq(List.of(new TopProduct(2, 30), new TopProduct(1, 10))), any());
+        assertEquals(sut.topProducts(), restarted.topProducts());
+    }
+
+    @Test
+    void persist_skips_an_empty_ranking() {
+        // Act
+        sut.persist();
+
+        // Assert
+        verifyNoInteractions(topProductRepository);
+    }
+}